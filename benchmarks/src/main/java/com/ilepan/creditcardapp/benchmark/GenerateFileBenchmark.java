@@ -0,0 +1,69 @@
+package com.ilepan.creditcardapp.benchmark;
+
+import com.ilepan.creditcardapp.config.FileGenerationProperties;
+import com.ilepan.creditcardapp.config.OibFilterProperties;
+import com.ilepan.creditcardapp.dto.UserResponse;
+import com.ilepan.creditcardapp.service.OibBloomFilter;
+import com.ilepan.creditcardapp.service.RecentWrites;
+import com.ilepan.creditcardapp.service.UserServiceImpl;
+import com.ilepan.creditcardapp.validator.OibValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link UserServiceImpl#generateFile(UserResponse, String)}, including the file system write.
+ * Files are written to a temporary directory that is deleted when the trial ends.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GenerateFileBenchmark {
+
+    private static final String OIB = "17748241351";
+
+    private static final String FILE_NAME = OIB + "_20240101120000.txt";
+
+    private UserServiceImpl userService;
+
+    private UserResponse user;
+
+    private Path outputDir;
+
+    @Setup
+    public void setUp() throws IOException {
+        outputDir = Files.createTempDirectory("generate-file-benchmark");
+        // generateFile does not touch the repository
+        userService = new UserServiceImpl(null, new OibValidator(),
+                Validation.buildDefaultValidatorFactory().getValidator(), 1000,
+                new FileGenerationProperties(outputDir, 1, 1, Duration.ofHours(1)),
+                new OibBloomFilter(new OibFilterProperties(false, 1, 0.01)), new RecentWrites(Duration.ZERO),
+                new SimpleMeterRegistry());
+        user = new UserResponse(1, "Darko", "Kozul", OIB, "0", null, 0);
+    }
+
+    @Benchmark
+    public void generateFile() throws IOException {
+        userService.generateFile(user, FILE_NAME);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(outputDir)) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(outputDir);
+    }
+}
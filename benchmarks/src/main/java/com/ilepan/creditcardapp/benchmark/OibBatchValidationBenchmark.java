@@ -0,0 +1,66 @@
+package com.ilepan.creditcardapp.benchmark;
+
+import com.ilepan.creditcardapp.config.OibValidationProperties;
+import com.ilepan.creditcardapp.dto.OibValidationReport;
+import com.ilepan.creditcardapp.service.OibValidationServiceImpl;
+import com.ilepan.creditcardapp.validator.OibValidator;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Measures validating a list of 100,000 OIBs, one in a hundred invalid, as done by <code>POST /api/oib/validate</code>,
+ * with one validation thread and with one per available processor.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OibBatchValidationBenchmark {
+
+    private static final int OIBS = 100_000;
+
+    /** The number of validation threads, 0 for one per available processor. */
+    @Param({"1", "0"})
+    private int parallelism;
+
+    private ForkJoinPool pool;
+
+    private OibValidationServiceImpl service;
+
+    private byte[] list;
+
+    @Setup
+    public void setUp() {
+        OibValidator oibValidator = new OibValidator();
+        OibValidationProperties properties = new OibValidationProperties(65536, OIBS, parallelism);
+        pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        service = new OibValidationServiceImpl(oibValidator, pool, properties);
+        list = IntStream.range(0, OIBS)
+                .mapToObj(i -> {
+                    String prefix = String.format("1%09d", i);
+                    int controlDigit = oibValidator.calculateControlDigit(prefix);
+                    return prefix + (i % 100 == 0 ? (controlDigit + 1) % 10 : controlDigit);
+                })
+                .collect(Collectors.joining("\n", "", "\n"))
+                .getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @Benchmark
+    public OibValidationReport validate() throws IOException {
+        return service.validate(new ByteArrayInputStream(list));
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,93 @@
+package com.ilepan.creditcardapp.benchmark;
+
+import com.ilepan.creditcardapp.exception.InvalidOibException;
+import com.ilepan.creditcardapp.validator.OibValidator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the original regex and substring based OIB validation with the single-pass
+ * {@link OibValidator} implementation, for valid input and for input with a wrong control digit.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OibValidatorBenchmark {
+
+    private final OibValidator oibValidator = new OibValidator();
+
+    @Param({"17748241351", "17748241352"})
+    private String oib;
+
+    private byte[] oibBytes;
+
+    @Setup
+    public void setUp() {
+        oibBytes = oib.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @Benchmark
+    public void legacyValidateOIB(Blackhole blackhole) {
+        try {
+            legacyValidate(oib);
+            blackhole.consume(true);
+        } catch (InvalidOibException e) {
+            blackhole.consume(e);
+        }
+    }
+
+    @Benchmark
+    public void validateOIB(Blackhole blackhole) {
+        try {
+            oibValidator.validateOIB(oib);
+            blackhole.consume(true);
+        } catch (InvalidOibException e) {
+            blackhole.consume(e);
+        }
+    }
+
+    @Benchmark
+    public boolean isValidCharSequence() {
+        return oibValidator.isValid(oib);
+    }
+
+    @Benchmark
+    public boolean isValidBytes() {
+        return oibValidator.isValid(oibBytes, 0, oibBytes.length);
+    }
+
+    /**
+     * The validation as implemented before the single-pass rewrite, kept as the baseline.
+     */
+    private static void legacyValidate(String theOib) {
+        if (theOib == null || !theOib.matches("\\d{11}")) {
+            throw new InvalidOibException("OIB must be a numeric value and exactly 11 digits long.");
+        }
+        String oibWithoutControlDigit = theOib.substring(0, 10);
+        int controlDigit = Character.getNumericValue(theOib.charAt(10));
+        int x = 10;
+        for (int i = 0; i < 10; i++) {
+            int digit = Character.getNumericValue(oibWithoutControlDigit.charAt(i));
+            x = (x + digit) % 10;
+            if (x == 0) {
+                x = 10;
+            }
+            x = (x * 2) % 11;
+        }
+        int expected = 11 - x;
+        if (expected == 10) {
+            expected = 0;
+        } else if (expected == 11) {
+            expected = 1;
+        }
+        if (expected != controlDigit) {
+            throw new InvalidOibException("Provided OIB is not valid!");
+        }
+    }
+}
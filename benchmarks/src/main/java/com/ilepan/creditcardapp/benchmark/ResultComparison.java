@@ -0,0 +1,84 @@
+package com.ilepan.creditcardapp.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares two JMH JSON result files and reports benchmarks whose score regressed by more than
+ * a threshold. Intended to be run between releases:
+ * <pre>
+ * java -cp benchmarks.jar com.ilepan.creditcardapp.benchmark.ResultComparison baseline.json current.json [thresholdPercent]
+ * </pre>
+ * Exits with status 1 if any benchmark regressed.
+ */
+public class ResultComparison {
+
+    /** The regression threshold used when none is given, in percent. */
+    static final double DEFAULT_THRESHOLD_PERCENT = 10.0;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: ResultComparison <baseline.json> <current.json> [thresholdPercent]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD_PERCENT;
+        Map<String, JsonNode> baseline = read(new File(args[0]));
+        Map<String, JsonNode> current = read(new File(args[1]));
+
+        int regressions = 0;
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("NEW        %s%n", entry.getKey());
+                continue;
+            }
+            double change = changePercent(before, entry.getValue());
+            boolean regressed = change > threshold;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("%-10s %s %+.1f%% (%.3f -> %.3f %s)%n", regressed ? "REGRESSED" : "OK", entry.getKey(),
+                    change, score(before), score(entry.getValue()), entry.getValue().path("primaryMetric").path("scoreUnit").asText());
+        }
+        System.exit(regressions > 0 ? 1 : 0);
+    }
+
+    /**
+     * Returns how much worse the current score is than the baseline, in percent.
+     * Throughput modes are better when higher, all time based modes are better when lower.
+     */
+    private static double changePercent(JsonNode theBaseline, JsonNode theCurrent) {
+        double before = score(theBaseline);
+        double after = score(theCurrent);
+        double change = (after - before) / before * 100.0;
+        return "thrpt".equals(theCurrent.path("mode").asText()) ? -change : change;
+    }
+
+    private static double score(JsonNode theResult) {
+        return theResult.path("primaryMetric").path("score").asDouble();
+    }
+
+    /**
+     * Reads a JMH JSON result file, keyed by benchmark name, mode and parameters.
+     */
+    private static Map<String, JsonNode> read(File theFile) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(theFile)) {
+            StringBuilder key = new StringBuilder(result.path("benchmark").asText())
+                    .append(" [").append(result.path("mode").asText()).append(']');
+            Iterator<Map.Entry<String, JsonNode>> params = result.path("params").fields();
+            while (params.hasNext()) {
+                Map.Entry<String, JsonNode> param = params.next();
+                key.append(' ').append(param.getKey()).append('=').append(param.getValue().asText());
+            }
+            results.put(key.toString(), result);
+        }
+        return results;
+    }
+}
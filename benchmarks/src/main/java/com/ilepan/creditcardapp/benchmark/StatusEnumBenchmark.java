@@ -0,0 +1,26 @@
+package com.ilepan.creditcardapp.benchmark;
+
+import com.ilepan.creditcardapp.constants.StatusEnum;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the lookup of a {@link StatusEnum} from its database value.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StatusEnumBenchmark {
+
+    @Param({"0", "1"})
+    private String statusValue;
+
+    @Benchmark
+    public StatusEnum retrieveStatusValue() {
+        return StatusEnum.retrieveStatusValue(statusValue);
+    }
+}
@@ -0,0 +1,43 @@
+package com.ilepan.creditcardapp.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.ilepan.creditcardapp.entity.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures Jackson serialization of a {@link User}, as done for every REST response.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserJsonBenchmark {
+
+    private ObjectWriter writer;
+
+    private User user;
+
+    @Setup
+    public void setUp() {
+        writer = new ObjectMapper().writerFor(User.class);
+        user = new User("Darko", "Kozul", "17748241351", "0");
+        user.setId(42);
+        user.setFileName("17748241351_20240101120000.txt");
+    }
+
+    @Benchmark
+    public byte[] serializeToBytes() throws JsonProcessingException {
+        return writer.writeValueAsBytes(user);
+    }
+
+    @Benchmark
+    public String serializeToString() throws JsonProcessingException {
+        return writer.writeValueAsString(user);
+    }
+}
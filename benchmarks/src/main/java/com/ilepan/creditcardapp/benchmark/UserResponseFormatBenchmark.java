@@ -0,0 +1,72 @@
+package com.ilepan.creditcardapp.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.ilepan.creditcardapp.dto.UserPage;
+import com.ilepan.creditcardapp.dto.UserResponse;
+import com.ilepan.creditcardapp.dto.UserSummary;
+import com.ilepan.creditcardapp.entity.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Compares serializing a User response from the entity and from {@link UserResponse}, and a page of the listing,
+ * in JSON with and without the Blackbird module and in Smile with it.
+ * The size of every payload is printed once per trial.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserResponseFormatBenchmark {
+
+    @Param({"json", "json-blackbird", "smile-blackbird"})
+    public String format;
+
+    private ObjectMapper mapper;
+
+    private User user;
+
+    private UserResponse response;
+
+    private UserPage page;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        mapper = format.startsWith("smile") ? new ObjectMapper(new SmileFactory()) : new ObjectMapper();
+        if (format.endsWith("blackbird")) {
+            mapper.registerModule(new BlackbirdModule());
+        }
+        user = new User("Darko", "Kozul", "17748241351", "0");
+        user.setId(42);
+        user.setFileName("17748241351_20240101120000.txt");
+        response = UserResponse.from(user);
+        page = new UserPage(IntStream.range(0, 100)
+                .mapToObj(i -> new UserSummary(i, "Darko", "Kozul" + i, "17748241351", "0", null))
+                .toList(), "AAAAAAAAAGQ");
+        System.out.printf("%n%s sizes: user %d bytes, page of %d users %d bytes%n", format,
+                mapper.writeValueAsBytes(response).length, page.items().size(), mapper.writeValueAsBytes(page).length);
+    }
+
+    @Benchmark
+    public byte[] serializeEntity() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(user);
+    }
+
+    @Benchmark
+    public byte[] serializeResponse() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(page);
+    }
+}
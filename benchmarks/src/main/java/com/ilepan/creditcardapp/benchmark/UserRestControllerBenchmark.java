@@ -0,0 +1,92 @@
+package com.ilepan.creditcardapp.benchmark;
+
+import com.ilepan.creditcardapp.CreditCardApplication;
+import com.ilepan.creditcardapp.validator.OibValidator;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * End-to-end benchmark of the GET and POST /api/user endpoints.
+ * The application is started once per trial on a random port against an in-memory H2 database
+ * and driven over HTTP, so the numbers include Tomcat, Spring MVC, Jackson, Hibernate and JDBC.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserRestControllerBenchmark {
+
+    private static final String EXISTING_OIB = "17748241351";
+
+    private final OibValidator oibValidator = new OibValidator();
+
+    /** Source of unique OIB prefixes for POST requests. */
+    private final AtomicLong oibSequence = new AtomicLong(1_000_000_000L);
+
+    private ConfigurableApplicationContext context;
+
+    private HttpClient httpClient;
+
+    private String baseUrl;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, InterruptedException {
+        // passed as command line arguments so that they take precedence over the bundled application.properties
+        context = new SpringApplicationBuilder(CreditCardApplication.class).run(
+                "--server.port=0",
+                "--server.address=127.0.0.1",
+                "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--logging.level.root=warn");
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        baseUrl = "http://127.0.0.1:" + port + "/api";
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        send(post(EXISTING_OIB));
+    }
+
+    @Benchmark
+    public int getUser() throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + "/user/" + EXISTING_OIB)).GET().build());
+    }
+
+    @Benchmark
+    public int addUser() throws IOException, InterruptedException {
+        String prefix = Long.toString(oibSequence.getAndIncrement());
+        return send(post(prefix + oibValidator.calculateControlDigit(prefix)));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private HttpRequest post(String theOib) {
+        String body = "{\"firstName\":\"Ivan\",\"lastName\":\"Horvat\",\"oib\":\"" + theOib + "\",\"status\":\"1\"}";
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/user"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private int send(HttpRequest theRequest) throws IOException, InterruptedException {
+        HttpResponse<Void> response = httpClient.send(theRequest, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() >= 300) {
+            throw new IllegalStateException("Unexpected status " + response.statusCode() + " for " + theRequest.uri());
+        }
+        return response.statusCode();
+    }
+}
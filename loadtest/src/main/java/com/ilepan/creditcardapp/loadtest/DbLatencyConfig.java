@@ -0,0 +1,88 @@
+package com.ilepan.creditcardapp.loadtest;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * Adds a fixed delay to every statement execution, so that the in-memory H2 database blocks the calling
+ * thread like a round trip to MySQL does. Without it, the request threads would never wait on I/O and the
+ * comparison of platform and virtual threads would be meaningless.
+ * The delay is set with the <code>loadtest.db-latency</code> property.
+ */
+@Configuration
+public class DbLatencyConfig {
+
+    /**
+     * Wraps every {@link DataSource} bean so that its statements are delayed.
+     *
+     * @param theEnvironment The environment holding the delay.
+     * @return The bean post processor.
+     */
+    @Bean
+    public static BeanPostProcessor dbLatencyInjector(Environment theEnvironment) {
+        Duration latency = theEnvironment.getProperty("loadtest.db-latency", Duration.class, Duration.ZERO);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !latency.isZero()) {
+                    return new DelegatingDataSource(dataSource) {
+                        @Override
+                        public Connection getConnection() throws SQLException {
+                            return delayed(super.getConnection(), latency);
+                        }
+                    };
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Proxies a connection so that the statements it creates are delayed.
+     */
+    private static Connection delayed(Connection theConnection, Duration theLatency) {
+        return (Connection) Proxy.newProxyInstance(DbLatencyConfig.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    Object result = invoke(theConnection, method, args);
+                    return result instanceof Statement statement ? delayed(statement, theLatency) : result;
+                });
+    }
+
+    /**
+     * Proxies a statement so that every <code>execute*</code> call sleeps first.
+     */
+    private static Statement delayed(Statement theStatement, Duration theLatency) {
+        Class<?> type = theStatement instanceof CallableStatement ? CallableStatement.class
+                : theStatement instanceof PreparedStatement ? PreparedStatement.class
+                : Statement.class;
+        return (Statement) Proxy.newProxyInstance(DbLatencyConfig.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    if (method.getName().startsWith("execute")) {
+                        Thread.sleep(theLatency);
+                    }
+                    return invoke(theStatement, method, args);
+                });
+    }
+
+    private static Object invoke(Object theTarget, Method theMethod, Object[] theArgs) throws Throwable {
+        try {
+            return theMethod.invoke(theTarget, theArgs);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
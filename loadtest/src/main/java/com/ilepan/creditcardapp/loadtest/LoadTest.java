@@ -0,0 +1,282 @@
+package com.ilepan.creditcardapp.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.convert.DurationStyle;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compares serving <code>GET /api/user/{oib}</code> on platform threads and on virtual threads.
+ * For every mode and client count a fresh {@link LoadTestServer} is started in its own JVM, then the given number
+ * of closed-loop clients send requests back to back: each client waits for its response before sending the next one.
+ * Latencies of the measured interval are recorded in an HdrHistogram, the warm-up interval is discarded.
+ * <p>
+ * Options, all optional: <code>--modes=platform,virtual --clients=1000,10000 --warmup=15s --duration=30s
+ * --db-latency=5ms --users=1000 --server-jvm-args=-Xmx1g --result=loadtest-result.csv</code>.
+ * The server needs Java 21 for the virtual mode.
+ */
+public class LoadTest {
+
+    /** Requests not answered within this time are counted as errors. */
+    static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    /** The number of clients sharing one {@link HttpClient} and its connection pool. */
+    private static final int CLIENTS_PER_HTTP_CLIENT = 1000;
+
+    /**
+     * The outcome of one run.
+     *
+     * @param mode       The thread mode of the server.
+     * @param clients    The number of concurrent clients.
+     * @param duration   The measured interval.
+     * @param latencies  Latencies of all completed requests, in microseconds.
+     * @param statuses   Response counts by status code.
+     * @param errors     Requests that failed without a response, by exception type.
+     */
+    record Result(String mode, int clients, Duration duration, Histogram latencies,
+                  Map<Integer, Long> statuses, Map<String, Long> errors) {
+
+        static final String HEADER = "mode,clients,requests,throughput_rps,p50_ms,p90_ms,p99_ms,p999_ms,max_ms,non_2xx,errors";
+
+        long ok() {
+            return statuses.entrySet().stream().filter(e -> e.getKey() / 100 == 2).mapToLong(Map.Entry::getValue).sum();
+        }
+
+        long non2xx() {
+            return statuses.values().stream().mapToLong(Long::longValue).sum() - ok();
+        }
+
+        long failed() {
+            return errors.values().stream().mapToLong(Long::longValue).sum();
+        }
+
+        String toCsv() {
+            return String.format("%s,%d,%d,%.1f,%.2f,%.2f,%.2f,%.2f,%.2f,%d,%d", mode, clients,
+                    latencies.getTotalCount(), ok() / (duration.toMillis() / 1000.0),
+                    millis(50), millis(90), millis(99), millis(99.9), latencies.getMaxValue() / 1000.0,
+                    non2xx(), failed());
+        }
+
+        private double millis(double thePercentile) {
+            return latencies.getValueAtPercentile(thePercentile) / 1000.0;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        List<String> modes = List.of(options.getOrDefault("modes", "platform,virtual").split(","));
+        List<Integer> clientCounts = new ArrayList<>();
+        for (String clients : options.getOrDefault("clients", "1000,10000").split(",")) {
+            clientCounts.add(Integer.parseInt(clients));
+        }
+        Duration warmup = parseDuration(options.getOrDefault("warmup", "15s"));
+        Duration duration = parseDuration(options.getOrDefault("duration", "30s"));
+        String dbLatency = options.getOrDefault("db-latency", "5ms");
+        int users = Integer.parseInt(options.getOrDefault("users", "1000"));
+        String serverJvmArgs = options.getOrDefault("server-jvm-args", "");
+        Path resultFile = Path.of(options.getOrDefault("result", "loadtest-result.csv"));
+
+        List<Result> results = new ArrayList<>();
+        for (int clients : clientCounts) {
+            for (String mode : modes) {
+                Process server = startServer(mode, dbLatency, users, serverJvmArgs);
+                try {
+                    String baseUrl = "http://127.0.0.1:" + awaitPort(server) + "/api";
+                    System.out.printf("Running %s threads with %d clients...%n", mode, clients);
+                    Result result = run(mode, baseUrl, clients, users, warmup, duration);
+                    System.out.println(Result.HEADER);
+                    System.out.println(result.toCsv());
+                    if (!result.errors().isEmpty()) {
+                        System.out.println("Errors: " + result.errors());
+                    }
+                    results.add(result);
+                } finally {
+                    server.destroy();
+                    server.waitFor(30, TimeUnit.SECONDS);
+                }
+            }
+        }
+        write(resultFile, results);
+        System.out.println("Results written to " + resultFile.toAbsolutePath());
+    }
+
+    /**
+     * Drives the server with closed-loop clients. Clients are started gradually over the first half of the
+     * warm-up, so that opening thousands of connections does not overflow the server's accept queue.
+     */
+    static Result run(String theMode, String theBaseUrl, int theClients, int theUsers,
+                      Duration theWarmup, Duration theDuration) throws InterruptedException {
+        HttpRequest[] requests = new HttpRequest[theUsers];
+        for (int i = 0; i < theUsers; i++) {
+            requests[i] = HttpRequest.newBuilder(URI.create(theBaseUrl + "/user/" + LoadTestServer.oib(i)))
+                    .timeout(REQUEST_TIMEOUT).GET().build();
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()));
+        List<HttpClient> httpClients = new ArrayList<>();
+        for (int i = 0; i < (theClients + CLIENTS_PER_HTTP_CLIENT - 1) / CLIENTS_PER_HTTP_CLIENT; i++) {
+            httpClients.add(HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).executor(executor).build());
+        }
+
+        Recorder recorder = new Recorder(TimeUnit.SECONDS.toMicros(60), 3);
+        Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+        Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+        CountDownLatch stopped = new CountDownLatch(theClients);
+        ClosedLoop loop = new ClosedLoop(requests, recorder, statuses, errors, stopped);
+
+        long rampUpNanos = theWarmup.toNanos() / 2;
+        long start = System.nanoTime();
+        for (int i = 0; i < theClients; i++) {
+            long due = start + rampUpNanos * i / theClients;
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+            loop.next(httpClients.get(i / CLIENTS_PER_HTTP_CLIENT));
+        }
+        TimeUnit.NANOSECONDS.sleep(Math.max(0, start + theWarmup.toNanos() - System.nanoTime()));
+        recorder.getIntervalHistogram();
+        statuses.clear();
+        errors.clear();
+
+        long measureStart = System.nanoTime();
+        TimeUnit.NANOSECONDS.sleep(theDuration.toNanos());
+        Histogram latencies = recorder.getIntervalHistogram();
+        Duration measured = Duration.ofNanos(System.nanoTime() - measureStart);
+        Map<Integer, Long> statusCounts = new TreeMap<>();
+        statuses.forEach((status, count) -> statusCounts.put(status, count.sum()));
+        Map<String, Long> errorCounts = new TreeMap<>();
+        errors.forEach((error, count) -> errorCounts.put(error, count.sum()));
+
+        loop.stop();
+        stopped.await(REQUEST_TIMEOUT.toSeconds() + 5, TimeUnit.SECONDS);
+        httpClients.forEach(HttpClient::close);
+        executor.shutdownNow();
+        return new Result(theMode, theClients, measured, latencies, statusCounts, errorCounts);
+    }
+
+    /**
+     * Closed-loop request chain: as soon as a response arrives the same client sends its next request.
+     */
+    private static final class ClosedLoop {
+
+        private final HttpRequest[] requests;
+        private final Recorder recorder;
+        private final Map<Integer, LongAdder> statuses;
+        private final Map<String, LongAdder> errors;
+        private final CountDownLatch stopped;
+        private volatile boolean running = true;
+
+        ClosedLoop(HttpRequest[] theRequests, Recorder theRecorder, Map<Integer, LongAdder> theStatuses,
+                   Map<String, LongAdder> theErrors, CountDownLatch theStopped) {
+            requests = theRequests;
+            recorder = theRecorder;
+            statuses = theStatuses;
+            errors = theErrors;
+            stopped = theStopped;
+        }
+
+        void next(HttpClient theClient) {
+            if (!running) {
+                stopped.countDown();
+                return;
+            }
+            HttpRequest request = requests[ThreadLocalRandom.current().nextInt(requests.length)];
+            long start = System.nanoTime();
+            theClient.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                recorder.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start),
+                        TimeUnit.SECONDS.toMicros(60)));
+                if (error != null) {
+                    Throwable cause = error.getCause() != null ? error.getCause() : error;
+                    errors.computeIfAbsent(cause.getClass().getSimpleName(), k -> new LongAdder()).increment();
+                } else {
+                    statuses.computeIfAbsent(response.statusCode(), k -> new LongAdder()).increment();
+                }
+                next(theClient);
+            });
+        }
+
+        void stop() {
+            running = false;
+        }
+    }
+
+    static Process startServer(String theMode, String theDbLatency, int theUsers, String theJvmArgs)
+            throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(ProcessHandle.current().info().command().orElse("java"));
+        if (!theJvmArgs.isBlank()) {
+            command.addAll(List.of(theJvmArgs.trim().split("\\s+")));
+        }
+        command.addAll(List.of("-cp", System.getProperty("java.class.path"), LoadTestServer.class.getName(),
+                theMode, theDbLatency, Integer.toString(theUsers)));
+        return new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+    }
+
+    /**
+     * Waits for the server to report its port, then keeps draining its output in the background.
+     */
+    static int awaitPort(Process theServer) throws IOException {
+        BufferedReader output = new BufferedReader(new InputStreamReader(theServer.getInputStream(), StandardCharsets.UTF_8));
+        String line;
+        while ((line = output.readLine()) != null) {
+            if (line.startsWith("READY ")) {
+                Thread drain = new Thread(() -> output.lines().forEach(l -> { }));
+                drain.setDaemon(true);
+                drain.start();
+                return Integer.parseInt(line.substring("READY ".length()).trim());
+            }
+        }
+        throw new IllegalStateException("Server exited before it was ready, exit code " + theServer.exitValue());
+    }
+
+    private static void write(Path theFile, List<Result> theResults) throws IOException {
+        boolean exists = Files.exists(theFile);
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(theFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND))) {
+            if (!exists) {
+                writer.println(Result.HEADER);
+            }
+            theResults.forEach(result -> writer.println(result.toCsv()));
+        }
+    }
+
+    static Map<String, String> parse(String[] theArgs) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : theArgs) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        return options;
+    }
+
+    static Duration parseDuration(String theValue) {
+        return DurationStyle.detectAndParse(theValue);
+    }
+}
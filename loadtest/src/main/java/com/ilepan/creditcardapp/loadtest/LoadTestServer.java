@@ -0,0 +1,100 @@
+package com.ilepan.creditcardapp.loadtest;
+
+import com.ilepan.creditcardapp.CreditCardApplication;
+import com.ilepan.creditcardapp.dto.UserImportRecord;
+import com.ilepan.creditcardapp.entity.User;
+import com.ilepan.creditcardapp.service.UserService;
+import com.ilepan.creditcardapp.validator.OibValidator;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Starts the application under test against an in-memory H2 database, seeds it with users and prints
+ * <code>READY &lt;port&gt;</code> once it accepts requests. Generated files go to a temporary directory that is
+ * deleted on exit. It is started in its own JVM by {@link LoadTest},
+ * so that the server and the clients do not share heap, threads or file descriptors.
+ * <p>
+ * Arguments: <code>&lt;platform|virtual&gt; &lt;db latency&gt; &lt;seeded users&gt;</code>, for example
+ * <code>virtual 5ms 1000</code>.
+ */
+public class LoadTestServer {
+
+    /** Prefix of the seeded OIBs, followed by a zero-padded sequence number and the control digit. */
+    static final String OIB_PREFIX = "1";
+
+    public static void main(String[] args) throws IOException {
+        String mode = args[0];
+        String dbLatency = args[1];
+        int users = Integer.parseInt(args[2]);
+        Path outputDir = Files.createTempDirectory("loadtest-files");
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> deleteRecursively(outputDir)));
+
+        List<String> appArgs = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--server.address=127.0.0.1",
+                "--server.tomcat.max-connections=20000",
+                "--server.tomcat.accept-count=1000",
+                "--server.tomcat.max-keep-alive-requests=-1",
+                "--spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                // every request goes to the database, as it would for a cold cache
+                "--spring.cache.type=none",
+                "--creditcardapp.file-generation.output-dir=" + outputDir,
+                "--logging.level.root=warn",
+                "--loadtest.db-latency=" + dbLatency));
+        if ("virtual".equals(mode)) {
+            appArgs.add("--spring.profiles.active=virtual-threads");
+        } else if (!"platform".equals(mode)) {
+            throw new IllegalArgumentException("Unknown mode: " + mode);
+        }
+
+        // passed as command line arguments so that they take precedence over the bundled application.properties
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(CreditCardApplication.class, DbLatencyConfig.class)
+                .run(appArgs.toArray(String[]::new));
+        seed(context.getBean(UserService.class), users);
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        System.out.println("READY " + port);
+    }
+
+    /**
+     * @return The OIB of the seeded user with the given sequence number.
+     */
+    static String oib(int theSequence) {
+        return oib(OIB_PREFIX, theSequence);
+    }
+
+    /**
+     * @return A valid OIB made of the given one-digit prefix, the zero-padded sequence number and the control digit.
+     */
+    static String oib(String thePrefix, int theSequence) {
+        String prefix = thePrefix + String.format("%09d", theSequence);
+        return prefix + new OibValidator().calculateControlDigit(prefix);
+    }
+
+    // imported through the service, so that the OIB filter knows the seeded users
+    private static void seed(UserService theUserService, int theUsers) {
+        theUserService.importUsers(IntStream.range(0, theUsers)
+                .mapToObj(i -> UserImportRecord.parsed(i + 1, new User("Ivan", "Horvat", oib(i), "1"))));
+    }
+
+    // generated files are throwaway, they only exist to put the disk write on the request path
+    private static void deleteRecursively(Path theDir) {
+        try (Stream<Path> paths = Files.walk(theDir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            System.err.println("Could not delete " + theDir + ": " + e);
+        }
+    }
+}
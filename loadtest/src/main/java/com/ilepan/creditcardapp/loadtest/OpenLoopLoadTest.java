@@ -0,0 +1,364 @@
+package com.ilepan.creditcardapp.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Drives a mixed workload at fixed arrival rates and checks the latencies against service level objectives.
+ * <p>
+ * Unlike the closed-loop {@link LoadTest}, requests are sent on a fixed schedule whether or not earlier requests
+ * have been answered, so a slow server faces a growing backlog instead of a slower client. Latency is measured from
+ * the time a request was due to be sent, not from the time it was actually sent, so that stalls of the load
+ * generator are not hidden either. Only requests due within the measured interval are recorded; the run waits for
+ * them to complete before reporting.
+ * <p>
+ * The operations are <code>GET /api/user/{oib}</code> of the seeded users, <code>POST /api/user</code> of new users,
+ * <code>GET /api/generate/{oib}</code> of users created by the run, and <code>DELETE /api/user/{oib}</code> of users
+ * created by the run, preferably once their file has been generated. Generation and deletion are skipped while no
+ * such user is available, so their rates should not exceed the rate of creation.
+ * <p>
+ * Options, all optional: <code>--rates=get=400,post=50,generate=25,delete=50 --mode=platform --warmup=15s
+ * --duration=60s --db-latency=5ms --users=1000 --slo=all.p99=100ms,all.p999=500ms,all.error-rate=0.1%
+ * --server-jvm-args=-Xmx1g --result=loadtest-open-loop-result.csv</code>. Rates are requests per second.
+ * The process exits with status 1 if an objective is breached.
+ */
+public class OpenLoopLoadTest {
+
+    /** Prefix of the OIBs of users created by the run, distinct from {@link LoadTestServer#OIB_PREFIX}. */
+    static final String CREATED_OIB_PREFIX = "2";
+
+    /**
+     * The operations of the workload.
+     */
+    enum Operation {
+        GET(200), POST(201), GENERATE(200), DELETE(200);
+
+        /** The status of a successful response. */
+        final int expectedStatus;
+
+        Operation(int theExpectedStatus) {
+            expectedStatus = theExpectedStatus;
+        }
+
+        String key() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * The outcome of one operation.
+     *
+     * @param mode       The thread mode of the server.
+     * @param operation  The operation.
+     * @param targetRate The configured arrival rate, in requests per second.
+     * @param duration   The measured interval.
+     * @param latencies  Latencies of all completed requests, in microseconds.
+     * @param statuses   Response counts by status code.
+     * @param errors     Requests that failed without a response, by exception type.
+     * @param skipped    Requests that were due but not sent, because no user was available for them.
+     * @param expectedStatus The status of a successful response.
+     */
+    record Result(String mode, String operation, double targetRate, Duration duration, Histogram latencies,
+                  Map<Integer, Long> statuses, Map<String, Long> errors, long skipped, int expectedStatus) {
+
+        static final String HEADER = "mode,operation,target_rps,requests,throughput_rps,p50_ms,p95_ms,p99_ms,p999_ms,"
+                + "max_ms,unexpected_status,errors,skipped";
+
+        long ok() {
+            return statuses.getOrDefault(expectedStatus, 0L);
+        }
+
+        long unexpected() {
+            return statuses.values().stream().mapToLong(Long::longValue).sum() - ok();
+        }
+
+        long failed() {
+            return errors.values().stream().mapToLong(Long::longValue).sum();
+        }
+
+        /**
+         * @return The share of sent requests that failed or were not answered with the expected status.
+         */
+        double errorRate() {
+            long sent = ok() + unexpected() + failed();
+            return sent == 0 ? 0 : (double) (unexpected() + failed()) / sent;
+        }
+
+        String toCsv() {
+            return String.format(Locale.ROOT, "%s,%s,%.1f,%d,%.1f,%.2f,%.2f,%.2f,%.2f,%.2f,%d,%d,%d", mode, operation,
+                    targetRate, latencies.getTotalCount(), ok() / (duration.toMillis() / 1000.0),
+                    millis(50), millis(95), millis(99), millis(99.9), latencies.getMaxValue() / 1000.0,
+                    unexpected(), failed(), skipped);
+        }
+
+        private double millis(double thePercentile) {
+            return latencies.getValueAtPercentile(thePercentile) / 1000.0;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = LoadTest.parse(args);
+        Map<Operation, Double> rates = parseRates(options.getOrDefault("rates", "get=400,post=50,generate=25,delete=50"));
+        String mode = options.getOrDefault("mode", "platform");
+        Duration warmup = LoadTest.parseDuration(options.getOrDefault("warmup", "15s"));
+        Duration duration = LoadTest.parseDuration(options.getOrDefault("duration", "60s"));
+        String dbLatency = options.getOrDefault("db-latency", "5ms");
+        int users = Integer.parseInt(options.getOrDefault("users", "1000"));
+        List<Slo> slos = Slo.parseAll(options.getOrDefault("slo", "all.p99=100ms,all.p999=500ms,all.error-rate=0.1%"));
+        String serverJvmArgs = options.getOrDefault("server-jvm-args", "");
+        Path resultFile = Path.of(options.getOrDefault("result", "loadtest-open-loop-result.csv"));
+
+        List<Result> results;
+        Process server = LoadTest.startServer(mode, dbLatency, users, serverJvmArgs);
+        try {
+            String baseUrl = "http://127.0.0.1:" + LoadTest.awaitPort(server) + "/api";
+            System.out.printf("Running %s threads at %s requests per second...%n", mode, rates);
+            results = run(mode, baseUrl, rates, users, warmup, duration);
+        } finally {
+            server.destroy();
+            server.waitFor(30, TimeUnit.SECONDS);
+        }
+        System.out.println(Result.HEADER);
+        results.forEach(result -> {
+            System.out.println(result.toCsv());
+            if (!result.errors().isEmpty()) {
+                System.out.println("Errors of " + result.operation() + ": " + result.errors());
+            }
+        });
+        write(resultFile, results);
+        System.out.println("Results written to " + resultFile.toAbsolutePath());
+
+        List<String> breaches = new ArrayList<>();
+        for (Slo slo : slos) {
+            results.stream().filter(result -> slo.appliesTo(result.operation()))
+                    .forEach(result -> slo.check(result).ifPresent(breaches::add));
+        }
+        if (!breaches.isEmpty()) {
+            breaches.forEach(breach -> System.out.println("SLO breached: " + breach));
+            System.exit(1);
+        }
+        System.out.println("All " + slos.size() + " SLOs met.");
+    }
+
+    /**
+     * Sends every operation at its own fixed rate from its own dispatcher thread, measures the requests due within
+     * the measured interval and waits for them to complete.
+     */
+    static List<Result> run(String theMode, String theBaseUrl, Map<Operation, Double> theRates, int theUsers,
+                            Duration theWarmup, Duration theDuration) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()));
+        HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).executor(executor).build();
+        long start = System.nanoTime();
+        Workload workload = new Workload(httpClient, theBaseUrl, theUsers,
+                start + theWarmup.toNanos(), start + theWarmup.toNanos() + theDuration.toNanos());
+
+        List<Thread> dispatchers = new ArrayList<>();
+        theRates.forEach((operation, rate) -> {
+            Thread dispatcher = new Thread(() -> workload.dispatch(operation, rate, start), "dispatch-" + operation.key());
+            dispatcher.start();
+            dispatchers.add(dispatcher);
+        });
+        for (Thread dispatcher : dispatchers) {
+            dispatcher.join();
+        }
+        workload.awaitInFlight(LoadTest.REQUEST_TIMEOUT.plusSeconds(5));
+
+        List<Result> results = new ArrayList<>();
+        theRates.forEach((operation, rate) -> results.add(workload.result(theMode, operation, rate, theDuration)));
+        httpClient.close();
+        executor.shutdownNow();
+        return results;
+    }
+
+    /**
+     * The state shared by the dispatchers: the users created by the run and the measurements of every operation.
+     */
+    private static final class Workload {
+
+        private final HttpClient httpClient;
+        private final String baseUrl;
+        private final int users;
+        private final long measureStart;
+        private final long measureEnd;
+        private final AtomicInteger nextCreated = new AtomicInteger();
+        // users created by the run, waiting for their file to be generated
+        private final Queue<String> created = new ConcurrentLinkedQueue<>();
+        // users whose file has been generated, waiting to be deleted
+        private final Queue<String> generated = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final Map<Operation, Recorder> recorders = new EnumMap<>(Operation.class);
+        private final Map<Operation, Map<Integer, LongAdder>> statuses = new EnumMap<>(Operation.class);
+        private final Map<Operation, Map<String, LongAdder>> errors = new EnumMap<>(Operation.class);
+        private final Map<Operation, LongAdder> skipped = new EnumMap<>(Operation.class);
+
+        Workload(HttpClient theHttpClient, String theBaseUrl, int theUsers, long theMeasureStart, long theMeasureEnd) {
+            httpClient = theHttpClient;
+            baseUrl = theBaseUrl;
+            users = theUsers;
+            measureStart = theMeasureStart;
+            measureEnd = theMeasureEnd;
+            for (Operation operation : Operation.values()) {
+                recorders.put(operation, new Recorder(TimeUnit.SECONDS.toMicros(60), 3));
+                statuses.put(operation, new ConcurrentHashMap<>());
+                errors.put(operation, new ConcurrentHashMap<>());
+                skipped.put(operation, new LongAdder());
+            }
+        }
+
+        /**
+         * Sends the operation every <code>1 / theRate</code> seconds from the given start until the end of the
+         * measured interval. A dispatcher that falls behind sends the overdue requests at once.
+         */
+        void dispatch(Operation theOperation, double theRate, long theStart) {
+            long interval = (long) (TimeUnit.SECONDS.toNanos(1) / theRate);
+            for (long due = theStart; due < measureEnd; due += interval) {
+                long wait = due - System.nanoTime();
+                if (wait > 0) {
+                    try {
+                        TimeUnit.NANOSECONDS.sleep(wait);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+                send(theOperation, due);
+            }
+        }
+
+        private void send(Operation theOperation, long theDue) {
+            boolean measured = theDue >= measureStart;
+            String oib = oib(theOperation);
+            if (oib == null) {
+                if (measured) {
+                    skipped.get(theOperation).increment();
+                }
+                return;
+            }
+            inFlight.incrementAndGet();
+            httpClient.sendAsync(request(theOperation, oib), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        if (measured) {
+                            record(theOperation, theDue, response, error);
+                        }
+                        if (theOperation == Operation.POST && response != null
+                                && response.statusCode() == Operation.POST.expectedStatus) {
+                            created.add(oib);
+                        } else if (theOperation == Operation.GENERATE) {
+                            // deleted whether or not the file could be written, so that the user does not linger
+                            generated.add(oib);
+                        }
+                        inFlight.decrementAndGet();
+                    });
+        }
+
+        /**
+         * @return The OIB of the next request of the operation, or null if no user is available for it.
+         */
+        private String oib(Operation theOperation) {
+            return switch (theOperation) {
+                case GET -> LoadTestServer.oib(ThreadLocalRandom.current().nextInt(users));
+                case POST -> LoadTestServer.oib(CREATED_OIB_PREFIX, nextCreated.getAndIncrement());
+                case GENERATE -> created.poll();
+                case DELETE -> {
+                    String oib = generated.poll();
+                    yield oib != null ? oib : created.poll();
+                }
+            };
+        }
+
+        private HttpRequest request(Operation theOperation, String theOib) {
+            HttpRequest.Builder builder = switch (theOperation) {
+                case GET -> HttpRequest.newBuilder(URI.create(baseUrl + "/user/" + theOib)).GET();
+                case POST -> HttpRequest.newBuilder(URI.create(baseUrl + "/user"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString("{\"firstName\":\"Ana\",\"lastName\":\"Kovac\","
+                                + "\"oib\":\"" + theOib + "\",\"status\":\"1\"}"));
+                case GENERATE -> HttpRequest.newBuilder(URI.create(baseUrl + "/generate/" + theOib)).GET();
+                case DELETE -> HttpRequest.newBuilder(URI.create(baseUrl + "/user/" + theOib)).DELETE();
+            };
+            return builder.timeout(LoadTest.REQUEST_TIMEOUT).build();
+        }
+
+        private void record(Operation theOperation, long theDue, HttpResponse<Void> theResponse, Throwable theError) {
+            recorders.get(theOperation).recordValue(Math.min(
+                    TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - theDue), TimeUnit.SECONDS.toMicros(60)));
+            if (theError != null) {
+                Throwable cause = theError.getCause() != null ? theError.getCause() : theError;
+                errors.get(theOperation).computeIfAbsent(cause.getClass().getSimpleName(), k -> new LongAdder())
+                        .increment();
+            } else {
+                statuses.get(theOperation).computeIfAbsent(theResponse.statusCode(), k -> new LongAdder()).increment();
+            }
+        }
+
+        void awaitInFlight(Duration theTimeout) throws InterruptedException {
+            long deadline = System.nanoTime() + theTimeout.toNanos();
+            while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+                TimeUnit.MILLISECONDS.sleep(10);
+            }
+        }
+
+        Result result(String theMode, Operation theOperation, double theRate, Duration theDuration) {
+            Map<Integer, Long> statusCounts = new TreeMap<>();
+            statuses.get(theOperation).forEach((status, count) -> statusCounts.put(status, count.sum()));
+            Map<String, Long> errorCounts = new TreeMap<>();
+            errors.get(theOperation).forEach((error, count) -> errorCounts.put(error, count.sum()));
+            return new Result(theMode, theOperation.key(), theRate, theDuration,
+                    recorders.get(theOperation).getIntervalHistogram(), statusCounts, errorCounts,
+                    skipped.get(theOperation).sum(), theOperation.expectedStatus);
+        }
+    }
+
+    private static Map<Operation, Double> parseRates(String theValue) {
+        Map<Operation, Double> rates = new EnumMap<>(Operation.class);
+        for (String rate : theValue.split(",")) {
+            String[] parts = rate.split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected <operation>=<requests per second>, got: " + rate);
+            }
+            double value = Double.parseDouble(parts[1]);
+            if (value > 0) {
+                rates.put(Operation.valueOf(parts[0].trim().toUpperCase(Locale.ROOT)), value);
+            }
+        }
+        return rates;
+    }
+
+    private static void write(Path theFile, List<Result> theResults) throws IOException {
+        boolean exists = Files.exists(theFile);
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(theFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND))) {
+            if (!exists) {
+                writer.println(Result.HEADER);
+            }
+            theResults.forEach(result -> writer.println(result.toCsv()));
+        }
+    }
+}
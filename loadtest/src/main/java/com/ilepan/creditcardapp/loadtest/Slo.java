@@ -0,0 +1,90 @@
+package com.ilepan.creditcardapp.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * A service level objective checked at the end of an {@link OpenLoopLoadTest} run: an upper bound on a latency
+ * percentile or on the error rate of one operation, or of every operation.
+ * <p>
+ * Written as <code>&lt;operation&gt;.&lt;metric&gt;=&lt;limit&gt;</code>, for example <code>get.p99=50ms</code>
+ * or <code>all.error-rate=0.1%</code>. The metrics are <code>p50</code>, <code>p95</code>, <code>p99</code>,
+ * <code>p999</code> and <code>error-rate</code>.
+ *
+ * @param operation The operation in lower case, or <code>all</code>.
+ * @param metric    The metric.
+ * @param limit     The upper bound, in microseconds for percentiles and as a fraction for the error rate.
+ */
+record Slo(String operation, String metric, double limit) {
+
+    /** The operation name matching every operation. */
+    static final String ALL = "all";
+
+    /**
+     * @param theValue Comma-separated objectives, blank for none.
+     * @return The parsed objectives.
+     * @throws IllegalArgumentException if an objective is malformed.
+     */
+    static List<Slo> parseAll(String theValue) {
+        List<Slo> slos = new ArrayList<>();
+        for (String slo : theValue.split(",")) {
+            if (!slo.isBlank()) {
+                slos.add(parse(slo.trim()));
+            }
+        }
+        return slos;
+    }
+
+    static Slo parse(String theValue) {
+        int dot = theValue.indexOf('.');
+        int equals = theValue.indexOf('=');
+        if (dot < 0 || equals < dot) {
+            throw new IllegalArgumentException("Expected <operation>.<metric>=<limit>, got: " + theValue);
+        }
+        String operation = theValue.substring(0, dot).toLowerCase(Locale.ROOT);
+        String metric = theValue.substring(dot + 1, equals).toLowerCase(Locale.ROOT);
+        String limit = theValue.substring(equals + 1).trim();
+        if (metric.equals("error-rate")) {
+            double rate = limit.endsWith("%")
+                    ? Double.parseDouble(limit.substring(0, limit.length() - 1)) / 100
+                    : Double.parseDouble(limit);
+            return new Slo(operation, metric, rate);
+        }
+        if (percentile(metric).isEmpty()) {
+            throw new IllegalArgumentException("Unknown metric " + metric + " in: " + theValue);
+        }
+        return new Slo(operation, metric, LoadTest.parseDuration(limit).toNanos() / 1000.0);
+    }
+
+    boolean appliesTo(String theOperation) {
+        return operation.equals(ALL) || operation.equals(theOperation);
+    }
+
+    /**
+     * @return A description of the breach if the result exceeds the limit, empty otherwise.
+     */
+    Optional<String> check(OpenLoopLoadTest.Result theResult) {
+        Optional<Double> percentile = percentile(metric);
+        double actual = percentile.isPresent()
+                ? theResult.latencies().getValueAtPercentile(percentile.get())
+                : theResult.errorRate();
+        if (actual <= limit) {
+            return Optional.empty();
+        }
+        return Optional.of(percentile.isPresent()
+                ? String.format("%s %s %.2f ms > %.2f ms", theResult.operation(), metric, actual / 1000, limit / 1000)
+                : String.format("%s %s %.3f%% > %.3f%%", theResult.operation(), metric, actual * 100, limit * 100));
+    }
+
+    private static Optional<Double> percentile(String theMetric) {
+        return switch (theMetric) {
+            case "p50" -> Optional.of(50.0);
+            case "p95" -> Optional.of(95.0);
+            case "p99" -> Optional.of(99.0);
+            case "p999" -> Optional.of(99.9);
+            default -> Optional.empty();
+        };
+    }
+}
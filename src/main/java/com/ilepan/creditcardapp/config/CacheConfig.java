@@ -0,0 +1,58 @@
+package com.ilepan.creditcardapp.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Configuration enabling the Spring cache abstraction.
+ * The cache manager itself is auto-configured from the <code>spring.cache.*</code> properties.
+ * The caching advice is ordered to run outside the transactional advice, so that entries are
+ * evicted only after the transaction that changed the User has committed. The cache manager is also
+ * made transaction-aware, so that puts and evictions made within a transaction wait for its commit
+ * regardless of the order of the advice.
+ * Entries are keyed by the OIB packed into a <code>Long</code>, see {@link OibKeyGenerator}.
+ */
+@Configuration
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+public class CacheConfig {
+
+    /** Name of the cache holding User lookups keyed by OIB, including negative lookups. */
+    public static final String USERS_BY_OIB = "usersByOib";
+
+    /** Name of the key generator bean keying {@link #USERS_BY_OIB} by the packed OIB. */
+    public static final String OIB_KEY_GENERATOR = "oibKeyGenerator";
+
+    /**
+     * Creates the key generator of {@link #USERS_BY_OIB}.
+     *
+     * @return The key generator.
+     */
+    @Bean(name = OIB_KEY_GENERATOR)
+    public OibKeyGenerator oibKeyGenerator() {
+        return new OibKeyGenerator();
+    }
+
+    /**
+     * Wraps the auto-configured cache manager in a {@link TransactionAwareCacheManagerProxy}.
+     *
+     * @return The post-processor wrapping the cache manager.
+     */
+    @Bean
+    public static BeanPostProcessor transactionAwareCacheManagerPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object theBean, String theBeanName) {
+                if (theBean instanceof CacheManager cacheManager
+                        && !(theBean instanceof TransactionAwareCacheManagerProxy)) {
+                    return new TransactionAwareCacheManagerProxy(cacheManager);
+                }
+                return theBean;
+            }
+        };
+    }
+}
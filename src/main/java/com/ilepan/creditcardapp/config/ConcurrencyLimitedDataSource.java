@@ -0,0 +1,125 @@
+package com.ilepan.creditcardapp.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * {@link DataSource} decorator that bounds the number of connections that may be requested concurrently.
+ * With virtual threads the number of request threads is effectively unbounded, so thousands of them can
+ * queue inside the connection pool until they time out. This guard admits at most {@code maxConcurrency}
+ * borrowers, makes the rest wait for at most {@code acquireTimeout} and then fails them fast with a
+ * {@link SQLTransientConnectionException}. A permit is held until the borrowed connection is closed.
+ */
+public class ConcurrencyLimitedDataSource extends DelegatingDataSource {
+
+    /**
+     * Permits for borrowing a connection.
+     */
+    private final Semaphore permits;
+
+    /**
+     * The number of connections that may be borrowed at the same time.
+     */
+    private final int maxConcurrency;
+
+    /**
+     * How long a borrower waits for a permit, in nanoseconds.
+     */
+    private final long acquireTimeoutNanos;
+
+    /**
+     * Constructs a guard in front of the given data source.
+     *
+     * @param theTargetDataSource The data source to guard, usually the connection pool.
+     * @param theMaxConcurrency The number of connections that may be borrowed at the same time.
+     * @param theAcquireTimeout How long a borrower waits for a permit before failing.
+     */
+    public ConcurrencyLimitedDataSource(DataSource theTargetDataSource, int theMaxConcurrency,
+                                        Duration theAcquireTimeout) {
+        super(theTargetDataSource);
+        if (theMaxConcurrency < 1) {
+            throw new IllegalArgumentException("Max concurrency must be positive, got: " + theMaxConcurrency);
+        }
+        permits = new Semaphore(theMaxConcurrency, true);
+        maxConcurrency = theMaxConcurrency;
+        acquireTimeoutNanos = theAcquireTimeout.toNanos();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return releasingOnClose(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return releasingOnClose(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * @return The number of connections currently borrowed through this guard.
+     */
+    public int getActiveCount() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    /**
+     * @return The number of borrowers currently waiting for a permit.
+     */
+    public int getWaitingCount() {
+        return permits.getQueueLength();
+    }
+
+    private void acquire() throws SQLException {
+        try {
+            if (!permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                throw new SQLTransientConnectionException("Database concurrency limit reached, no connection permit within "
+                        + Duration.ofNanos(acquireTimeoutNanos).toMillis() + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a connection permit", e);
+        }
+    }
+
+    /**
+     * Wraps the connection so that closing it releases its permit exactly once.
+     */
+    private Connection releasingOnClose(Connection theConnection) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    boolean closing = "close".equals(method.getName()) && released.compareAndSet(false, true);
+                    try {
+                        return method.invoke(theConnection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    } finally {
+                        if (closing) {
+                            permits.release();
+                        }
+                    }
+                });
+    }
+}
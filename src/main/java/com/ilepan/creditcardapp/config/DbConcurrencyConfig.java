@@ -0,0 +1,66 @@
+package com.ilepan.creditcardapp.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Installs a {@link ConcurrencyLimitedDataSource} in front of the application's connection pool when
+ * <code>creditcardapp.db-concurrency.enabled</code> is set. It is meant for the virtual-thread mode, where
+ * request concurrency is no longer capped by the size of the Tomcat thread pool.
+ */
+@Configuration
+@EnableConfigurationProperties(DbConcurrencyProperties.class)
+@ConditionalOnProperty(prefix = "creditcardapp.db-concurrency", name = "enabled", havingValue = "true")
+public class DbConcurrencyConfig {
+
+    /**
+     * Wraps every {@link DataSource} bean with the concurrency guard.
+     * The processor is static so it is registered before the data source is created.
+     *
+     * @param theContext The application context, used to resolve the settings lazily.
+     * @return The bean post processor.
+     */
+    @Bean
+    public static BeanPostProcessor dbConcurrencyGuard(ApplicationContext theContext) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ConcurrencyLimitedDataSource)) {
+                    DbConcurrencyProperties properties = theContext.getBean(DbConcurrencyProperties.class);
+                    return new ConcurrencyLimitedDataSource(dataSource, properties.maxConcurrency(),
+                            properties.acquireTimeout());
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Publishes the number of requests holding and waiting for a connection permit as the
+     * <code>creditcardapp.db.concurrency.active</code> and <code>creditcardapp.db.concurrency.waiting</code> gauges.
+     *
+     * @param theDataSource The guarded data source.
+     * @return The meter binder.
+     */
+    @Bean
+    public MeterBinder dbConcurrencyMetrics(DataSource theDataSource) {
+        return registry -> {
+            if (theDataSource instanceof ConcurrencyLimitedDataSource guard) {
+                Gauge.builder("creditcardapp.db.concurrency.active", guard, ConcurrencyLimitedDataSource::getActiveCount)
+                        .description("Connections borrowed through the concurrency guard")
+                        .register(registry);
+                Gauge.builder("creditcardapp.db.concurrency.waiting", guard, ConcurrencyLimitedDataSource::getWaitingCount)
+                        .description("Requests waiting for a connection permit")
+                        .register(registry);
+            }
+        };
+    }
+}
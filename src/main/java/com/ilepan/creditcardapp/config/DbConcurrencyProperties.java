@@ -0,0 +1,22 @@
+package com.ilepan.creditcardapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings for the guard in front of the connection pool, bound from the
+ * <code>creditcardapp.db-concurrency.*</code> properties.
+ *
+ * @param enabled        Whether the guard is installed.
+ * @param maxConcurrency The number of connections that may be borrowed at the same time; keep it at or below the
+ *                       pool size.
+ * @param acquireTimeout How long a request waits for a connection permit before it is rejected.
+ */
+@ConfigurationProperties(prefix = "creditcardapp.db-concurrency")
+public record DbConcurrencyProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("10") int maxConcurrency,
+        @DefaultValue("2s") Duration acquireTimeout) {
+}
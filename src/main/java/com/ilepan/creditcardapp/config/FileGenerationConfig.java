@@ -0,0 +1,36 @@
+package com.ilepan.creditcardapp.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Configuration of the worker pool that runs asynchronous file generation jobs.
+ * The pool has a fixed number of threads and a bounded queue, so a burst of generation requests
+ * is either queued or rejected instead of tying up request threads on disk I/O.
+ */
+@Configuration
+@EnableConfigurationProperties(FileGenerationProperties.class)
+public class FileGenerationConfig {
+
+    /** Name of the executor bean running file generation jobs. */
+    public static final String FILE_GENERATION_EXECUTOR = "fileGenerationExecutor";
+
+    /**
+     * Creates the bounded executor for file generation jobs.
+     *
+     * @param theProperties The file generation settings.
+     * @return The executor.
+     */
+    @Bean(name = FILE_GENERATION_EXECUTOR)
+    public ThreadPoolTaskExecutor fileGenerationExecutor(FileGenerationProperties theProperties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("file-gen-");
+        executor.setCorePoolSize(theProperties.workerThreads());
+        executor.setMaxPoolSize(theProperties.workerThreads());
+        executor.setQueueCapacity(theProperties.queueCapacity());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+}
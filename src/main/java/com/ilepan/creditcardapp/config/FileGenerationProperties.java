@@ -0,0 +1,23 @@
+package com.ilepan.creditcardapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Settings for generating User files, bound from the <code>creditcardapp.file-generation.*</code> properties.
+ *
+ * @param outputDir     The directory files are written to, created on first use.
+ * @param workerThreads The number of threads writing files for asynchronous generation jobs.
+ * @param queueCapacity The number of asynchronous jobs that may wait for a worker before new jobs are rejected.
+ * @param jobRetention  How long the status of an asynchronous job is kept after it was last updated.
+ */
+@ConfigurationProperties(prefix = "creditcardapp.file-generation")
+public record FileGenerationProperties(
+        @DefaultValue(".") Path outputDir,
+        @DefaultValue("2") int workerThreads,
+        @DefaultValue("100") int queueCapacity,
+        @DefaultValue("1h") Duration jobRetention) {
+}
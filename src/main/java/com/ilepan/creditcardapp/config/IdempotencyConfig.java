@@ -0,0 +1,56 @@
+package com.ilepan.creditcardapp.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ilepan.creditcardapp.constants.Profiles;
+import com.ilepan.creditcardapp.service.IdempotencyStore;
+import com.ilepan.creditcardapp.service.InMemoryIdempotencyStore;
+import com.ilepan.creditcardapp.service.JdbcIdempotencyStore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Configuration of the store of <code>Idempotency-Key</code>s, selected by
+ * <code>creditcardapp.idempotency.store</code>.
+ */
+@Profile(Profiles.NOT_REACTIVE)
+@Configuration
+@EnableConfigurationProperties(IdempotencyProperties.class)
+public class IdempotencyConfig {
+
+    /**
+     * Creates the bounded in-memory store, the default.
+     *
+     * @param theProperties The idempotency settings.
+     * @return The store.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "creditcardapp.idempotency", name = "store", havingValue = "memory",
+            matchIfMissing = true)
+    public IdempotencyStore inMemoryIdempotencyStore(IdempotencyProperties theProperties) {
+        return new InMemoryIdempotencyStore(theProperties.maxEntries(), theProperties.ttl());
+    }
+
+    /**
+     * Creates the store backed by the <code>idempotency_keys</code> table, see
+     * <code>sql_scripts/upgrade/005_idempotency_keys.sql</code>.
+     *
+     * @param theJdbcTemplate       The template the statements are run with.
+     * @param theTransactionManager The manager of the transactions the statements are run in.
+     * @param theObjectMapper       The mapper the stored responses are written and read with.
+     * @param theProperties         The idempotency settings.
+     * @return The store.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "creditcardapp.idempotency", name = "store", havingValue = "jdbc")
+    public IdempotencyStore jdbcIdempotencyStore(JdbcTemplate theJdbcTemplate,
+                                                 PlatformTransactionManager theTransactionManager,
+                                                 ObjectMapper theObjectMapper, IdempotencyProperties theProperties) {
+        return new JdbcIdempotencyStore(theJdbcTemplate, theTransactionManager, theObjectMapper,
+                theProperties.ttl());
+    }
+}
@@ -0,0 +1,22 @@
+package com.ilepan.creditcardapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of the <code>Idempotency-Key</code> support of <code>POST /api/user</code>, bound from the
+ * <code>creditcardapp.idempotency.*</code> properties.
+ *
+ * @param store      Where keys are kept: <code>memory</code> for this instance only, or <code>jdbc</code> for the
+ *                   <code>idempotency_keys</code> table shared by all instances.
+ * @param maxEntries The largest number of keys kept by the in-memory store.
+ * @param ttl        How long a key is kept after it was first used; retries after that create the User again.
+ */
+@ConfigurationProperties(prefix = "creditcardapp.idempotency")
+public record IdempotencyProperties(
+        @DefaultValue("memory") String store,
+        @DefaultValue("100000") long maxEntries,
+        @DefaultValue("24h") Duration ttl) {
+}
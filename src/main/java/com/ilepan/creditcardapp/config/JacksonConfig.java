@@ -0,0 +1,74 @@
+package com.ilepan.creditcardapp.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Configuration of JSON and Smile serialization.
+ * <p>
+ * The {@link BlackbirdModule} replaces Jackson's reflective property access with generated lambdas, which are built
+ * once per property the first time a type is serialized. Spring Boot registers every {@link Module} bean with the
+ * auto-configured {@link ObjectMapper}.
+ * <p>
+ * Clients sending <code>Accept: application/x-jackson-smile</code> get responses in Smile, Jackson's binary JSON.
+ * Smile writes each property name once per response and refers back to it afterwards, which keeps User listings
+ * small. The Smile mappers are built by the same builder as the JSON mapper, so they share its modules and settings.
+ */
+@Configuration
+public class JacksonConfig {
+
+    /** Media type of Smile responses. */
+    public static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+
+    /**
+     * Creates the Blackbird module.
+     *
+     * @return The module.
+     */
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+
+    /**
+     * Creates the Smile converter of the servlet stack, replacing the default one that does not share the settings
+     * of the JSON mapper.
+     *
+     * @param theBuilder The auto-configured builder, a new instance for every injection point.
+     * @return The converter.
+     */
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder theBuilder) {
+        return new MappingJackson2SmileHttpMessageConverter(smileMapper(theBuilder));
+    }
+
+    /**
+     * Replaces the default Smile codecs of the reactive stack, for the same reason.
+     *
+     * @param theBuilder The auto-configured builder, a new instance for every injection point.
+     * @return The codec customizer.
+     */
+    @Bean
+    public CodecCustomizer smileCodecCustomizer(Jackson2ObjectMapperBuilder theBuilder) {
+        ObjectMapper mapper = smileMapper(theBuilder);
+        return configurer -> {
+            // without explicit media types the codecs would claim the JSON ones
+            configurer.defaultCodecs().jackson2SmileEncoder(new Jackson2SmileEncoder(mapper, SMILE));
+            configurer.defaultCodecs().jackson2SmileDecoder(new Jackson2SmileDecoder(mapper, SMILE));
+        };
+    }
+
+    private static ObjectMapper smileMapper(Jackson2ObjectMapperBuilder theBuilder) {
+        return theBuilder.factory(new SmileFactory()).build();
+    }
+}
@@ -0,0 +1,38 @@
+package com.ilepan.creditcardapp.config;
+
+import com.ilepan.creditcardapp.constants.Profiles;
+import com.ilepan.creditcardapp.logging.LogSamplingInterceptor;
+import com.ilepan.creditcardapp.logging.LogSamplingProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Registers the per-endpoint sampling of happy-path logs for all controllers.
+ */
+@Profile(Profiles.NOT_REACTIVE)
+@Configuration
+@EnableConfigurationProperties(LogSamplingProperties.class)
+public class LoggingConfig implements WebMvcConfigurer {
+
+    /**
+     * The sampling settings.
+     */
+    private final LogSamplingProperties logSamplingProperties;
+
+    /**
+     * Constructs the configuration.
+     *
+     * @param theLogSamplingProperties The sampling settings.
+     */
+    public LoggingConfig(LogSamplingProperties theLogSamplingProperties) {
+        logSamplingProperties = theLogSamplingProperties;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new LogSamplingInterceptor(logSamplingProperties));
+    }
+}
@@ -0,0 +1,59 @@
+package com.ilepan.creditcardapp.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Names of the application's own meters, and the aspect that times methods annotated with
+ * {@link io.micrometer.core.annotation.Timed}. HTTP endpoints and repository calls are timed by Spring Boot
+ * as <code>http.server.requests</code> and <code>spring.data.repository.invocations</code>.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /** Timer of service method calls, tagged with the class and method. */
+    public static final String SERVICE_TIMER = "creditcardapp.service";
+
+    /** Timer of writing a generated file, tagged with the file type. */
+    public static final String FILE_WRITE_TIMER = "creditcardapp.file.write";
+
+    /** Distribution of the size of generated files in bytes, tagged with the file type. */
+    public static final String FILE_SIZE_SUMMARY = "creditcardapp.file.size";
+
+    /** Counter of handled exceptions, tagged with the exception type. */
+    public static final String EXCEPTIONS_COUNTER = "creditcardapp.exceptions";
+
+    /** Gauge of the estimated false-positive probability of the OIB filter. */
+    public static final String OIB_FILTER_FPP_GAUGE = "creditcardapp.oib.filter.fpp";
+
+    /** Counter of OIB lookups, tagged with the filter result: absent, present or false_positive. */
+    public static final String OIB_FILTER_LOOKUPS_COUNTER = "creditcardapp.oib.filter.lookups";
+
+    /** Counter of requests with an Idempotency-Key, tagged with the result: first, replayed, in_progress or mismatch. */
+    public static final String IDEMPOTENT_REQUESTS_COUNTER = "creditcardapp.idempotency.requests";
+
+    /** Counter of coalesced calls, tagged with the name and the result: executed or shared. */
+    public static final String SINGLE_FLIGHT_CALLS_COUNTER = "creditcardapp.single.flight.calls";
+
+    /** Gauge of the number of coalesced calls running, tagged with the name. */
+    public static final String SINGLE_FLIGHT_IN_FLIGHT_GAUGE = "creditcardapp.single.flight.in.flight";
+
+    /** Gauge of the current adaptive limit of concurrent API requests. */
+    public static final String CONCURRENCY_LIMIT_GAUGE = "creditcardapp.concurrency.limit";
+
+    /** Gauge of the number of API requests admitted by the concurrency limit and still running. */
+    public static final String CONCURRENCY_IN_FLIGHT_GAUGE = "creditcardapp.concurrency.in.flight";
+
+    /**
+     * Creates the aspect that records {@link io.micrometer.core.annotation.Timed} methods.
+     *
+     * @param theMeterRegistry The registry the timers are recorded in.
+     * @return The aspect.
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry theMeterRegistry) {
+        return new TimedAspect(theMeterRegistry);
+    }
+}
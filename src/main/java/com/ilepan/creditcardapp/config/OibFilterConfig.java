@@ -0,0 +1,33 @@
+package com.ilepan.creditcardapp.config;
+
+import com.ilepan.creditcardapp.service.OibBloomFilter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration of the in-memory filter of stored OIBs, which lets lookups of unknown OIBs skip the database.
+ * The filter is filled by {@link com.ilepan.creditcardapp.service.OibBloomFilterLoader} once the application is ready.
+ */
+@Configuration
+@EnableConfigurationProperties(OibFilterProperties.class)
+public class OibFilterConfig {
+
+    /**
+     * Creates the empty filter and publishes its estimated false-positive probability.
+     *
+     * @param theProperties    The filter settings.
+     * @param theMeterRegistry The registry the gauge is published in.
+     * @return The filter.
+     */
+    @Bean
+    public OibBloomFilter oibBloomFilter(OibFilterProperties theProperties, MeterRegistry theMeterRegistry) {
+        OibBloomFilter filter = new OibBloomFilter(theProperties);
+        Gauge.builder(MetricsConfig.OIB_FILTER_FPP_GAUGE, filter, OibBloomFilter::estimatedFalsePositiveProbability)
+                .description("Estimated share of unknown OIBs the filter reports as maybe stored")
+                .register(theMeterRegistry);
+        return filter;
+    }
+}
@@ -0,0 +1,19 @@
+package com.ilepan.creditcardapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings for the in-memory filter of stored OIBs, bound from the <code>creditcardapp.oib-filter.*</code> properties.
+ *
+ * @param enabled                  Whether lookups of OIBs the filter has never seen skip the database. Only correct
+ *                                 when this instance is the only writer of the users table.
+ * @param expectedInsertions       The number of OIBs the filter is sized for. Beyond it the false-positive rate grows.
+ * @param falsePositiveProbability The target share of absent OIBs that still need a database lookup.
+ */
+@ConfigurationProperties(prefix = "creditcardapp.oib-filter")
+public record OibFilterProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("1000000") int expectedInsertions,
+        @DefaultValue("0.01") double falsePositiveProbability) {
+}
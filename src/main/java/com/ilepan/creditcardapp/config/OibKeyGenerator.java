@@ -0,0 +1,22 @@
+package com.ilepan.creditcardapp.config;
+
+import com.ilepan.creditcardapp.dto.Oib;
+import com.ilepan.creditcardapp.entity.User;
+import org.springframework.cache.interceptor.KeyGenerator;
+
+import java.lang.reflect.Method;
+
+/**
+ * Cache key generator for methods whose first argument is an OIB or a {@link User}.
+ * A well-formed OIB is keyed by its {@link Oib#toKey(CharSequence) packed} <code>Long</code>, so cache lookups
+ * hash and compare one number instead of a string. Any other OIB is keyed by the string itself.
+ */
+public class OibKeyGenerator implements KeyGenerator {
+
+    @Override
+    public Object generate(Object theTarget, Method theMethod, Object... theParams) {
+        String oib = theParams[0] instanceof User user ? user.getOib() : (String) theParams[0];
+        long key = Oib.toKey(oib);
+        return key < 0 ? oib : Long.valueOf(key);
+    }
+}
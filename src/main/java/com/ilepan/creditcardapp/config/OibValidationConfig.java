@@ -0,0 +1,33 @@
+package com.ilepan.creditcardapp.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Configuration of the fork-join pool that validates batches of OIBs.
+ * Batches get their own pool instead of the common pool, so a large batch takes at most
+ * <code>creditcardapp.oib-validation.parallelism</code> threads and never delays parallel streams elsewhere.
+ */
+@Configuration
+@EnableConfigurationProperties(OibValidationProperties.class)
+public class OibValidationConfig {
+
+    /** Name of the pool bean validating batches of OIBs. */
+    public static final String OIB_VALIDATION_POOL = "oibValidationPool";
+
+    /**
+     * Creates the pool validating batches of OIBs, shut down with the application context.
+     *
+     * @param theProperties The batch validation settings.
+     * @return The pool.
+     */
+    @Bean(name = OIB_VALIDATION_POOL)
+    public ForkJoinPool oibValidationPool(OibValidationProperties theProperties) {
+        return new ForkJoinPool(theProperties.parallelism() > 0
+                ? theProperties.parallelism()
+                : Runtime.getRuntime().availableProcessors());
+    }
+}
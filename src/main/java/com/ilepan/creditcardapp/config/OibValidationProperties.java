@@ -0,0 +1,19 @@
+package com.ilepan.creditcardapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings for batch OIB validation, bound from the <code>creditcardapp.oib-validation.*</code> properties.
+ *
+ * @param chunkSize   The number of OIBs read before they are validated, rounded up to a multiple of 64.
+ *                    Two chunks are held per request, about 11 bytes per OIB each.
+ * @param maxEntries  The largest number of OIBs accepted in one request.
+ * @param parallelism The number of threads validating chunks, 0 for one per available processor.
+ */
+@ConfigurationProperties(prefix = "creditcardapp.oib-validation")
+public record OibValidationProperties(
+        @DefaultValue("65536") int chunkSize,
+        @DefaultValue("1000000") int maxEntries,
+        @DefaultValue("0") int parallelism) {
+}
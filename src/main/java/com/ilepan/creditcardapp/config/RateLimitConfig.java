@@ -0,0 +1,82 @@
+package com.ilepan.creditcardapp.config;
+
+import com.ilepan.creditcardapp.constants.Profiles;
+import com.ilepan.creditcardapp.ratelimit.ConcurrencyLimitProperties;
+import com.ilepan.creditcardapp.ratelimit.GradientConcurrencyLimiter;
+import com.ilepan.creditcardapp.ratelimit.RateLimitInterceptor;
+import com.ilepan.creditcardapp.ratelimit.RateLimitProperties;
+import com.ilepan.creditcardapp.ratelimit.TokenBucketRateLimiter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Registers the per-client rate limit and the adaptive concurrency limit in front of the user API, if either is
+ * enabled. Actuator endpoints are not limited, so health checks still answer under overload.
+ */
+@Profile(Profiles.NOT_REACTIVE)
+@Configuration
+@EnableConfigurationProperties({RateLimitProperties.class, ConcurrencyLimitProperties.class})
+public class RateLimitConfig implements WebMvcConfigurer {
+
+    /**
+     * The limited paths.
+     */
+    private static final String[] API_PATHS = {"/api/user/**", "/api/users/**", "/api/generate/**"};
+
+    /**
+     * The rate limit settings.
+     */
+    private final RateLimitProperties rateLimitProperties;
+
+    /**
+     * The concurrency limit settings.
+     */
+    private final ConcurrencyLimitProperties concurrencyLimitProperties;
+
+    /**
+     * The registry the concurrency limit gauges are registered in.
+     */
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Constructs the configuration.
+     *
+     * @param theRateLimitProperties        The rate limit settings.
+     * @param theConcurrencyLimitProperties The concurrency limit settings.
+     * @param theMeterRegistry              The registry the concurrency limit gauges are registered in.
+     */
+    public RateLimitConfig(RateLimitProperties theRateLimitProperties,
+                           ConcurrencyLimitProperties theConcurrencyLimitProperties, MeterRegistry theMeterRegistry) {
+        rateLimitProperties = theRateLimitProperties;
+        concurrencyLimitProperties = theConcurrencyLimitProperties;
+        meterRegistry = theMeterRegistry;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (!rateLimitProperties.enabled() && !concurrencyLimitProperties.enabled()) {
+            return;
+        }
+        TokenBucketRateLimiter rateLimiter = rateLimitProperties.enabled()
+                ? new TokenBucketRateLimiter(rateLimitProperties) : null;
+        GradientConcurrencyLimiter concurrencyLimiter = null;
+        if (concurrencyLimitProperties.enabled()) {
+            concurrencyLimiter = new GradientConcurrencyLimiter(concurrencyLimitProperties);
+            Gauge.builder(MetricsConfig.CONCURRENCY_LIMIT_GAUGE, concurrencyLimiter,
+                            GradientConcurrencyLimiter::getLimit)
+                    .description("Adaptive limit of concurrent API requests")
+                    .register(meterRegistry);
+            Gauge.builder(MetricsConfig.CONCURRENCY_IN_FLIGHT_GAUGE, concurrencyLimiter,
+                            GradientConcurrencyLimiter::getInFlight)
+                    .description("API requests admitted by the concurrency limit and still running")
+                    .register(meterRegistry);
+        }
+        registry.addInterceptor(new RateLimitInterceptor(rateLimiter, concurrencyLimiter))
+                .addPathPatterns(API_PATHS);
+    }
+}
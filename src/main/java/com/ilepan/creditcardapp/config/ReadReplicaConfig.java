@@ -0,0 +1,96 @@
+package com.ilepan.creditcardapp.config;
+
+import com.ilepan.creditcardapp.constants.Profiles;
+import com.ilepan.creditcardapp.service.RecentWrites;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration of read replicas. With <code>creditcardapp.read-replicas.enabled</code> set, the application's
+ * {@link DataSource} is a {@link ReadReplicaDataSource}: read-only transactions, such as OIB lookups, search and
+ * export, are served from the replicas and all other transactions from the primary at
+ * <code>spring.datasource.url</code>.
+ */
+@Profile(Profiles.NOT_REACTIVE)
+@Configuration
+@EnableConfigurationProperties(ReadReplicaProperties.class)
+public class ReadReplicaConfig {
+
+    /**
+     * The prefix of the pool settings shared by the primary and the replicas.
+     */
+    private static final String HIKARI_PREFIX = "spring.datasource.hikari";
+
+    /**
+     * Creates the tracker of OIBs written within the read-your-writes window, which tracks nothing while the
+     * replicas are disabled.
+     *
+     * @param theProperties The replica settings.
+     * @return The tracker.
+     */
+    @Bean
+    public RecentWrites recentWrites(ReadReplicaProperties theProperties) {
+        return new RecentWrites(theProperties.enabled() ? theProperties.readYourWritesWindow() : Duration.ZERO);
+    }
+
+    /**
+     * Creates the primary and replica connection pools behind a {@link ReadReplicaDataSource}, replacing the pool
+     * Spring Boot would create. The primary pool metrics are published by Spring Boot, the replica ones are
+     * published here under the pool names <code>&lt;pool name&gt;-replica-&lt;n&gt;</code>.
+     *
+     * @param theDataSourceProperties The <code>spring.datasource.*</code> settings of the primary.
+     * @param theProperties           The replica settings.
+     * @param theEnvironment          The environment the shared pool settings are bound from.
+     * @param theMeterRegistry        The registry the replica pool metrics are published in.
+     * @return The routing data source.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "creditcardapp.read-replicas", name = "enabled", havingValue = "true")
+    public ReadReplicaDataSource dataSource(DataSourceProperties theDataSourceProperties,
+                                            ReadReplicaProperties theProperties, Environment theEnvironment,
+                                            MeterRegistry theMeterRegistry) {
+        if (theProperties.urls().isEmpty()) {
+            throw new IllegalArgumentException("creditcardapp.read-replicas.urls must list at least one replica.");
+        }
+        Binder binder = Binder.get(theEnvironment);
+        HikariDataSource primary = theDataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        binder.bind(HIKARI_PREFIX, Bindable.ofInstance(primary));
+        String poolName = primary.getPoolName() != null ? primary.getPoolName() : "creditcardapp";
+        primary.setPoolName(poolName);
+
+        List<DataSource> replicas = new ArrayList<>();
+        for (String url : theProperties.urls()) {
+            HikariDataSource replica = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(url)
+                    .username(theProperties.username() != null
+                            ? theProperties.username() : theDataSourceProperties.determineUsername())
+                    .password(theProperties.password() != null
+                            ? theProperties.password() : theDataSourceProperties.determinePassword())
+                    .build();
+            binder.bind(HIKARI_PREFIX, Bindable.ofInstance(replica));
+            replica.setPoolName(poolName + "-replica-" + (replicas.size() + 1));
+            replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(theMeterRegistry));
+            replicas.add(replica);
+        }
+        return new ReadReplicaDataSource(primary, replicas);
+    }
+}
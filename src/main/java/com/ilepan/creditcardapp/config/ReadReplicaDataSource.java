@@ -0,0 +1,105 @@
+package com.ilepan.creditcardapp.config;
+
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * {@link DataSource} that serves read-only transactions from read replicas and everything else from the primary.
+ * Connections are fetched lazily, on the first statement, when the transaction manager has already marked them
+ * read-only: read-only connections are taken from the replicas in turn, the others from the primary.
+ * A read that must see a write which may not have reached the replicas yet is pinned to the primary with
+ * {@link #readFromPrimary(Supplier)}.
+ */
+public class ReadReplicaDataSource extends LazyConnectionDataSourceProxy implements Closeable {
+
+    /**
+     * The lookup key of the primary.
+     */
+    private static final String PRIMARY = "primary";
+
+    /**
+     * Whether read-only connections fetched by the current thread are taken from the primary.
+     */
+    private static final ThreadLocal<Boolean> PRIMARY_PINNED = ThreadLocal.withInitial(() -> false);
+
+    /**
+     * The primary and the replicas.
+     */
+    private final List<DataSource> dataSources;
+
+    /**
+     * Counter choosing the next replica.
+     */
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    /**
+     * Constructs the data source.
+     *
+     * @param thePrimary  The data source of the primary, usually its connection pool.
+     * @param theReplicas The data sources of the replicas, at least one.
+     */
+    public ReadReplicaDataSource(DataSource thePrimary, List<DataSource> theReplicas) {
+        super(thePrimary);
+        if (theReplicas.isEmpty()) {
+            throw new IllegalArgumentException("At least one read replica is required.");
+        }
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, thePrimary);
+        for (int i = 0; i < theReplicas.size(); i++) {
+            targets.put(i, theReplicas.get(i));
+        }
+        int replicaCount = theReplicas.size();
+        AbstractRoutingDataSource router = new AbstractRoutingDataSource() {
+            @Override
+            protected Object determineCurrentLookupKey() {
+                return PRIMARY_PINNED.get() ? PRIMARY : Math.floorMod(nextReplica.getAndIncrement(), replicaCount);
+            }
+        };
+        router.setTargetDataSources(targets);
+        router.setLenientFallback(false);
+        router.afterPropertiesSet();
+        setReadOnlyDataSource(router);
+        dataSources = targets.values().stream().map(DataSource.class::cast).toList();
+    }
+
+    /**
+     * Runs a read with read-only connections taken from the primary, for example when it has to see a write
+     * that may not have been replicated yet.
+     *
+     * @param theRead The read, which fetches its connection while it runs.
+     * @param <T>     The type of the result.
+     * @return The result of the read.
+     */
+    public static <T> T readFromPrimary(Supplier<T> theRead) {
+        if (PRIMARY_PINNED.get()) {
+            return theRead.get();
+        }
+        PRIMARY_PINNED.set(true);
+        try {
+            return theRead.get();
+        } finally {
+            PRIMARY_PINNED.remove();
+        }
+    }
+
+    /**
+     * Closes the primary and replica connection pools.
+     */
+    @Override
+    public void close() throws IOException {
+        for (DataSource dataSource : dataSources) {
+            if (dataSource instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.ilepan.creditcardapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Settings for serving read-only transactions from read replicas, bound from the
+ * <code>creditcardapp.read-replicas.*</code> properties. The replica pools take the
+ * <code>spring.datasource.hikari.*</code> settings of the primary pool.
+ *
+ * @param enabled              Whether read-only transactions are routed to the replicas.
+ * @param urls                 The JDBC URLs of the replicas, used in turn.
+ * @param username             The replica user, the primary's if not set.
+ * @param password             The replica password, the primary's if not set.
+ * @param readYourWritesWindow How long lookups of an OIB written through this instance keep reading from the
+ *                             primary; set it above the usual replica lag, 0 turns it off.
+ */
+@ConfigurationProperties(prefix = "creditcardapp.read-replicas")
+public record ReadReplicaProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue List<String> urls,
+        String username,
+        String password,
+        @DefaultValue("2s") Duration readYourWritesWindow) {
+}
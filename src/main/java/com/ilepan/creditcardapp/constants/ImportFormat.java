@@ -0,0 +1,63 @@
+package com.ilepan.creditcardapp.constants;
+
+/**
+ * The <code>ImportFormat</code> enum represents the payload formats accepted by the bulk user import
+ * and produced by the user export.
+ * Each format is bound to the media type sent in the <code>Content-Type</code> header.
+ */
+public enum ImportFormat {
+    /**
+     * Newline delimited JSON, one User object per line.
+     */
+    NDJSON("application/x-ndjson"),
+
+    /**
+     * Comma separated values. The import reads firstName,lastName,oib,status with an optional header line, while
+     * the export writes id,firstName,lastName,oib,status,fileName with a header line, so the id and fileName
+     * columns of an exported file have to be dropped before it is imported.
+     */
+    CSV("text/csv");
+
+    /**
+     * The media type associated with the format.
+     */
+    private final String mediaType;
+
+    /**
+     * Constructs a <code>ImportFormat</code> with the specified media type.
+     *
+     * @param mediaType The media type associated with the format.
+     */
+    ImportFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    /**
+     * Gets the media type associated with the format.
+     *
+     * @return The media type associated with the format.
+     */
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Returns the <code>ImportFormat</code> corresponding to the specified content type.
+     * Media type parameters such as <code>charset</code> are ignored.
+     *
+     * @param contentType The value of the <code>Content-Type</code> header.
+     * @return The <code>ImportFormat</code> corresponding to the specified content type.
+     * @throws IllegalArgumentException If no format with the specified media type is found.
+     */
+    public static ImportFormat fromContentType(String contentType) {
+        if (contentType != null) {
+            String mediaType = contentType.split(";", 2)[0].trim();
+            for (ImportFormat format : values()) {
+                if (format.getMediaType().equalsIgnoreCase(mediaType)) {
+                    return format;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Unsupported import content type: " + contentType);
+    }
+}
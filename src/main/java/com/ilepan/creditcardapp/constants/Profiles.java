@@ -0,0 +1,14 @@
+package com.ilepan.creditcardapp.constants;
+
+/**
+ * The <code>Profiles</code> class provides constants for the Spring profiles that select beans.
+ */
+public class Profiles {
+
+    /** Serves the user API from the reactive stack (WebFlux and R2DBC) instead of the servlet stack and JPA. */
+    public static final String REACTIVE = "reactive";
+
+    /** Selects the beans of the servlet stack and JPA, which are left out with the {@link #REACTIVE} profile. */
+    public static final String NOT_REACTIVE = "!" + REACTIVE;
+
+}
@@ -0,0 +1,192 @@
+package com.ilepan.creditcardapp.dao;
+
+import com.ilepan.creditcardapp.constants.Profiles;
+import com.ilepan.creditcardapp.dto.UserSearchCriteria;
+import com.ilepan.creditcardapp.dto.UserSummary;
+import com.ilepan.creditcardapp.entity.User;
+import io.r2dbc.spi.Readable;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+
+/**
+ * Non-blocking access to the users table over R2DBC, used by the reactive stack.
+ * The statements are the ones Hibernate issues for {@link UserRepository}, written out with {@link DatabaseClient}
+ * because the JPA mapping of {@link User} cannot be reused by Spring Data R2DBC.
+ */
+@Profile(Profiles.REACTIVE)
+@Repository
+public class ReactiveUserRepository {
+
+    /**
+     * Columns of a User, in the order read by {@link #toUser(Readable)}.
+     */
+    private static final String USER_COLUMNS = "id, first_name, last_name, oib, status, file_name, version";
+
+    /**
+     * Escape character for LIKE patterns. A backslash would have to be escaped differently by MySQL and H2.
+     */
+    private static final char LIKE_ESCAPE = '!';
+
+    /**
+     * Client used for running the statements.
+     */
+    private final DatabaseClient databaseClient;
+
+    /**
+     * Constructor for creating a new instance of ReactiveUserRepository.
+     *
+     * @param theDatabaseClient The DatabaseClient dependency injected by Spring.
+     */
+    public ReactiveUserRepository(DatabaseClient theDatabaseClient) {
+        databaseClient = theDatabaseClient;
+    }
+
+    /**
+     * @param theOib The OIB of the User.
+     * @return The User, or empty if no User with the given OIB exists.
+     */
+    public Mono<User> findByOib(String theOib) {
+        return databaseClient.sql("SELECT " + USER_COLUMNS + " FROM users WHERE oib = :oib")
+                .bind("oib", theOib)
+                .map(ReactiveUserRepository::toUser)
+                .one();
+    }
+
+    /**
+     * Inserts a User and sets the generated id and the initial version on it.
+     *
+     * @param theUser The User to insert.
+     * @return The inserted User.
+     */
+    public Mono<User> insert(User theUser) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(
+                        "INSERT INTO users (first_name, last_name, oib, status, file_name, version)"
+                                + " VALUES (:firstName, :lastName, :oib, :status, :fileName, 0)")
+                .filter(statement -> statement.returnGeneratedValues("id"))
+                .bind("firstName", theUser.getFirstName())
+                .bind("lastName", theUser.getLastName())
+                .bind("oib", theUser.getOib())
+                .bind("status", theUser.getStatus());
+        spec = theUser.getFileName() == null
+                ? spec.bindNull("fileName", String.class)
+                : spec.bind("fileName", theUser.getFileName());
+        return spec.map(row -> row.get("id", Integer.class))
+                .one()
+                .map(id -> {
+                    theUser.setId(id);
+                    theUser.setVersion(0);
+                    return theUser;
+                });
+    }
+
+    /**
+     * @param theOib The OIB of the User.
+     * @return The number of deleted Users.
+     */
+    public Mono<Long> deleteByOib(String theOib) {
+        return databaseClient.sql("DELETE FROM users WHERE oib = :oib")
+                .bind("oib", theOib)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    /**
+     * Changes the status of a User and increments its version, in a single conditional statement.
+     *
+     * @param theOib             The OIB of the User.
+     * @param theStatus          The new status.
+     * @param theExpectedVersions The versions the User may have, or null for any version.
+     * @return The number of updated Users, 0 if the User does not exist or is at none of the expected versions.
+     */
+    public Mono<Long> updateStatus(String theOib, String theStatus, Set<Long> theExpectedVersions) {
+        String sql = "UPDATE users SET status = :status, version = version + 1 WHERE oib = :oib";
+        if (theExpectedVersions == null) {
+            return databaseClient.sql(sql)
+                    .bind("status", theStatus)
+                    .bind("oib", theOib)
+                    .fetch()
+                    .rowsUpdated();
+        }
+        // the collection is expanded to one bind marker per version
+        return databaseClient.sql(sql + " AND version IN (:versions)")
+                .bind("status", theStatus)
+                .bind("oib", theOib)
+                .bind("versions", theExpectedVersions)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    /**
+     * Reads the Users matching the criteria with an id greater than the given one, ordered by id.
+     * Works like {@link UserRepositoryCustom#search}.
+     *
+     * @param theCriteria The filters, null values and an empty last name prefix are ignored.
+     * @param theAfterId  The id of the last User of the previous page, 0 for the first page.
+     * @param theLimit    The maximum number of Users to read.
+     * @return The Users.
+     */
+    public Flux<UserSummary> search(UserSearchCriteria theCriteria, int theAfterId, int theLimit) {
+        StringBuilder sql = new StringBuilder("SELECT " + USER_COLUMNS + " FROM users WHERE id > :afterId");
+        if (theCriteria.status() != null) {
+            sql.append(" AND status = :status");
+        }
+        if (hasLastNamePrefix(theCriteria)) {
+            sql.append(" AND last_name LIKE :lastNamePattern ESCAPE '").append(LIKE_ESCAPE).append('\'');
+        }
+        if (theCriteria.fileGenerated() != null) {
+            sql.append(theCriteria.fileGenerated() ? " AND file_name IS NOT NULL" : " AND file_name IS NULL");
+        }
+        sql.append(" ORDER BY id LIMIT :limit");
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString())
+                .bind("afterId", theAfterId)
+                .bind("limit", theLimit);
+        if (theCriteria.status() != null) {
+            spec = spec.bind("status", theCriteria.status().getStatusValue());
+        }
+        if (hasLastNamePrefix(theCriteria)) {
+            spec = spec.bind("lastNamePattern", escapeLike(theCriteria.lastNamePrefix()) + "%");
+        }
+        return spec.map(row -> {
+            User user = toUser(row);
+            return new UserSummary(user.getId(), user.getFirstName(), user.getLastName(), user.getOib(),
+                    user.getStatus(), user.getFileName());
+        }).all();
+    }
+
+    // an empty prefix matches every User, as in UserRepositoryCustomImpl
+    private static boolean hasLastNamePrefix(UserSearchCriteria theCriteria) {
+        return theCriteria.lastNamePrefix() != null && !theCriteria.lastNamePrefix().isEmpty();
+    }
+
+    /**
+     * Maps a row selected with {@link #USER_COLUMNS}.
+     */
+    private static User toUser(Readable theRow) {
+        User user = new User(theRow.get("first_name", String.class), theRow.get("last_name", String.class),
+                theRow.get("oib", String.class), theRow.get("status", String.class));
+        user.setId(theRow.get("id", Integer.class));
+        user.setFileName(theRow.get("file_name", String.class));
+        user.setVersion(theRow.get("version", Long.class));
+        return user;
+    }
+
+    /**
+     * Escapes the LIKE wildcards and the escape character itself.
+     */
+    private static String escapeLike(String theValue) {
+        StringBuilder escaped = new StringBuilder(theValue.length());
+        for (char c : theValue.toCharArray()) {
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                escaped.append(LIKE_ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
@@ -1,9 +1,22 @@
 package com.ilepan.creditcardapp.dao;
 
+import com.ilepan.creditcardapp.dto.UserSummary;
 import com.ilepan.creditcardapp.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for managing {@link User} entities.
@@ -12,11 +25,73 @@ import java.util.Optional;
  * with the primary key of type {@code Integer}.
  *
  */
-public interface UserRepository extends JpaRepository<User, Integer> {
+public interface UserRepository extends JpaRepository<User, Integer>, UserRepositoryCustom {
 
-    // Custom method to find users by OIB
+    // Custom method to find users by OIB, served by a read replica when they are configured
+    @Transactional(readOnly = true)
     Optional<User> findByOib(String theOib);
 
-    // Custom method to delete users by OIB
-    void deleteByOib(String theOib);
+    // Custom method to delete users by OIB with a single bulk DELETE, returns the number of deleted rows
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from User u where u.oib = :theOib")
+    int deleteByOib(@Param("theOib") String theOib);
+
+    // Custom method to find which of the given OIBs are already stored, in a single query
+    @Query("select u.oib from User u where u.oib in :theOibs")
+    Set<String> findExistingOibs(@Param("theOibs") Collection<String> theOibs);
+
+    // Custom method claiming every User without a file for a batch file, in a single bulk UPDATE
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update User u set u.fileName = :theFileName, u.version = u.version + 1 where u.fileName is null")
+    int claimForBatch(@Param("theFileName") String theFileName);
+
+    // Custom method claiming every User with the given status and without a file for a batch file, in a single bulk UPDATE
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update User u set u.fileName = :theFileName, u.version = u.version + 1"
+            + " where u.fileName is null and u.status = :theStatus")
+    int claimForBatch(@Param("theFileName") String theFileName, @Param("theStatus") String theStatus);
+
+    // Custom method releasing every User claimed for the given batch file, when the file could not be written
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update User u set u.fileName = null, u.version = u.version + 1 where u.fileName = :theFileName")
+    int releaseBatch(@Param("theFileName") String theFileName);
+
+    // Custom method claiming the User with the given OIB for a file if it has none, in a single conditional UPDATE.
+    // Returns 0 if the User does not exist or already has a file, so only one of concurrent generations succeeds.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update User u set u.fileName = :theFileName, u.version = u.version + 1"
+            + " where u.oib = :theOib and u.fileName is null")
+    int claimFile(@Param("theOib") String theOib, @Param("theFileName") String theFileName);
+
+    // Custom method releasing a claim made by claimFile, if the User still has the claimed file
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update User u set u.fileName = null, u.version = u.version + 1"
+            + " where u.oib = :theOib and u.fileName = :theFileName")
+    int releaseFile(@Param("theOib") String theOib, @Param("theFileName") String theFileName);
+
+    // Custom method reading the next page of Users recorded with the given file, ordered by id (keyset pagination)
+    @Query("select new com.ilepan.creditcardapp.dto.UserSummary(u.id, u.firstName, u.lastName, u.oib, u.status, u.fileName)"
+            + " from User u where u.fileName = :theFileName and u.id > :theAfterId order by u.id")
+    List<UserSummary> findByFileNameAfter(@Param("theFileName") String theFileName, @Param("theAfterId") int theAfterId,
+                                          Pageable thePageable);
+
+    // Custom method streaming every User as a projection ordered by id, over a forward-only cursor fetched in chunks.
+    // The stream must be consumed and closed within a transaction.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new com.ilepan.creditcardapp.dto.UserSummary(u.id, u.firstName, u.lastName, u.oib, u.status, u.fileName)"
+            + " from User u order by u.id")
+    Stream<UserSummary> streamAll();
+
+    // Custom method streaming the OIB of every User over a forward-only cursor fetched in chunks.
+    // The stream must be consumed and closed within a transaction.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select u.oib from User u")
+    Stream<String> streamAllOibs();
 }
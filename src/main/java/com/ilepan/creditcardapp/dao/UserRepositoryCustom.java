@@ -0,0 +1,38 @@
+package com.ilepan.creditcardapp.dao;
+
+import com.ilepan.creditcardapp.dto.UserSearchCriteria;
+import com.ilepan.creditcardapp.dto.UserSummary;
+import com.ilepan.creditcardapp.entity.User;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Custom repository fragment for {@link User} operations that are not expressible
+ * as Spring Data derived or annotated queries.
+ */
+public interface UserRepositoryCustom {
+
+    /**
+     * Inserts the given users with a single JDBC batch.
+     * The insert bypasses the persistence context, so the ids of the given users are not populated.
+     *
+     * @param theUsers The users to insert.
+     * @return The number of inserted rows.
+     */
+    @Transactional
+    int insertBatch(List<User> theUsers);
+
+    /**
+     * Reads the Users matching the given filters that come after the given id, ordered by id (keyset pagination).
+     * Without filters, and with the status or the "no file" filter, the page is found by seeking in an index
+     * instead of skipping rows, so every page costs the same. The last name prefix and the "has a file" filter
+     * are index ranges not ordered by id, so every page sorts all matching rows.
+     *
+     * @param theCriteria The filters to apply.
+     * @param theAfterId  The id of the last User of the previous page, 0 for the first page.
+     * @param theLimit    The maximum number of Users to read.
+     * @return The matching Users as projections.
+     */
+    List<UserSummary> search(UserSearchCriteria theCriteria, int theAfterId, int theLimit);
+}
@@ -0,0 +1,118 @@
+package com.ilepan.creditcardapp.dao;
+
+import com.ilepan.creditcardapp.dto.UserSearchCriteria;
+import com.ilepan.creditcardapp.dto.UserSummary;
+import com.ilepan.creditcardapp.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Implementation of {@link UserRepositoryCustom}.
+ * Batch inserts go through {@link JdbcTemplate} rather than Hibernate, because Hibernate
+ * disables insert batching for entities whose id is generated with {@code GenerationType.IDENTITY}.
+ * Leaving the id column out of the statement lets the database assign it, so the batch is sent
+ * in one round trip (and rewritten into a multi-row insert when the MySQL driver has
+ * {@code rewriteBatchedStatements} enabled).
+ * Searches are built with the Criteria API, because their filters are optional.
+ */
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    /**
+     * Statement used for batch inserts.
+     */
+    private static final String INSERT_USER =
+            "INSERT INTO users (first_name, last_name, oib, status, file_name, version) VALUES (?, ?, ?, ?, ?, 0)";
+
+    /**
+     * Escape character for LIKE patterns.
+     */
+    private static final char LIKE_ESCAPE = '\\';
+
+    /**
+     * Template used for executing JDBC statements.
+     */
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Entity manager used for building and running searches.
+     */
+    private final EntityManager entityManager;
+
+    /**
+     * Constructor for creating a new instance of UserRepositoryCustomImpl.
+     *
+     * @param theJdbcTemplate The JdbcTemplate dependency injected by Spring.
+     * @param theEntityManager The shared EntityManager dependency injected by Spring.
+     */
+    public UserRepositoryCustomImpl(JdbcTemplate theJdbcTemplate, EntityManager theEntityManager) {
+        jdbcTemplate = theJdbcTemplate;
+        entityManager = theEntityManager;
+    }
+
+    @Override
+    public int insertBatch(List<User> theUsers) {
+        if (theUsers.isEmpty()) {
+            return 0;
+        }
+        int[][] counts = jdbcTemplate.batchUpdate(INSERT_USER, theUsers, theUsers.size(), (ps, user) -> {
+            ps.setString(1, user.getFirstName());
+            ps.setString(2, user.getLastName());
+            ps.setString(3, user.getOib());
+            ps.setString(4, user.getStatus());
+            ps.setString(5, user.getFileName());
+        });
+        // drivers may report SUCCESS_NO_INFO (-2) for rewritten batches, every statement inserts exactly one row
+        return counts.length == 0 ? 0 : counts[0].length;
+    }
+
+    @Override
+    public List<UserSummary> search(UserSearchCriteria theCriteria, int theAfterId, int theLimit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<UserSummary> query = cb.createQuery(UserSummary.class);
+        Root<User> user = query.from(User.class);
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.greaterThan(user.get("id"), theAfterId));
+        if (theCriteria.status() != null) {
+            predicates.add(cb.equal(user.get("status"), theCriteria.status().getStatusValue()));
+        }
+        // a range of (last_name, id) ordered by last_name, the matching rows are sorted by id on every page
+        if (theCriteria.lastNamePrefix() != null && !theCriteria.lastNamePrefix().isEmpty()) {
+            predicates.add(cb.like(user.get("lastName"), escapeLike(theCriteria.lastNamePrefix()) + "%", LIKE_ESCAPE));
+        }
+        // IS NULL seeks (file_name, id) in id order, IS NOT NULL is a range sorted like the prefix above
+        if (theCriteria.fileGenerated() != null) {
+            predicates.add(theCriteria.fileGenerated()
+                    ? cb.isNotNull(user.get("fileName"))
+                    : cb.isNull(user.get("fileName")));
+        }
+
+        query.select(cb.construct(UserSummary.class, user.get("id"), user.get("firstName"), user.get("lastName"),
+                        user.get("oib"), user.get("status"), user.get("fileName")))
+                .where(predicates.toArray(Predicate[]::new))
+                .orderBy(cb.asc(user.get("id")));
+        return entityManager.createQuery(query).setMaxResults(theLimit).getResultList();
+    }
+
+    /**
+     * Escapes the LIKE wildcards in the given value, so that it is matched literally.
+     */
+    private static String escapeLike(String theValue) {
+        StringBuilder escaped = new StringBuilder(theValue.length() + 4);
+        for (int i = 0; i < theValue.length(); i++) {
+            char c = theValue.charAt(i);
+            if (c == LIKE_ESCAPE || c == '%' || c == '_') {
+                escaped.append(LIKE_ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
@@ -0,0 +1,10 @@
+package com.ilepan.creditcardapp.dto;
+
+/**
+ * Outcome of a batch export.
+ *
+ * @param fileName      The name of the written batch file, or null if no User was eligible.
+ * @param exportedCount The number of Users written to the file and marked as exported.
+ */
+public record BatchExportResult(String fileName, int exportedCount) {
+}
@@ -0,0 +1,70 @@
+package com.ilepan.creditcardapp.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Snapshot of an asynchronous file generation job.
+ * Jobs are immutable, every state change produces a new snapshot.
+ *
+ * @param jobId       The unique identifier of the job.
+ * @param oib         The OIB of the User the file is generated for.
+ * @param status      The current state of the job.
+ * @param fileName    The name of the generated file, set once the job completed.
+ * @param error       The reason the job failed, set once the job failed.
+ * @param submittedAt When the job was submitted.
+ * @param finishedAt  When the job completed or failed, null while it is still pending.
+ */
+public record FileGenerationJob(UUID jobId, String oib, Status status, String fileName, String error,
+                                Instant submittedAt, Instant finishedAt) {
+
+    /**
+     * The possible states of a job.
+     */
+    public enum Status {
+        /** The job waits for a worker. */
+        QUEUED,
+
+        /** A worker is writing the file. */
+        RUNNING,
+
+        /** The file was written and recorded on the User. */
+        COMPLETED,
+
+        /** The file could not be generated. */
+        FAILED
+    }
+
+    /**
+     * Creates a new queued job.
+     *
+     * @param theOib The OIB of the User the file is generated for.
+     * @return The queued job.
+     */
+    public static FileGenerationJob queued(String theOib) {
+        return new FileGenerationJob(UUID.randomUUID(), theOib, Status.QUEUED, null, null, Instant.now(), null);
+    }
+
+    /**
+     * @return A copy of this job in the {@link Status#RUNNING} state.
+     */
+    public FileGenerationJob running() {
+        return new FileGenerationJob(jobId, oib, Status.RUNNING, null, null, submittedAt, null);
+    }
+
+    /**
+     * @param theFileName The name of the generated file.
+     * @return A copy of this job in the {@link Status#COMPLETED} state.
+     */
+    public FileGenerationJob completed(String theFileName) {
+        return new FileGenerationJob(jobId, oib, Status.COMPLETED, theFileName, null, submittedAt, Instant.now());
+    }
+
+    /**
+     * @param theError The reason the job failed.
+     * @return A copy of this job in the {@link Status#FAILED} state.
+     */
+    public FileGenerationJob failed(String theError) {
+        return new FileGenerationJob(jobId, oib, Status.FAILED, null, theError, submittedAt, Instant.now());
+    }
+}
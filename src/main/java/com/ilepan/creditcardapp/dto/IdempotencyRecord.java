@@ -0,0 +1,11 @@
+package com.ilepan.creditcardapp.dto;
+
+/**
+ * What is stored for an <code>Idempotency-Key</code>: the request it was first used with and, once that request
+ * has succeeded, its response.
+ *
+ * @param fingerprint Hash of the body of the first request with the key.
+ * @param response    The response of the first request, null while it is still being processed.
+ */
+public record IdempotencyRecord(String fingerprint, UserResponse response) {
+}
@@ -0,0 +1,37 @@
+package com.ilepan.creditcardapp.dto;
+
+import com.ilepan.creditcardapp.validator.OibValidator;
+
+/**
+ * The <code>Oib</code> class packs an OIB into a <code>long</code>. The 11 decimal digits need at most 37 bits,
+ * so an OIB used as a key of an in-memory cache or filter is hashed and compared as a single number instead of
+ * as a string of 11 characters.
+ */
+public class Oib {
+
+    /**
+     * The largest value of an 11-digit number.
+     */
+    public static final long MAX_VALUE = 99_999_999_999L;
+
+    /**
+     * Packs the digits without checking the control digit, for keys of OIBs that have been validated before.
+     *
+     * @param theOib The characters to pack, may be null.
+     * @return The packed digits, or -1 if the input is not exactly 11 ASCII digits.
+     */
+    public static long toKey(CharSequence theOib) {
+        if (theOib == null || theOib.length() != OibValidator.OIB_LENGTH) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = 0; i < OibValidator.OIB_LENGTH; i++) {
+            int digit = theOib.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,12 @@
+package com.ilepan.creditcardapp.dto;
+
+/**
+ * The outcome of validating a list of OIBs.
+ * Only the positions of invalid OIBs are listed, so the report stays small when most OIBs are valid.
+ *
+ * @param total          The number of OIBs in the list.
+ * @param invalid        The number of invalid OIBs.
+ * @param invalidIndexes The zero-based positions of the invalid OIBs in the list, in ascending order.
+ */
+public record OibValidationReport(int total, int invalid, int[] invalidIndexes) {
+}
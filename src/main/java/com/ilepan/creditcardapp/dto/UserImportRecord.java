@@ -0,0 +1,36 @@
+package com.ilepan.creditcardapp.dto;
+
+import com.ilepan.creditcardapp.entity.User;
+
+/**
+ * A single parsed row of a bulk user import.
+ * Either {@code user} is set, or {@code parseError} describes why the row could not be read.
+ *
+ * @param rowNumber  The 1-based line number of the row in the uploaded payload.
+ * @param user       The User parsed from the row, or null if parsing failed.
+ * @param parseError The reason the row could not be parsed, or null if parsing succeeded.
+ */
+public record UserImportRecord(long rowNumber, User user, String parseError) {
+
+    /**
+     * Creates a record for a row that was parsed successfully.
+     *
+     * @param rowNumber The 1-based line number of the row.
+     * @param user      The parsed User.
+     * @return The import record.
+     */
+    public static UserImportRecord parsed(long rowNumber, User user) {
+        return new UserImportRecord(rowNumber, user, null);
+    }
+
+    /**
+     * Creates a record for a row that could not be parsed.
+     *
+     * @param rowNumber  The 1-based line number of the row.
+     * @param parseError The reason the row could not be parsed.
+     * @return The import record.
+     */
+    public static UserImportRecord malformed(long rowNumber, String parseError) {
+        return new UserImportRecord(rowNumber, null, parseError);
+    }
+}
@@ -0,0 +1,15 @@
+package com.ilepan.creditcardapp.dto;
+
+import java.util.List;
+
+/**
+ * Summary of a bulk user import, with one {@link UserImportResult} per rejected row.
+ * Imported rows are only counted, so the report stays small for large payloads.
+ *
+ * @param imported     The number of rows that were inserted.
+ * @param rejected     The number of rows that were rejected as invalid or duplicate.
+ * @param rejectedRows The first rejected rows in payload order, at most
+ *                     {@link com.ilepan.creditcardapp.service.UserService#MAX_REPORTED_REJECTIONS}.
+ */
+public record UserImportReport(int imported, int rejected, List<UserImportResult> rejectedRows) {
+}
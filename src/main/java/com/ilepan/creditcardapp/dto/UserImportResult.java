@@ -0,0 +1,23 @@
+package com.ilepan.creditcardapp.dto;
+
+/**
+ * A row of a bulk user import that was not imported.
+ *
+ * @param rowNumber The 1-based line number of the row in the uploaded payload.
+ * @param oib       The OIB of the row, or null if the row could not be parsed.
+ * @param outcome   Why the row was rejected.
+ * @param message   A human readable explanation of the rejection.
+ */
+public record UserImportResult(long rowNumber, String oib, Outcome outcome, String message) {
+
+    /**
+     * The reasons a row is rejected.
+     */
+    public enum Outcome {
+        /** The row failed parsing, OIB or field validation. */
+        INVALID,
+
+        /** A User with the same OIB already exists, or appeared earlier in the payload or in a concurrent write. */
+        DUPLICATE
+    }
+}
@@ -0,0 +1,12 @@
+package com.ilepan.creditcardapp.dto;
+
+import java.util.List;
+
+/**
+ * One page of the User listing.
+ *
+ * @param items      The Users of the page, ordered by id.
+ * @param nextCursor The opaque cursor of the next page, null if this is the last page.
+ */
+public record UserPage(List<UserSummary> items, String nextCursor) {
+}
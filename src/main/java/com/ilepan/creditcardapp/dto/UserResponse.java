@@ -0,0 +1,30 @@
+package com.ilepan.creditcardapp.dto;
+
+import com.ilepan.creditcardapp.entity.User;
+
+/**
+ * A User as returned by the single-user endpoints.
+ * Responses are built from a plain record instead of the entity, so serializing them never touches
+ * Hibernate's lazy-loading proxies or the entity's persistence state. Being immutable, it is also what
+ * {@link com.ilepan.creditcardapp.service.UserService#findByOib} caches and hands to concurrent callers.
+ *
+ * @param id        The unique identifier of the User.
+ * @param firstName The first name of the User.
+ * @param lastName  The last name of the User.
+ * @param oib       User's OIB.
+ * @param status    Status of the User.
+ * @param fileName  File name of the User, null if no file has been generated.
+ * @param version   Version of the User, incremented by every change.
+ */
+public record UserResponse(int id, String firstName, String lastName, String oib, String status, String fileName,
+                           long version) {
+
+    /**
+     * @param theUser The User.
+     * @return The response of the User.
+     */
+    public static UserResponse from(User theUser) {
+        return new UserResponse(theUser.getId(), theUser.getFirstName(), theUser.getLastName(), theUser.getOib(),
+                theUser.getStatus(), theUser.getFileName(), theUser.getVersion());
+    }
+}
@@ -0,0 +1,13 @@
+package com.ilepan.creditcardapp.dto;
+
+import com.ilepan.creditcardapp.constants.StatusEnum;
+
+/**
+ * Filters of the User listing, every filter that is null is not applied.
+ *
+ * @param status         Only Users with this status.
+ * @param lastNamePrefix Only Users whose last name starts with this prefix, case-sensitive.
+ * @param fileGenerated  Only Users that have (true) or have not (false) had a file generated.
+ */
+public record UserSearchCriteria(StatusEnum status, String lastNamePrefix, Boolean fileGenerated) {
+}
@@ -0,0 +1,17 @@
+package com.ilepan.creditcardapp.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+
+/**
+ * Request body of a User status change.
+ *
+ * @param status The new status of the User, 0 = INACTIVE or 1 = ACTIVE.
+ */
+public record UserStatusUpdate(
+        @NotNull(message = "Status is required!")
+        @Pattern(regexp = "[01]", message = "Status can only have values 0  = INACTIVE or 1 = ACTIVE")
+        @Schema(defaultValue = "1", description = "The new status of the User")
+        String status) {
+}
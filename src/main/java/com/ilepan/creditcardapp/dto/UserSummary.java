@@ -0,0 +1,16 @@
+package com.ilepan.creditcardapp.dto;
+
+/**
+ * Read-only projection of a User, selected with a JPQL constructor expression.
+ * Projections are never attached to the persistence context, so reading many of them
+ * costs neither entity hydration nor dirty checking.
+ *
+ * @param id        The unique identifier of the User.
+ * @param firstName The first name of the User.
+ * @param lastName  The last name of the User.
+ * @param oib       User's OIB.
+ * @param status    Status of the User.
+ * @param fileName  File name of the User, null if no file has been generated.
+ */
+public record UserSummary(int id, String firstName, String lastName, String oib, String status, String fileName) {
+}
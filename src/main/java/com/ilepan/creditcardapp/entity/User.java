@@ -13,9 +13,20 @@ import jakarta.validation.constraints.Size;
  * and it is mapped to the "user" table in the database using {@link Table} annotation.
  */
 @Entity
-@Table(name="users")
+@Table(name="users",
+        uniqueConstraints = @UniqueConstraint(name = User.OIB_UNIQUE_CONSTRAINT, columnNames = "oib"),
+        indexes = {
+                @Index(name = "idx_users_file_name_id", columnList = "file_name, id"),
+                @Index(name = "idx_users_status_id", columnList = "status, id"),
+                @Index(name = "idx_users_last_name_id", columnList = "last_name, id")
+        })
 public class User {
 
+    /**
+     * Name of the unique constraint on the OIB column.
+     */
+    public static final String OIB_UNIQUE_CONSTRAINT = "uk_users_oib";
+
     /**
      * The unique identifier for the User.
      */
@@ -49,7 +60,7 @@ public class User {
      * User's OIB (osobni identifikacijski broj)
      */
     @NotNull(message = "OIB is required!")
-    @Column(name="oib", length = 11)
+    @Column(name="oib", length = 11, nullable = false, columnDefinition = "char(11)")
     @Schema(defaultValue = "05552352140", description = "The User's OIB (osobni identifikacijski broj)")
     private String oib;
 
@@ -68,6 +79,15 @@ public class User {
     @Column(name="file_name")
     private String fileName;
 
+    /**
+     * Version of the User, incremented by every update. An update of a User that has changed since it was read
+     * fails instead of overwriting the other change.
+     */
+    @Version
+    @Schema(accessMode = Schema.AccessMode.READ_ONLY, description = "Incremented by every change of the User")
+    @Column(name="version", nullable = false)
+    private long version;
+
     /**
      * Default constructor for the User class.
      */
@@ -214,4 +234,22 @@ public class User {
                 ", fileName='" + fileName + '\'' +
                 '}';
     }
+
+    /**
+     * Gets the version of the User.
+     *
+     * @return The version.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Sets the version of the User.
+     *
+     * @param version The version.
+     */
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,32 @@
+package com.ilepan.creditcardapp.exception;
+
+/**
+ * Custom exception class representing a request shed because the application is serving as many requests as it
+ * currently can without queueing.
+ * This exception extends the {@link RuntimeException}, making it an unchecked exception.
+ */
+public class ConcurrencyLimitExceededException extends RuntimeException {
+
+    /**
+     * The number of seconds after which the client may retry.
+     */
+    private final long retryAfterSeconds;
+
+    /**
+     * Constructs a new instance of ConcurrencyLimitExceededException with the specified error message.
+     *
+     * @param message              The detail message indicating the reason for the exception.
+     * @param theRetryAfterSeconds The number of seconds after which the client may retry.
+     */
+    public ConcurrencyLimitExceededException(String message, long theRetryAfterSeconds) {
+        super(message, null, false, false);
+        retryAfterSeconds = theRetryAfterSeconds;
+    }
+
+    /**
+     * @return The number of seconds after which the client may retry.
+     */
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,18 @@
+package com.ilepan.creditcardapp.exception;
+
+/**
+ * Custom exception class representing a scenario where a file generation job was not found,
+ * either because it never existed or because its status is no longer retained.
+ * This exception extends the {@link RuntimeException}, making it an unchecked exception.
+ */
+public class GenerationJobNotFoundException extends RuntimeException {
+
+    /**
+     * Constructs a new instance of GenerationJobNotFoundException with the specified error message.
+     *
+     * @param message The detail message indicating the reason for the exception.
+     */
+    public GenerationJobNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -1,8 +1,15 @@
 package com.ilepan.creditcardapp.exception;
 
+import com.ilepan.creditcardapp.config.MetricsConfig;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.jetbrains.annotations.NotNull;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.validation.Errors;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -19,6 +26,20 @@ import java.util.Map;
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    /**
+     * Registry the handled exceptions are counted in.
+     */
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Constructor for creating a new instance of GlobalExceptionHandler.
+     *
+     * @param theMeterRegistry The MeterRegistry dependency injected by Spring.
+     */
+    public GlobalExceptionHandler(MeterRegistry theMeterRegistry) {
+        meterRegistry = theMeterRegistry;
+    }
+
     /**
      * Handles exceptions of type {@link InvalidOibException}, {@link UserAlreadyExistsException}, and
      * returns a 400 Bad Request status
@@ -32,6 +53,7 @@ public class GlobalExceptionHandler {
             IllegalArgumentException.class
     })
     public ResponseEntity<String> handleBadRequest(final @NotNull RuntimeException ex) {
+        count(ex);
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
 
     }
@@ -44,9 +66,130 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(UserNotFoundException.class)
     public ResponseEntity<String> handleUserNotFoundException(UserNotFoundException ex) {
+        count(ex);
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
+    }
+
+    /**
+     * Handles {@link GenerationJobNotFoundException} and returns a 404 Not Found status.
+     *
+     * @param ex The GenerationJobNotFoundException instance.
+     * @return ResponseEntity containing the exception message.
+     */
+    @ExceptionHandler(GenerationJobNotFoundException.class)
+    public ResponseEntity<String> handleGenerationJobNotFoundException(GenerationJobNotFoundException ex) {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
     }
 
+    /**
+     * Handles {@link OptimisticLockingFailureException}, thrown when a User was changed since it was read
+     * or concurrently, and returns a 409 Conflict status.
+     *
+     * @param ex The OptimisticLockingFailureException instance.
+     * @return ResponseEntity containing the error message.
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleOptimisticLockingFailureException(OptimisticLockingFailureException ex) {
+        count(ex);
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body("The user has been changed by another request, read it again and retry.");
+    }
+
+    /**
+     * Handles {@link PreconditionFailedException}, thrown for an <code>If-Match</code> header holding weak
+     * entity tags only, and returns a 412 Precondition Failed status.
+     *
+     * @param ex The PreconditionFailedException instance.
+     * @return ResponseEntity containing the exception message.
+     */
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<String> handlePreconditionFailedException(PreconditionFailedException ex) {
+        count(ex);
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(ex.getMessage());
+    }
+
+    /**
+     * Handles {@link IdempotencyKeyInProgressException}, thrown for a retry that arrived before the first request
+     * with its key finished, and returns a 409 Conflict status.
+     *
+     * @param ex The IdempotencyKeyInProgressException instance.
+     * @return ResponseEntity containing the exception message.
+     */
+    @ExceptionHandler(IdempotencyKeyInProgressException.class)
+    public ResponseEntity<String> handleIdempotencyKeyInProgressException(IdempotencyKeyInProgressException ex) {
+        count(ex);
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
+    }
+
+    /**
+     * Handles {@link IdempotencyKeyMismatchException}, thrown when a key is reused for a different request,
+     * and returns a 422 Unprocessable Entity status.
+     *
+     * @param ex The IdempotencyKeyMismatchException instance.
+     * @return ResponseEntity containing the exception message.
+     */
+    @ExceptionHandler(IdempotencyKeyMismatchException.class)
+    public ResponseEntity<String> handleIdempotencyKeyMismatchException(IdempotencyKeyMismatchException ex) {
+        count(ex);
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(ex.getMessage());
+    }
+
+    /**
+     * Handles {@link RateLimitExceededException}, thrown when a client exceeds its rate limit,
+     * and returns a 429 Too Many Requests status with a Retry-After header.
+     *
+     * @param ex The RateLimitExceededException instance.
+     * @return ResponseEntity containing the exception message.
+     */
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<String> handleRateLimitExceededException(RateLimitExceededException ex) {
+        count(ex);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()))
+                .body(ex.getMessage());
+    }
+
+    /**
+     * Handles {@link ConcurrencyLimitExceededException}, thrown when a request is shed by the concurrency limit,
+     * and returns a 503 Service Unavailable status with a Retry-After header.
+     *
+     * @param ex The ConcurrencyLimitExceededException instance.
+     * @return ResponseEntity containing the exception message.
+     */
+    @ExceptionHandler(ConcurrencyLimitExceededException.class)
+    public ResponseEntity<String> handleConcurrencyLimitExceededException(ConcurrencyLimitExceededException ex) {
+        count(ex);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()))
+                .body(ex.getMessage());
+    }
+
+    /**
+     * Handles {@link TaskRejectedException}, thrown when a bounded work queue is full,
+     * and returns a 503 Service Unavailable status.
+     *
+     * @param ex The TaskRejectedException instance.
+     * @return ResponseEntity containing the error message.
+     */
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<String> handleTaskRejectedException(TaskRejectedException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body("The server is busy, please retry later.");
+    }
+
+    /**
+     * Handles {@link CannotCreateTransactionException}, thrown when no database connection could be obtained
+     * in time, and returns a 503 Service Unavailable status.
+     *
+     * @param ex The CannotCreateTransactionException instance.
+     * @return ResponseEntity containing the error message.
+     */
+    @ExceptionHandler(CannotCreateTransactionException.class)
+    public ResponseEntity<String> handleCannotCreateTransactionException(CannotCreateTransactionException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body("The server is busy, please retry later.");
+    }
+
     /**
      * Handles {@link MethodArgumentNotValidException} and returns a 400 Bad Request status.
      *
@@ -55,10 +198,21 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String, String>> handleValidationExceptions(MethodArgumentNotValidException ex) {
+        return new ResponseEntity<>(fieldErrors(ex.getBindingResult()), HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Collects the message of every field error, keyed by the field. This is the body of every
+     * 400 Bad Request response to a request body that fails bean validation.
+     *
+     * @param theErrors The validation errors.
+     * @return The messages keyed by field.
+     */
+    public static Map<String, String> fieldErrors(Errors theErrors) {
         Map<String, String> errors = new HashMap<>();
-        ex.getBindingResult().getFieldErrors().forEach(error ->
+        theErrors.getFieldErrors().forEach(error ->
                 errors.put(error.getField(), error.getDefaultMessage()));
-        return new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
+        return errors;
     }
 
     /**
@@ -73,4 +227,12 @@ public class GlobalExceptionHandler {
     public ResponseEntity<String> handleGenericException(Exception ex) {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("An unexpected error occurred: " + ex.getMessage());
     }
+
+    /**
+     * Increments the counter of the given exception's type.
+     */
+    private void count(Exception theException) {
+        meterRegistry.counter(MetricsConfig.EXCEPTIONS_COUNTER, "exception", theException.getClass().getSimpleName())
+                .increment();
+    }
 }
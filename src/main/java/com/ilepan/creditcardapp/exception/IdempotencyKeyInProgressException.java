@@ -0,0 +1,17 @@
+package com.ilepan.creditcardapp.exception;
+
+/**
+ * Custom exception class representing a retry that arrived while the first request with the same
+ * <code>Idempotency-Key</code> is still being processed.
+ * This exception extends the {@link RuntimeException}, making it an unchecked exception.
+ */
+public class IdempotencyKeyInProgressException extends RuntimeException {
+    /**
+     * Constructs a new instance of IdempotencyKeyInProgressException with the specified error message.
+     *
+     * @param message The detail message indicating the reason for the exception.
+     */
+    public IdempotencyKeyInProgressException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,16 @@
+package com.ilepan.creditcardapp.exception;
+
+/**
+ * Custom exception class representing an <code>Idempotency-Key</code> reused for a request with a different body.
+ * This exception extends the {@link RuntimeException}, making it an unchecked exception.
+ */
+public class IdempotencyKeyMismatchException extends RuntimeException {
+    /**
+     * Constructs a new instance of IdempotencyKeyMismatchException with the specified error message.
+     *
+     * @param message The detail message indicating the reason for the exception.
+     */
+    public IdempotencyKeyMismatchException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,16 @@
+package com.ilepan.creditcardapp.exception;
+
+/**
+ * Custom exception class representing an <code>If-Match</code> header that no version of a User can match.
+ * This exception extends the {@link RuntimeException}, making it an unchecked exception.
+ */
+public class PreconditionFailedException extends RuntimeException {
+    /**
+     * Constructs a new instance of PreconditionFailedException with the specified error message.
+     *
+     * @param message The detail message indicating the reason for the exception.
+     */
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,31 @@
+package com.ilepan.creditcardapp.exception;
+
+/**
+ * Custom exception class representing a request rejected because its client sent more requests than its rate limit.
+ * This exception extends the {@link RuntimeException}, making it an unchecked exception.
+ */
+public class RateLimitExceededException extends RuntimeException {
+
+    /**
+     * The number of seconds after which the client may retry.
+     */
+    private final long retryAfterSeconds;
+
+    /**
+     * Constructs a new instance of RateLimitExceededException with the specified error message.
+     *
+     * @param message              The detail message indicating the reason for the exception.
+     * @param theRetryAfterSeconds The number of seconds after which the client may retry.
+     */
+    public RateLimitExceededException(String message, long theRetryAfterSeconds) {
+        super(message, null, false, false);
+        retryAfterSeconds = theRetryAfterSeconds;
+    }
+
+    /**
+     * @return The number of seconds after which the client may retry.
+     */
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
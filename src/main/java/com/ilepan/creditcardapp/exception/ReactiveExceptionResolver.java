@@ -0,0 +1,66 @@
+package com.ilepan.creditcardapp.exception;
+
+import com.ilepan.creditcardapp.constants.Profiles;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.annotation.ExceptionHandlerMethodResolver;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Turns exceptions of the functional routes into responses with the {@code @ExceptionHandler} methods of
+ * {@link GlobalExceptionHandler}, so that both stacks answer every error with the same status and body.
+ */
+@Profile(Profiles.REACTIVE)
+@Component
+public class ReactiveExceptionResolver {
+
+    /**
+     * The handler whose methods build the responses.
+     */
+    private final GlobalExceptionHandler globalExceptionHandler;
+
+    /**
+     * Finds the handler method of an exception type, the same way Spring MVC does.
+     */
+    private final ExceptionHandlerMethodResolver methodResolver =
+            new ExceptionHandlerMethodResolver(GlobalExceptionHandler.class);
+
+    /**
+     * Constructor for creating a new instance of ReactiveExceptionResolver.
+     *
+     * @param theGlobalExceptionHandler The GlobalExceptionHandler dependency injected by Spring.
+     */
+    public ReactiveExceptionResolver(GlobalExceptionHandler theGlobalExceptionHandler) {
+        globalExceptionHandler = theGlobalExceptionHandler;
+    }
+
+    /**
+     * Builds the response for an exception.
+     *
+     * @param theException The exception signalled by a route.
+     * @return The response, or the exception itself if it is not an {@link Exception}.
+     */
+    public Mono<ServerResponse> resolve(Throwable theException) {
+        if (!(theException instanceof Exception exception)) {
+            return Mono.error(theException);
+        }
+        Method method = methodResolver.resolveMethodByThrowable(exception);
+        if (method == null) {
+            return Mono.error(theException);
+        }
+        ResponseEntity<?> entity;
+        try {
+            entity = (ResponseEntity<?>) method.invoke(globalExceptionHandler, exception);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            return Mono.error(e);
+        }
+        ServerResponse.BodyBuilder response = ServerResponse.status(entity.getStatusCode())
+                .headers(headers -> headers.addAll(entity.getHeaders()));
+        return entity.getBody() == null ? response.build() : response.bodyValue(entity.getBody());
+    }
+}
@@ -0,0 +1,65 @@
+package com.ilepan.creditcardapp.logging;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides per request whether its happy-path logs are written, and puts the decision and the endpoint into the MDC
+ * for {@link SampledLogTurboFilter} and the JSON log output. Each endpoint is sampled at its own rate, so a hot
+ * lookup endpoint can be logged rarely while rare, state-changing calls are always logged. The rate of an endpoint is
+ * looked up by its method and path pattern, e.g. <code>GET /api/user/{userOib}</code>, and then by the path pattern
+ * alone, which covers all methods mapped to it.
+ */
+public class LogSamplingInterceptor implements AsyncHandlerInterceptor {
+
+    /**
+     * The sampling settings.
+     */
+    private final LogSamplingProperties properties;
+
+    /**
+     * Constructs the interceptor.
+     *
+     * @param theProperties The sampling settings.
+     */
+    public LogSamplingInterceptor(LogSamplingProperties theProperties) {
+        properties = theProperties;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String path = pattern != null ? pattern.toString() : request.getRequestURI();
+        String endpoint = request.getMethod() + " " + path;
+        Integer every = properties.every().get(endpoint);
+        if (every == null) {
+            every = properties.every().getOrDefault(path, properties.defaultEvery());
+        }
+        boolean sampled = every <= 1 || ThreadLocalRandom.current().nextInt(every) == 0;
+        MDC.put(SampledLogTurboFilter.ENDPOINT_MDC_KEY, endpoint);
+        MDC.put(SampledLogTurboFilter.SAMPLED_MDC_KEY, Boolean.toString(sampled));
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        clear();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        clear();
+    }
+
+    private void clear() {
+        MDC.remove(SampledLogTurboFilter.ENDPOINT_MDC_KEY);
+        MDC.remove(SampledLogTurboFilter.SAMPLED_MDC_KEY);
+    }
+}
@@ -0,0 +1,19 @@
+package com.ilepan.creditcardapp.logging;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.Map;
+
+/**
+ * Settings for sampling happy-path logs, bound from the <code>creditcardapp.logging.sampling.*</code> properties.
+ *
+ * @param defaultEvery Logs below WARN are written for 1 in this many requests of an endpoint without its own setting.
+ * @param every        The same setting per endpoint, keyed by the method and the path pattern of the handler mapping,
+ *                     e.g. <code>GET /api/user/{userOib}</code>, or by the path pattern alone for all its methods.
+ */
+@ConfigurationProperties(prefix = "creditcardapp.logging.sampling")
+public record LogSamplingProperties(
+        @DefaultValue("1") int defaultEvery,
+        @DefaultValue Map<String, Integer> every) {
+}
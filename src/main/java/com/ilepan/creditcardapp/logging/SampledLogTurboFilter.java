@@ -0,0 +1,30 @@
+package com.ilepan.creditcardapp.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+
+/**
+ * Logback filter that drops events below WARN logged while handling a request that was not picked for logging by
+ * {@link LogSamplingInterceptor}. It runs before the event is created, so a dropped event costs one MDC lookup.
+ * Events logged outside of a request, and warnings and errors, are not affected.
+ */
+public class SampledLogTurboFilter extends TurboFilter {
+
+    /** MDC key holding the endpoint of the current request. */
+    public static final String ENDPOINT_MDC_KEY = "endpoint";
+
+    /** MDC key holding whether happy-path logs of the current request are written. */
+    public static final String SAMPLED_MDC_KEY = "sampled";
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (level == null || level.isGreaterOrEqual(Level.WARN)) {
+            return FilterReply.NEUTRAL;
+        }
+        return "false".equals(MDC.get(SAMPLED_MDC_KEY)) ? FilterReply.DENY : FilterReply.NEUTRAL;
+    }
+}
@@ -0,0 +1,25 @@
+package com.ilepan.creditcardapp.ratelimit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings for the adaptive concurrency limit of the user API, bound from the
+ * <code>creditcardapp.concurrency-limit.*</code> properties.
+ *
+ * @param enabled      Whether the concurrency limit is applied.
+ * @param initialLimit The number of concurrent requests admitted before any latency has been measured.
+ * @param minLimit     The limit never drops below this many requests.
+ * @param maxLimit     The limit never grows above this many requests; keep it at or below the request thread pool.
+ * @param tolerance    How much the current latency may exceed the long-term latency before the limit is lowered.
+ * @param smoothing    How far the limit moves towards a new estimate per measured request, between 0 and 1.
+ */
+@ConfigurationProperties(prefix = "creditcardapp.concurrency-limit")
+public record ConcurrencyLimitProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("20") int initialLimit,
+        @DefaultValue("4") int minLimit,
+        @DefaultValue("200") int maxLimit,
+        @DefaultValue("1.5") double tolerance,
+        @DefaultValue("0.2") double smoothing) {
+}
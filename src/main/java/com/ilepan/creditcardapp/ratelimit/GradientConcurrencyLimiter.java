@@ -0,0 +1,212 @@
+package com.ilepan.creditcardapp.ratelimit;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Limit of concurrent requests that adapts to the measured latency, in the style of the gradient limiters of TCP
+ * Vegas and Netflix's concurrency-limits. A long-term average of the request latency stands for the latency without
+ * queueing. While the recent latency stays within {@code tolerance} times that, the limit grows by about its square
+ * root; when requests start queueing in the thread or connection pool the recent latency rises and the limit shrinks
+ * by the ratio of the two, down to half per step. A request answered with 503 (no database connection in time)
+ * cuts the limit by a tenth. Requests above the limit are rejected at once instead of queueing, so the latency of
+ * admitted requests stays bounded.
+ * <p>
+ * Admitting and releasing a request only touch an atomic counter. Latency samples update the limit under a lock
+ * that is only tried, samples arriving while another one is being applied are skipped.
+ */
+public class GradientConcurrencyLimiter {
+
+    /**
+     * Weight of a sample in the long-term latency, an average over about 600 requests.
+     */
+    private static final double LONG_ALPHA = 2.0 / (600 + 1);
+
+    /**
+     * Weight of a sample in the recent latency, an average over about 10 requests.
+     */
+    private static final double SHORT_ALPHA = 2.0 / (10 + 1);
+
+    /**
+     * Factor the limit is multiplied with when a request was dropped.
+     */
+    private static final double DROP_BACKOFF = 0.9;
+
+    /**
+     * The smallest limit.
+     */
+    private final int minLimit;
+
+    /**
+     * The largest limit.
+     */
+    private final int maxLimit;
+
+    /**
+     * How much the recent latency may exceed the long-term latency before the limit is lowered.
+     */
+    private final double tolerance;
+
+    /**
+     * How far the limit moves towards a new estimate per sample.
+     */
+    private final double smoothing;
+
+    /**
+     * Source of the current time in nanoseconds.
+     */
+    private final LongSupplier clock;
+
+    /**
+     * The number of admitted requests that have not been released.
+     */
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    /**
+     * Lock applying latency samples.
+     */
+    private final ReentrantLock sampleLock = new ReentrantLock();
+
+    /**
+     * The current limit, fractional so that small steps add up.
+     */
+    private volatile double limit;
+
+    /**
+     * Long-term average latency in nanoseconds, 0 before the first sample. Guarded by {@link #sampleLock}.
+     */
+    private double longRtt;
+
+    /**
+     * Recent average latency in nanoseconds. Guarded by {@link #sampleLock}.
+     */
+    private double shortRtt;
+
+    /**
+     * Constructs the limiter.
+     *
+     * @param theProperties The concurrency limit settings.
+     */
+    public GradientConcurrencyLimiter(ConcurrencyLimitProperties theProperties) {
+        this(theProperties, System::nanoTime);
+    }
+
+    GradientConcurrencyLimiter(ConcurrencyLimitProperties theProperties, LongSupplier theClock) {
+        if (theProperties.minLimit() < 1 || theProperties.maxLimit() < theProperties.minLimit()) {
+            throw new IllegalArgumentException("Concurrency limits must satisfy 1 <= min <= max, got: "
+                    + theProperties.minLimit() + " and " + theProperties.maxLimit());
+        }
+        if (theProperties.smoothing() <= 0 || theProperties.smoothing() > 1) {
+            throw new IllegalArgumentException("Smoothing must be in (0, 1], got: " + theProperties.smoothing());
+        }
+        minLimit = theProperties.minLimit();
+        maxLimit = theProperties.maxLimit();
+        tolerance = theProperties.tolerance();
+        smoothing = theProperties.smoothing();
+        limit = Math.max(minLimit, Math.min(maxLimit, theProperties.initialLimit()));
+        clock = theClock;
+    }
+
+    /**
+     * Admits a request if fewer than the limit are in flight.
+     *
+     * @return The permit of the request, to be released when it completes, or null if it is rejected.
+     */
+    public Permit tryAcquire() {
+        int current = inFlight.incrementAndGet();
+        if (current > (int) limit) {
+            inFlight.decrementAndGet();
+            return null;
+        }
+        return new Permit(clock.getAsLong(), current);
+    }
+
+    /**
+     * @return The current limit.
+     */
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * @return The number of admitted requests that have not been released.
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private void onSample(long theRttNanos, int theInFlight, boolean theDropped) {
+        if (!sampleLock.tryLock()) {
+            return;
+        }
+        try {
+            double current = limit;
+            double estimate;
+            if (theDropped) {
+                estimate = current * DROP_BACKOFF;
+            } else {
+                if (longRtt == 0) {
+                    longRtt = theRttNanos;
+                    shortRtt = theRttNanos;
+                }
+                longRtt += (theRttNanos - longRtt) * LONG_ALPHA;
+                shortRtt += (theRttNanos - shortRtt) * SHORT_ALPHA;
+                // after a long overload the long-term latency has risen too, let it recover so the limit can grow
+                if (longRtt > 2 * shortRtt) {
+                    longRtt *= 0.95;
+                }
+                // the limit did not hold this request back, so its latency says nothing about a higher limit
+                if (theInFlight < current / 2) {
+                    return;
+                }
+                double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRtt / shortRtt));
+                estimate = current * gradient + Math.sqrt(current);
+                estimate = current * (1 - smoothing) + estimate * smoothing;
+            }
+            limit = Math.max(minLimit, Math.min(maxLimit, estimate));
+        } finally {
+            sampleLock.unlock();
+        }
+    }
+
+    /**
+     * An admitted request.
+     */
+    public final class Permit {
+
+        /**
+         * The time the request was admitted, in nanoseconds.
+         */
+        private final long start;
+
+        /**
+         * The number of requests in flight when it was admitted, including itself.
+         */
+        private final int inFlightAtStart;
+
+        /**
+         * Whether the permit has been released.
+         */
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(long theStart, int theInFlightAtStart) {
+            start = theStart;
+            inFlightAtStart = theInFlightAtStart;
+        }
+
+        /**
+         * Releases the permit and feeds the request's latency into the limit. Later calls do nothing.
+         *
+         * @param theDropped Whether the request failed because the application was overloaded.
+         */
+        public void release(boolean theDropped) {
+            if (released.compareAndSet(false, true)) {
+                inFlight.decrementAndGet();
+                // at least 1 so that the latency ratio is defined
+                onSample(Math.max(1, clock.getAsLong() - start), inFlightAtStart, theDropped);
+            }
+        }
+    }
+}
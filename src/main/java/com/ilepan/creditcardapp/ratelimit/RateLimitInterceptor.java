@@ -0,0 +1,98 @@
+package com.ilepan.creditcardapp.ratelimit;
+
+import com.ilepan.creditcardapp.exception.ConcurrencyLimitExceededException;
+import com.ilepan.creditcardapp.exception.RateLimitExceededException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.security.Principal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admits requests through the per-client {@link TokenBucketRateLimiter} and then the {@link GradientConcurrencyLimiter},
+ * either of which may be left out. A rejected request never reaches the controller: the thrown exception is turned
+ * into 429 or 503 with <code>Retry-After</code> by the exception handler. The concurrency permit of an admitted request
+ * is held until the request completes, including an asynchronous one.
+ */
+public class RateLimitInterceptor implements AsyncHandlerInterceptor {
+
+    /**
+     * Request attribute holding the concurrency permit of an admitted request.
+     */
+    private static final String PERMIT_ATTRIBUTE = RateLimitInterceptor.class.getName() + ".permit";
+
+    /**
+     * Seconds a client is asked to wait after being shed by the concurrency limit.
+     */
+    private static final long SHED_RETRY_AFTER_SECONDS = 1;
+
+    /**
+     * The per-client rate limit, null if disabled.
+     */
+    private final TokenBucketRateLimiter rateLimiter;
+
+    /**
+     * The concurrency limit, null if disabled.
+     */
+    private final GradientConcurrencyLimiter concurrencyLimiter;
+
+    /**
+     * Constructs the interceptor.
+     *
+     * @param theRateLimiter        The per-client rate limit, null if disabled.
+     * @param theConcurrencyLimiter The concurrency limit, null if disabled.
+     */
+    public RateLimitInterceptor(TokenBucketRateLimiter theRateLimiter,
+                                GradientConcurrencyLimiter theConcurrencyLimiter) {
+        rateLimiter = theRateLimiter;
+        concurrencyLimiter = theConcurrencyLimiter;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getAttribute(PERMIT_ATTRIBUTE) != null) {
+            // dispatched again to complete an asynchronous request that has been admitted already
+            return true;
+        }
+        if (rateLimiter != null) {
+            long waitNanos = rateLimiter.tryAcquire(client(request));
+            if (waitNanos > 0) {
+                throw new RateLimitExceededException("Too many requests, please retry later.",
+                        Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1)));
+            }
+        }
+        if (concurrencyLimiter != null) {
+            GradientConcurrencyLimiter.Permit permit = concurrencyLimiter.tryAcquire();
+            if (permit == null) {
+                throw new ConcurrencyLimitExceededException("The server is busy, please retry later.",
+                        SHED_RETRY_AFTER_SECONDS);
+            }
+            request.setAttribute(PERMIT_ATTRIBUTE, permit);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        if (request.getAttribute(PERMIT_ATTRIBUTE) instanceof GradientConcurrencyLimiter.Permit permit) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            permit.release(response.getStatus() == HttpStatus.SERVICE_UNAVAILABLE.value());
+        }
+    }
+
+    /**
+     * Identifies the client by its authenticated principal, otherwise by its address. Request headers are never used
+     * directly, a client could send a different value with every request and never run out of tokens; the address is
+     * only taken from X-Forwarded-For when the request came through a trusted proxy (server.forward-headers-strategy).
+     *
+     * @param theRequest The request to identify the client of.
+     * @return The key of the client's token bucket.
+     */
+    private static String client(HttpServletRequest theRequest) {
+        Principal principal = theRequest.getUserPrincipal();
+        return principal != null ? "principal:" + principal.getName() : "address:" + theRequest.getRemoteAddr();
+    }
+}
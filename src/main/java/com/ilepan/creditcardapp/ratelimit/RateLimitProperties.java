@@ -0,0 +1,21 @@
+package com.ilepan.creditcardapp.ratelimit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings for the per-client rate limit of the user API, bound from the
+ * <code>creditcardapp.rate-limit.*</code> properties.
+ *
+ * @param enabled           Whether the rate limit is applied.
+ * @param requestsPerSecond The sustained number of requests a client may send per second.
+ * @param burst             The number of requests a client may send at once after being idle.
+ * @param maxClients        The largest number of clients tracked, idle ones are dropped first.
+ */
+@ConfigurationProperties(prefix = "creditcardapp.rate-limit")
+public record RateLimitProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("50") double requestsPerSecond,
+        @DefaultValue("100") int burst,
+        @DefaultValue("100000") long maxClients) {
+}
@@ -0,0 +1,82 @@
+package com.ilepan.creditcardapp.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket per client, refilled at a fixed rate up to the burst size. Each bucket is kept as a single
+ * {@link AtomicLong}, the time at which it would be full again (the generic cell rate algorithm), so admitting a
+ * request is one compare-and-set without locks and without a refill thread. Buckets of clients idle long enough to
+ * be full are dropped.
+ */
+public class TokenBucketRateLimiter {
+
+    /**
+     * The time one token takes to refill, in nanoseconds.
+     */
+    private final long refillNanos;
+
+    /**
+     * The time an empty bucket takes to refill completely, in nanoseconds.
+     */
+    private final long capacityNanos;
+
+    /**
+     * Per client, the {@link #clock} time at which its bucket is full again.
+     */
+    private final Cache<String, AtomicLong> fullAt;
+
+    /**
+     * Source of the current time in nanoseconds.
+     */
+    private final LongSupplier clock;
+
+    /**
+     * Constructs the limiter.
+     *
+     * @param theProperties The rate limit settings.
+     */
+    public TokenBucketRateLimiter(RateLimitProperties theProperties) {
+        this(theProperties, System::nanoTime);
+    }
+
+    TokenBucketRateLimiter(RateLimitProperties theProperties, LongSupplier theClock) {
+        if (theProperties.requestsPerSecond() <= 0 || theProperties.burst() < 1) {
+            throw new IllegalArgumentException("Requests per second and burst must be positive, got: "
+                    + theProperties.requestsPerSecond() + " and " + theProperties.burst());
+        }
+        refillNanos = Math.max(1, (long) (1_000_000_000L / theProperties.requestsPerSecond()));
+        capacityNanos = refillNanos * theProperties.burst();
+        fullAt = Caffeine.newBuilder()
+                .maximumSize(theProperties.maxClients())
+                .expireAfterAccess(Duration.ofNanos(capacityNanos))
+                .build();
+        clock = theClock;
+    }
+
+    /**
+     * Takes a token from the client's bucket.
+     *
+     * @param theClient The client.
+     * @return 0 if a token was taken, otherwise the nanoseconds until the next token is available.
+     */
+    public long tryAcquire(String theClient) {
+        long now = clock.getAsLong();
+        AtomicLong bucket = fullAt.get(theClient, client -> new AtomicLong(now));
+        while (true) {
+            long current = bucket.get();
+            long next = (current - now > 0 ? current : now) + refillNanos;
+            long wait = next - now - capacityNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
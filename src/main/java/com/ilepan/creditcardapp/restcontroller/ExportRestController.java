@@ -0,0 +1,93 @@
+package com.ilepan.creditcardapp.restcontroller;
+
+import com.ilepan.creditcardapp.constants.ImportFormat;
+import com.ilepan.creditcardapp.constants.Profiles;
+import com.ilepan.creditcardapp.constants.StatusEnum;
+import com.ilepan.creditcardapp.dto.BatchExportResult;
+import com.ilepan.creditcardapp.service.BatchExportService;
+import com.ilepan.creditcardapp.service.UserExportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * REST controller for exporting many User entities at once.
+ */
+@Profile(Profiles.NOT_REACTIVE)
+@RestController
+@RequestMapping("/api/export")
+public class ExportRestController {
+
+    /**
+     * Service layer dependency for batch exports.
+     */
+    private BatchExportService batchExportService;
+
+    /**
+     * Service layer dependency for full exports.
+     */
+    private UserExportService userExportService;
+
+    /**
+     * Constructor for creating a new instance of ExportRestController.
+     *
+     * @param theBatchExportService The BatchExportService dependency injected by Spring.
+     * @param theUserExportService The UserExportService dependency injected by Spring.
+     */
+    @Autowired
+    public ExportRestController(BatchExportService theBatchExportService, UserExportService theUserExportService) {
+        batchExportService = theBatchExportService;
+        userExportService = theUserExportService;
+    }
+
+    /**
+     * Writes every User without a generated file into a single batch file for the card processor.
+     *
+     * @param status Optional status value (0 or 1) restricting the export to Users with that status.
+     * @return ResponseEntity containing the batch file name and the number of exported Users.
+     * @throws IllegalArgumentException if the status value is invalid.
+     * @throws IOException if the batch file could not be written.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<BatchExportResult> exportBatch(@RequestParam(required = false) String status)
+            throws IOException {
+        StatusEnum theStatus = status == null ? null : StatusEnum.retrieveStatusValue(status);
+        return ResponseEntity.ok(batchExportService.exportPending(theStatus));
+    }
+
+    /**
+     * Streams every User, ordered by id, as NDJSON or CSV.
+     * The response is written while the rows are read, on an async request thread, so its size is not limited
+     * by the heap and the first rows arrive right away.
+     *
+     * @param format The output format, <code>ndjson</code> (default) or <code>csv</code>.
+     * @return ResponseEntity streaming the Users.
+     * @throws IllegalArgumentException if the format is not supported.
+     */
+    @GetMapping("/users")
+    public ResponseEntity<StreamingResponseBody> exportUsers(@RequestParam(defaultValue = "ndjson") String format) {
+        ImportFormat theFormat = Arrays.stream(ImportFormat.values())
+                .filter(f -> f.name().equalsIgnoreCase(format))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unsupported export format: " + format));
+        StreamingResponseBody body = output -> userExportService.exportAll(theFormat, output);
+        return ResponseEntity.ok()
+                .contentType(new MediaType(MediaType.parseMediaType(theFormat.getMediaType()), StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("users." + theFormat.name().toLowerCase()).build().toString())
+                .body(body);
+    }
+}
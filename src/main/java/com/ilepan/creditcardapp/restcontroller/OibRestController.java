@@ -0,0 +1,53 @@
+package com.ilepan.creditcardapp.restcontroller;
+
+import com.ilepan.creditcardapp.constants.Profiles;
+import com.ilepan.creditcardapp.dto.OibValidationReport;
+import com.ilepan.creditcardapp.service.OibValidationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * REST controller for checking OIBs without storing them.
+ */
+@Profile(Profiles.NOT_REACTIVE)
+@RestController
+@RequestMapping("/api/oib")
+public class OibRestController {
+
+    /**
+     * Service layer dependency for validating many OIBs at once.
+     */
+    private OibValidationService oibValidationService;
+
+    /**
+     * Constructor for creating a new instance of OibRestController.
+     *
+     * @param theOibValidationService The OibValidationService dependency injected by Spring.
+     */
+    @Autowired
+    public OibRestController(OibValidationService theOibValidationService) {
+        oibValidationService = theOibValidationService;
+    }
+
+    /**
+     * Validates a list of OIBs, one per line. The list is streamed and validated in chunks,
+     * so it is never held in memory as a whole.
+     *
+     * @param body The list.
+     * @return ResponseEntity containing the number of OIBs and the zero-based positions of the invalid ones.
+     * @throws IllegalArgumentException if the list holds more OIBs than may be validated at once.
+     * @throws IOException if the list could not be read.
+     */
+    @PostMapping(value = "/validate", consumes = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<OibValidationReport> validate(InputStream body) throws IOException {
+        return ResponseEntity.ok(oibValidationService.validate(body));
+    }
+}
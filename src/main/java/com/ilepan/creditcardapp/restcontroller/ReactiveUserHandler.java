@@ -0,0 +1,203 @@
+package com.ilepan.creditcardapp.restcontroller;
+
+import com.ilepan.creditcardapp.config.JacksonConfig;
+import com.ilepan.creditcardapp.constants.Profiles;
+import com.ilepan.creditcardapp.constants.StatusEnum;
+import com.ilepan.creditcardapp.dto.UserResponse;
+import com.ilepan.creditcardapp.dto.UserSearchCriteria;
+import com.ilepan.creditcardapp.dto.UserStatusUpdate;
+import com.ilepan.creditcardapp.entity.User;
+import com.ilepan.creditcardapp.exception.GlobalExceptionHandler;
+import com.ilepan.creditcardapp.exception.InvalidOibException;
+import com.ilepan.creditcardapp.exception.UserNotFoundException;
+import com.ilepan.creditcardapp.service.ReactiveUserService;
+import com.ilepan.creditcardapp.validator.OibValidator;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.Errors;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Handlers of the functional routes of the reactive stack, mirroring {@link UserRestController}.
+ * Requests are validated with the same {@link OibValidator} and bean constraints, and errors are signalled
+ * with the same exceptions, which {@link UserRoutes} turns into the same responses.
+ */
+@Profile(Profiles.REACTIVE)
+@Component
+public class ReactiveUserHandler {
+
+    /**
+     * Service layer dependency for managing User entities.
+     */
+    private final ReactiveUserService userService;
+
+    /**
+     * Validator object used for checking OIB values.
+     */
+    private final OibValidator oibValidator;
+
+    /**
+     * Validator used for checking the bean constraints of request bodies.
+     */
+    private final SpringValidatorAdapter validator;
+
+    /**
+     * Constructor for creating a new instance of ReactiveUserHandler.
+     *
+     * @param theUserService  The ReactiveUserService dependency injected by Spring.
+     * @param theOibValidator The OibValidator dependency injected by Spring.
+     * @param theValidator    The bean Validator dependency injected by Spring.
+     */
+    public ReactiveUserHandler(ReactiveUserService theUserService, OibValidator theOibValidator,
+                               jakarta.validation.Validator theValidator) {
+        userService = theUserService;
+        oibValidator = theOibValidator;
+        validator = new SpringValidatorAdapter(theValidator);
+    }
+
+    /**
+     * Retrieves a specific user, see {@link UserRestController#getUser(String)}.
+     *
+     * @param theRequest The request with the <code>userOib</code> path variable.
+     * @return The user.
+     */
+    public Mono<ServerResponse> getUser(ServerRequest theRequest) {
+        String userOib = validOib(theRequest);
+        return userService.findByOib(userOib)
+                .switchIfEmpty(Mono.error(() -> new UserNotFoundException("The user with OIB " + userOib + " not found!")))
+                .flatMap(user -> ServerResponse.ok().contentType(responseType(theRequest))
+                        .bodyValue(UserResponse.from(user)));
+    }
+
+    /**
+     * Adds a new User, see {@link UserRestController#addUser(User)}.
+     *
+     * @param theRequest The request with the User as the body.
+     * @return The added User with a 201 Created status, or the validation errors with a 400 Bad Request status.
+     */
+    public Mono<ServerResponse> addUser(ServerRequest theRequest) {
+        return theRequest.bodyToMono(User.class)
+                .flatMap(user -> {
+                    Errors errors = validate(user);
+                    if (errors.hasErrors()) {
+                        return ServerResponse.badRequest().bodyValue(GlobalExceptionHandler.fieldErrors(errors));
+                    }
+                    oibValidator.validateOIB(user.getOib());
+                    return userService.create(user)
+                            .flatMap(created -> ServerResponse.status(HttpStatus.CREATED)
+                                    .contentType(responseType(theRequest))
+                                    .bodyValue(UserResponse.from(created)));
+                });
+    }
+
+    /**
+     * Lists Users one page at a time, see {@link UserRestController#listUsers}.
+     *
+     * @param theRequest The request with the optional filter, cursor and limit parameters.
+     * @return The page of Users.
+     */
+    public Mono<ServerResponse> listUsers(ServerRequest theRequest) {
+        StatusEnum status = theRequest.queryParam("status").map(StatusEnum::retrieveStatusValue).orElse(null);
+        Boolean fileGenerated = theRequest.queryParam("fileGenerated").map(Boolean::valueOf).orElse(null);
+        int limit = theRequest.queryParam("limit").map(ReactiveUserHandler::parseLimit).orElse(100);
+        UserSearchCriteria criteria = new UserSearchCriteria(status,
+                theRequest.queryParam("lastNamePrefix").orElse(null), fileGenerated);
+        return userService.search(criteria, theRequest.queryParam("cursor").orElse(null), limit)
+                .flatMap(page -> ServerResponse.ok().contentType(responseType(theRequest)).bodyValue(page));
+    }
+
+    /**
+     * Deletes a specific User, see {@link UserRestController#deleteUser(String)}.
+     *
+     * @param theRequest The request with the <code>userOib</code> path variable.
+     * @return The confirmation message.
+     */
+    public Mono<ServerResponse> deleteUser(ServerRequest theRequest) {
+        String userOib = validOib(theRequest);
+        return userService.deleteByOib(userOib)
+                .flatMap(deleted -> deleted == 0
+                        ? Mono.error(new UserNotFoundException("User with OIB: " + userOib + " not found."))
+                        : ServerResponse.ok().bodyValue("User with OIB: " + userOib + " has been deleted."));
+    }
+
+    /**
+     * Changes the status of a User, see {@link UserRestController#updateStatus}.
+     *
+     * @param theRequest The request with the <code>userOib</code> path variable, the new status as the body
+     *                   and an optional <code>If-Match</code> header.
+     * @return The updated User and its new version as the ETag.
+     */
+    public Mono<ServerResponse> updateStatus(ServerRequest theRequest) {
+        String userOib = validOib(theRequest);
+        // the header may be repeated, each line holding part of the list
+        List<String> ifMatch = theRequest.headers().header(HttpHeaders.IF_MATCH);
+        Set<Long> expectedVersions = UserRestController.parseIfMatch(ifMatch.isEmpty() ? null : String.join(",", ifMatch));
+        return theRequest.bodyToMono(UserStatusUpdate.class)
+                .flatMap(statusUpdate -> {
+                    Errors errors = validate(statusUpdate);
+                    if (errors.hasErrors()) {
+                        return ServerResponse.badRequest().bodyValue(GlobalExceptionHandler.fieldErrors(errors));
+                    }
+                    return userService.updateStatus(userOib, statusUpdate.status(), expectedVersions)
+                            .flatMap(user -> ServerResponse.ok()
+                                    .eTag(Long.toString(user.getVersion()))
+                                    .contentType(responseType(theRequest))
+                                    .bodyValue(UserResponse.from(user)));
+                });
+    }
+
+    /**
+     * Reads and validates the <code>userOib</code> path variable.
+     *
+     * @throws InvalidOibException if the OIB is invalid.
+     */
+    private String validOib(ServerRequest theRequest) {
+        String userOib = theRequest.pathVariable("userOib");
+        oibValidator.validateOIB(userOib);
+        return userOib;
+    }
+
+    /**
+     * Checks the bean constraints of a request body.
+     */
+    private Errors validate(Object theBody) {
+        Errors errors = new BeanPropertyBindingResult(theBody, theBody.getClass().getSimpleName());
+        validator.validate(theBody, errors);
+        return errors;
+    }
+
+    /**
+     * Picks JSON or Smile for a response body by the <code>Accept</code> header. Functional endpoints write with
+     * the first codec supporting the response's content type, so without this every response would be JSON.
+     */
+    private static MediaType responseType(ServerRequest theRequest) {
+        MediaType selected = MediaType.APPLICATION_JSON;
+        double quality = -1;
+        for (MediaType accepted : theRequest.headers().accept()) {
+            boolean json = accepted.isCompatibleWith(MediaType.APPLICATION_JSON);
+            if (accepted.getQualityValue() > quality && (json || accepted.isCompatibleWith(JacksonConfig.SMILE))) {
+                selected = json ? MediaType.APPLICATION_JSON : JacksonConfig.SMILE;
+                quality = accepted.getQualityValue();
+            }
+        }
+        return selected;
+    }
+
+    private static int parseLimit(String theLimit) {
+        try {
+            return Integer.parseInt(theLimit);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid limit: " + theLimit);
+        }
+    }
+}
@@ -1,29 +1,79 @@
 package com.ilepan.creditcardapp.restcontroller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ilepan.creditcardapp.config.FileGenerationProperties;
+import com.ilepan.creditcardapp.constants.ImportFormat;
+import com.ilepan.creditcardapp.constants.Profiles;
+import com.ilepan.creditcardapp.constants.StatusEnum;
+import com.ilepan.creditcardapp.dto.FileGenerationJob;
+import com.ilepan.creditcardapp.dto.UserImportReport;
+import com.ilepan.creditcardapp.dto.UserPage;
+import com.ilepan.creditcardapp.dto.UserResponse;
+import com.ilepan.creditcardapp.dto.UserSearchCriteria;
+import com.ilepan.creditcardapp.dto.UserStatusUpdate;
 import com.ilepan.creditcardapp.entity.User;
+import com.ilepan.creditcardapp.exception.GenerationJobNotFoundException;
+import com.ilepan.creditcardapp.exception.IdempotencyKeyInProgressException;
+import com.ilepan.creditcardapp.exception.IdempotencyKeyMismatchException;
 import com.ilepan.creditcardapp.exception.InvalidOibException;
+import com.ilepan.creditcardapp.exception.PreconditionFailedException;
 import com.ilepan.creditcardapp.exception.UserAlreadyExistsException;
 import com.ilepan.creditcardapp.exception.UserNotFoundException;
+import com.ilepan.creditcardapp.service.FileGenerationService;
+import com.ilepan.creditcardapp.service.IdempotencyService;
+import com.ilepan.creditcardapp.service.UserImportParser;
 import com.ilepan.creditcardapp.service.UserService;
 import com.ilepan.creditcardapp.validator.OibValidator;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.net.URI;
 import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Path;
+import java.util.HashSet;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * REST controller for handling CRUD operations related to User entities.
  * Exposes endpoints for retrieving, adding, updating, and deleting users.
  */
+@Profile(Profiles.NOT_REACTIVE)
 @RestController
 @RequestMapping("/api")
 public class UserRestController {
 
+    /**
+     * Request header holding a key chosen by the client, under which the response of <code>POST /api/user</code>
+     * is replayed to retries.
+     */
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
+    /**
+     * Response header marking a response replayed for an {@link #IDEMPOTENCY_KEY}.
+     */
+    public static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+
+    /**
+     * One ETag of an <code>If-Match</code> list: <code>W/</code> for a weak one, the quoted value, and the comma
+     * before the next ETag or the end of the header.
+     */
+    private static final Pattern IF_MATCH_ELEMENT = Pattern.compile("\\s*(W/)?\"([^\"]*)\"\\s*(?:(,)|$)");
+
     /**
      * Service layer dependency for managing User entities.
      */
@@ -34,16 +84,47 @@ public class UserRestController {
      */
     private OibValidator oibValidator;
 
+    /**
+     * Parser used for reading bulk import payloads.
+     */
+    private UserImportParser userImportParser;
+
+    /**
+     * Service layer dependency for generating User files.
+     */
+    private FileGenerationService fileGenerationService;
+
+    /**
+     * Service layer dependency for replaying the responses of retried requests.
+     */
+    private IdempotencyService idempotencyService;
+
+    /**
+     * The directory generated files are written to, as configured.
+     */
+    private Path outputDirectory;
+
     /**
      * Constructor for creating a new instance of UserRestController.
      *
      * @param theUserService The UserService dependency injected by Spring.
       * @param theOibValidator The OibValidator dependency injected by Spring.
+      * @param theObjectMapper The ObjectMapper dependency injected by Spring.
+      * @param theFileGenerationService The FileGenerationService dependency injected by Spring.
+      * @param theIdempotencyService The IdempotencyService dependency injected by Spring.
+      * @param theFileGenerationProperties The file generation settings, naming the output directory in responses.
      */
      @Autowired
-     public UserRestController(UserService theUserService, OibValidator theOibValidator) {
+     public UserRestController(UserService theUserService, OibValidator theOibValidator, ObjectMapper theObjectMapper,
+                               FileGenerationService theFileGenerationService,
+                               IdempotencyService theIdempotencyService,
+                               FileGenerationProperties theFileGenerationProperties) {
         userService = theUserService;
         oibValidator = theOibValidator;
+        userImportParser = new UserImportParser(theObjectMapper);
+        fileGenerationService = theFileGenerationService;
+        idempotencyService = theIdempotencyService;
+        outputDirectory = theFileGenerationProperties.outputDir();
      }
 
     /**
@@ -55,31 +136,118 @@ public class UserRestController {
      * @throws UserNotFoundException if the user with the provided OIB was not found.
      */
     @GetMapping("/user/{userOib}")
-    public ResponseEntity<User> getUser(@PathVariable String userOib) {
+    public ResponseEntity<UserResponse> getUser(@PathVariable String userOib) {
         oibValidator.validateOIB(userOib);
-        User theUser = userService
+        UserResponse theUser = userService
                 .findByOib(userOib)
                 .orElseThrow(() -> new UserNotFoundException("The user with OIB " + userOib + " not found!"));
         return ResponseEntity.ok(theUser);
     }
 
     /**
-     * Adds a new User to the database.
+     * Adds a new User to the database. With an <code>Idempotency-Key</code> header, a retry of a request that has
+     * succeeded gets the original response, marked with <code>Idempotent-Replayed: true</code>, without the OIB
+     * being validated or looked up again.
      *
+     * @param idempotencyKey Optional key chosen by the client, the same for all retries of a request.
      * @param theUser The User object to be added.
      * @return ResponseEntity containing the added User entity.
+     * @throws InvalidOibException if the provided OIB is invalid.
+     * @throws UserAlreadyExistsException if a User with the same OIB already exists.
+     * @throws IdempotencyKeyInProgressException if the first request with the key is still being processed.
+     * @throws IdempotencyKeyMismatchException if the key was first used for a different User.
      */
     @PostMapping("/user")
-    public ResponseEntity<User> addUser(@RequestBody @Valid User theUser) {
+    public ResponseEntity<UserResponse> addUser(@RequestHeader(value = IDEMPOTENCY_KEY, required = false)
+                                                String idempotencyKey,
+                                                @RequestBody @Valid User theUser) {
+        if (idempotencyKey == null) {
+            return new ResponseEntity<>(create(theUser), HttpStatus.CREATED);
+        }
+        Optional<UserResponse> replayed = idempotencyService.begin(idempotencyKey, theUser);
+        if (replayed.isPresent()) {
+            return ResponseEntity.status(HttpStatus.CREATED).header(IDEMPOTENT_REPLAYED, "true").body(replayed.get());
+        }
+        UserResponse response;
+        try {
+            response = create(theUser);
+        } catch (RuntimeException e) {
+            idempotencyService.abort(idempotencyKey);
+            throw e;
+        }
+        idempotencyService.complete(idempotencyKey, theUser, response);
+        return new ResponseEntity<>(response, HttpStatus.CREATED);
+    }
+
+    private UserResponse create(User theUser) {
         oibValidator.validateOIB(theUser.getOib());
-        Optional<User> existingUser = userService.findByOib(theUser.getOib());
-        if (existingUser.isPresent()) {
-            throw new UserAlreadyExistsException("User with OIB: " + theUser.getOib() + " already exists.");
+        return UserResponse.from(userService.create(theUser));
+    }
+
+    /**
+     * Changes the status of a User. With an <code>If-Match</code> header holding the version (ETag) the change
+     * is based on, or a list of them, the change fails if the User is at none of those versions. <code>*</code>
+     * matches any version. Weak ETags never match, as If-Match compares ETags strongly.
+     *
+     * @param userOib      The unique identifier of the user.
+     * @param ifMatch      Optional ETags of the versions the change may be based on.
+     * @param statusUpdate The new status.
+     * @return ResponseEntity containing the updated User and its new version as the ETag.
+     * @throws InvalidOibException   if the provided OIB is invalid.
+     * @throws UserNotFoundException if the user with the provided OIB was not found.
+     * @throws IllegalArgumentException if the If-Match header is malformed.
+     * @throws PreconditionFailedException if the If-Match header holds weak ETags only.
+     * @throws OptimisticLockingFailureException if the User has been changed since the given version,
+     *                                           or concurrently.
+     */
+    @PatchMapping("/user/{userOib}/status")
+    public ResponseEntity<UserResponse> updateStatus(@PathVariable String userOib,
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                             @RequestBody @Valid UserStatusUpdate statusUpdate) {
+        oibValidator.validateOIB(userOib);
+        User user = userService.updateStatus(userOib, statusUpdate.status(), parseIfMatch(ifMatch));
+        return ResponseEntity.ok().eTag(Long.toString(user.getVersion())).body(UserResponse.from(user));
+    }
+
+    /**
+     * Lists Users one page at a time, ordered by id. Pass the returned <code>nextCursor</code> as the
+     * <code>cursor</code> of the next request, until it is null.
+     *
+     * @param status         Optional status value (0 or 1).
+     * @param lastNamePrefix Optional prefix of the last name, case-sensitive.
+     * @param fileGenerated  Optional, true for Users with a generated file, false for Users without one.
+     * @param cursor         The cursor of the page, omitted for the first page.
+     * @param limit          The maximum number of Users on the page, 100 by default and at most 1000.
+     * @return ResponseEntity containing the page of Users.
+     * @throws IllegalArgumentException if the status, the cursor or the limit is invalid.
+     */
+    @GetMapping("/users")
+    public ResponseEntity<UserPage> listUsers(@RequestParam(required = false) String status,
+                                              @RequestParam(required = false) String lastNamePrefix,
+                                              @RequestParam(required = false) Boolean fileGenerated,
+                                              @RequestParam(required = false) String cursor,
+                                              @RequestParam(defaultValue = "100") int limit) {
+        StatusEnum theStatus = status == null ? null : StatusEnum.retrieveStatusValue(status);
+        UserSearchCriteria criteria = new UserSearchCriteria(theStatus, lastNamePrefix, fileGenerated);
+        return ResponseEntity.ok(userService.search(criteria, cursor, limit));
+    }
+
+    /**
+     * Imports many Users at once from an NDJSON or CSV payload.
+     * The payload is streamed and processed in chunks, so its size is not limited by the heap.
+     *
+     * @param contentType The content type of the payload, either application/x-ndjson or text/csv.
+     * @param body The payload stream.
+     * @return ResponseEntity containing the number of imported and rejected rows, and the rejected rows.
+     * @throws IllegalArgumentException if the content type is not supported.
+     */
+    @PostMapping(value = "/users/batch", consumes = {"application/x-ndjson", "text/csv"})
+    public ResponseEntity<UserImportReport> importUsers(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                        InputStream body) throws IOException {
+        ImportFormat format = ImportFormat.fromContentType(contentType);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            return ResponseEntity.ok(userService.importUsers(userImportParser.parse(reader, format)));
         }
-        // if user passes an id in json, id should be set to 0, to force a 'save' of a new User (instead of update)
-        theUser.setId(0);
-        User dbUser = userService.save(theUser);
-        return new ResponseEntity<>(dbUser, HttpStatus.CREATED);
     }
 
     /**
@@ -93,11 +261,9 @@ public class UserRestController {
     @DeleteMapping("/user/{userOib}")
     public ResponseEntity<String> deleteUser(@PathVariable String userOib) {
         oibValidator.validateOIB(userOib);
-        Optional<User> tempUser = userService.findByOib(userOib);
-        if (tempUser.isEmpty()) {
+        if (userService.deleteByOib(userOib) == 0) {
             throw new UserNotFoundException("User with OIB: " + userOib + " not found.");
         }
-        userService.deleteByOib(userOib);
         String responseMessage = "User with OIB: " + userOib + " has been deleted.";
         return ResponseEntity.ok(responseMessage);
     }
@@ -111,23 +277,97 @@ public class UserRestController {
    @GetMapping("/generate/{userOib}")
     public ResponseEntity<String> generateFile(@PathVariable String userOib) throws FileAlreadyExistsException {
        oibValidator.validateOIB(userOib);
-       User theUser = userService
+       UserResponse theUser = userService
                .findByOib(userOib)
                .orElseThrow(() -> new UserNotFoundException("The user with OIB " + userOib + " not found!"));
 
-       if (theUser.getFileName() != null && !theUser.getFileName().isEmpty()) {
+       if (theUser.fileName() != null && !theUser.fileName().isEmpty()) {
            throw new FileAlreadyExistsException(
-                   "Active file already exists with file name: " + theUser.getFileName());
+                   "Active file already exists with file name: " + theUser.fileName());
        }
        try {
-           String filename = userService.generateFile(theUser);
-           theUser.setFileName(filename);
-           userService.save(theUser);
-           return ResponseEntity.ok("File: " + filename + " saved in the working app directory!");
+           String filename = fileGenerationService.generate(theUser);
+           return ResponseEntity.ok("File: " + filename + " saved in directory: " + outputDirectory + "!");
+       } catch (FileAlreadyExistsException e) {
+           // claimed by a concurrent generation since the check above
+           throw e;
+       } catch (UserNotFoundException e) {
+           // deleted concurrently since the lookup above
+           throw e;
        } catch (IOException e) {
            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("File generation failed due to an I/O error.");
        } catch (RuntimeException e) {
            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("File generation failed due to an unexpected error.");
        }
    }
+
+    /**
+     * Queues asynchronous generation of a file for the provided OIB.
+     * The file is written by a bounded worker pool, so the request thread does not wait for disk I/O.
+     *
+     * @param userOib The unique identifier of the user for whom the file is generated.
+     * @return ResponseEntity with a 202 Accepted status, the queued job and its status URL in the Location header.
+     * @throws InvalidOibException   if the provided OIB is invalid.
+     * @throws UserNotFoundException if the user with the provided OIB was not found.
+     * @throws FileAlreadyExistsException if the user already has an active file.
+     */
+    @GetMapping(value = "/generate/{userOib}", params = "async=true")
+    public ResponseEntity<FileGenerationJob> generateFileAsync(@PathVariable String userOib)
+            throws FileAlreadyExistsException {
+        oibValidator.validateOIB(userOib);
+        UserResponse theUser = userService
+                .findByOib(userOib)
+                .orElseThrow(() -> new UserNotFoundException("The user with OIB " + userOib + " not found!"));
+        FileGenerationJob job = fileGenerationService.submit(theUser);
+        return ResponseEntity.accepted().location(URI.create("/api/generate/jobs/" + job.jobId())).body(job);
+    }
+
+    /**
+     * Retrieves the status of an asynchronous file generation job.
+     *
+     * @param jobId The unique identifier of the job.
+     * @return ResponseEntity containing the job.
+     * @throws GenerationJobNotFoundException if the job was not found.
+     */
+    @GetMapping("/generate/jobs/{jobId}")
+    public ResponseEntity<FileGenerationJob> getGenerationJob(@PathVariable UUID jobId) {
+        return ResponseEntity.ok(fileGenerationService.findJob(jobId));
+    }
+
+    /**
+     * Parses an <code>If-Match</code> header into the User versions it accepts. Weak ETags are skipped, they
+     * never match under the strong comparison If-Match requires, and so are strong ETags that are not a version,
+     * since no version of the User carries them.
+     *
+     * @param theIfMatch The header, or null.
+     * @return The accepted versions, or null to accept any version (no header, or <code>*</code>).
+     * @throws IllegalArgumentException if the header is not a comma-separated list of quoted ETags.
+     * @throws PreconditionFailedException if no ETag of the header is a version.
+     */
+    static Set<Long> parseIfMatch(String theIfMatch) {
+        if (theIfMatch == null || theIfMatch.strip().equals("*")) {
+            return null;
+        }
+        Set<Long> versions = new HashSet<>();
+        Matcher element = IF_MATCH_ELEMENT.matcher(theIfMatch);
+        int position = 0;
+        do {
+            if (!element.region(position, theIfMatch.length()).lookingAt()) {
+                throw new IllegalArgumentException("Invalid If-Match header: " + theIfMatch);
+            }
+            if (element.group(1) == null) {
+                try {
+                    versions.add(Long.parseLong(element.group(2)));
+                } catch (NumberFormatException e) {
+                    // a well-formed ETag of no version, it cannot match
+                }
+            }
+            position = element.end();
+            // after a comma another ETag must follow, a trailing comma does not match at the end of the header
+        } while (element.group(3) != null);
+        if (versions.isEmpty()) {
+            throw new PreconditionFailedException("No ETag of If-Match is a version, send the ETag of the version.");
+        }
+        return versions;
+    }
 }
@@ -0,0 +1,51 @@
+package com.ilepan.creditcardapp.restcontroller;
+
+import com.ilepan.creditcardapp.constants.Profiles;
+import com.ilepan.creditcardapp.exception.ReactiveExceptionResolver;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.contentType;
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+/**
+ * Functional routes of the reactive stack, serving the same <code>/api</code> endpoints for single Users
+ * and the listing as {@link UserRestController}.
+ */
+@Profile(Profiles.REACTIVE)
+@Configuration
+public class UserRoutes {
+
+    /**
+     * Creates the routes.
+     *
+     * @param theHandler           The handlers of the routes.
+     * @param theExceptionResolver Turns exceptions into the responses of {@code GlobalExceptionHandler}.
+     * @return The routes.
+     */
+    @Bean
+    public RouterFunction<ServerResponse> userRouterFunction(ReactiveUserHandler theHandler,
+                                                             ReactiveExceptionResolver theExceptionResolver) {
+        return route()
+                .path("/api", builder -> builder
+                        .GET("/user/{userOib}", theHandler::getUser)
+                        .POST("/user", contentType(MediaType.APPLICATION_JSON), theHandler::addUser)
+                        .PATCH("/user/{userOib}/status", contentType(MediaType.APPLICATION_JSON),
+                                theHandler::updateStatus)
+                        .DELETE("/user/{userOib}", theHandler::deleteUser)
+                        .GET("/users", theHandler::listUsers))
+                // exceptions thrown by the handlers themselves and signalled by the publishers they return
+                .filter((request, next) -> {
+                    try {
+                        return next.handle(request).onErrorResume(theExceptionResolver::resolve);
+                    } catch (RuntimeException e) {
+                        return theExceptionResolver.resolve(e);
+                    }
+                })
+                .build();
+    }
+}
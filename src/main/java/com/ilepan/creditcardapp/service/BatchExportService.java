@@ -0,0 +1,23 @@
+package com.ilepan.creditcardapp.service;
+
+import com.ilepan.creditcardapp.constants.StatusEnum;
+import com.ilepan.creditcardapp.dto.BatchExportResult;
+
+import java.io.IOException;
+
+/**
+ * Service interface for exporting many Users into a single batch file for the card processor.
+ */
+public interface BatchExportService {
+
+    /**
+     * Exports every User without a generated file into one batch file, and records the batch file name on them.
+     * The file starts with a header line and ends with a trailer line holding the number of exported Users.
+     *
+     * @param theStatus Only Users with this status are exported, or all statuses if null.
+     * @return The name of the written file and the number of exported Users.
+     * @throws IOException if an I/O error occurs while writing the file, in which case the claimed Users are
+     *                     released again.
+     */
+    BatchExportResult exportPending(StatusEnum theStatus) throws IOException;
+}
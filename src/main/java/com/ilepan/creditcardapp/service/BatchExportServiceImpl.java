@@ -0,0 +1,219 @@
+package com.ilepan.creditcardapp.service;
+
+import com.ilepan.creditcardapp.config.CacheConfig;
+import com.ilepan.creditcardapp.config.FileGenerationProperties;
+import com.ilepan.creditcardapp.config.ReadReplicaDataSource;
+import com.ilepan.creditcardapp.constants.Profiles;
+import com.ilepan.creditcardapp.constants.StatusEnum;
+import com.ilepan.creditcardapp.dao.UserRepository;
+import com.ilepan.creditcardapp.dto.BatchExportResult;
+import com.ilepan.creditcardapp.dto.UserSummary;
+import com.ilepan.creditcardapp.config.MetricsConfig;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class provides the implementation of the {@link BatchExportService} interface.
+ * Eligible Users are first claimed for the batch with one bulk UPDATE, which closes the window
+ * in which a User could be exported twice or created between reading and marking.
+ * The claim is committed right away, so its locks do not block writes of other Users for the
+ * duration of the export. The claimed Users are then read back by their batch file name in keyset
+ * pages of projections, in a read-only transaction on the primary, and written through a buffered
+ * writer to a temporary file, which is moved into place once complete. If writing fails, the claim
+ * is released again, so no User is left marked with a file that was not published.
+ */
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true)
+@Profile(Profiles.NOT_REACTIVE)
+@Service
+public class BatchExportServiceImpl implements BatchExportService {
+
+    /**
+     * Logger for the BatchExportServiceImpl class.
+     */
+    private static final Logger log = LoggerFactory.getLogger(BatchExportServiceImpl.class);
+
+    /** Record type of the first line of a batch file. */
+    static final String HEADER = "HDR";
+
+    /** Record type of the last line of a batch file. */
+    static final String TRAILER = "TRL";
+
+    /**
+     * The repository for interacting with user data.
+     */
+    private final UserRepository userRepository;
+
+    /**
+     * Template the claim and its release are run in their own short transactions with.
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Template the claimed Users are read back in a read-only transaction with.
+     */
+    private final TransactionTemplate readTransactionTemplate;
+
+    /**
+     * The directory batch files are written to.
+     */
+    private final Path outputDirectory;
+
+    /**
+     * The number of Users read per page.
+     */
+    private final int pageSize;
+
+    /**
+     * Latency of writing a batch file.
+     */
+    private final Timer fileWriteTimer;
+
+    /**
+     * Size of the written batch files in bytes.
+     */
+    private final DistributionSummary fileSizeSummary;
+
+    /**
+     * Constructor for creating a new instance of BatchExportServiceImpl.
+     *
+     * @param theUserRepository The userRepository dependency injected by Spring.
+     * @param theTransactionManager Manager of the transactions the export is run in.
+     * @param theProperties The file generation settings.
+     * @param thePageSize The number of Users read per page.
+     * @param theMeterRegistry The registry file write metrics are recorded in.
+     */
+    public BatchExportServiceImpl(UserRepository theUserRepository, PlatformTransactionManager theTransactionManager,
+                                  FileGenerationProperties theProperties,
+                                  @Value("${creditcardapp.export.page-size:1000}") int thePageSize,
+                                  MeterRegistry theMeterRegistry) {
+        userRepository = theUserRepository;
+        transactionTemplate = new TransactionTemplate(theTransactionManager);
+        readTransactionTemplate = new TransactionTemplate(theTransactionManager);
+        readTransactionTemplate.setReadOnly(true);
+        outputDirectory = theProperties.outputDir();
+        pageSize = thePageSize;
+        fileWriteTimer = Timer.builder(MetricsConfig.FILE_WRITE_TIMER)
+                .description("Time to write a generated file")
+                .tag("type", "batch")
+                .publishPercentileHistogram()
+                .register(theMeterRegistry);
+        fileSizeSummary = DistributionSummary.builder(MetricsConfig.FILE_SIZE_SUMMARY)
+                .description("Size of generated files")
+                .baseUnit("bytes")
+                .tag("type", "batch")
+                .publishPercentileHistogram()
+                .register(theMeterRegistry);
+    }
+
+    // claimed Users may be cached without their file name
+    @CacheEvict(cacheNames = CacheConfig.USERS_BY_OIB, allEntries = true)
+    @Override
+    public BatchExportResult exportPending(StatusEnum theStatus) throws IOException {
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmssSSS"));
+        String fileName = "batch_" + timestamp + ".txt";
+        Files.createDirectories(outputDirectory);
+        int claimed = transactionTemplate.execute(status -> theStatus == null
+                ? userRepository.claimForBatch(fileName)
+                : userRepository.claimForBatch(fileName, theStatus.getStatusValue()));
+        if (claimed == 0) {
+            log.atInfo().addKeyValue("status", theStatus).log("No Users eligible for batch export");
+            return new BatchExportResult(null, 0);
+        }
+
+        Path partFile = outputDirectory.resolve(fileName + ".part");
+        int exported;
+        Path file;
+        long start = System.nanoTime();
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(partFile, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                writeLine(writer, HEADER, fileName, timestamp);
+                // the claim has just been committed on the primary, a replica may not have it yet
+                exported = ReadReplicaDataSource.readFromPrimary(() -> readTransactionTemplate.execute(status -> {
+                    try {
+                        return writeUsers(writer, fileName);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }));
+                writeLine(writer, TRAILER, Integer.toString(exported));
+            }
+            file = Files.move(partFile, outputDirectory.resolve(fileName), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(partFile);
+            int released = transactionTemplate.execute(status -> userRepository.releaseBatch(fileName));
+            log.atWarn().addKeyValue("file", fileName).addKeyValue("released", released)
+                    .log("Batch file could not be written, claim released");
+            if (e instanceof UncheckedIOException unchecked) {
+                throw unchecked.getCause();
+            }
+            throw e;
+        }
+        // includes reading the claimed Users, which is interleaved with writing them
+        fileWriteTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        fileSizeSummary.record(Files.size(file));
+        log.atInfo().addKeyValue("file", fileName).addKeyValue("exported", exported).log("Batch file generated");
+        return new BatchExportResult(fileName, exported);
+    }
+
+    /**
+     * Writes every User claimed for the batch, one keyset page at a time.
+     *
+     * @param theWriter The writer of the batch file.
+     * @param theFileName The name of the batch file the Users were claimed for.
+     * @return The number of written Users.
+     * @throws IOException if an I/O error occurs.
+     */
+    private int writeUsers(Writer theWriter, String theFileName) throws IOException {
+        int written = 0;
+        int afterId = 0;
+        List<UserSummary> page;
+        do {
+            page = userRepository.findByFileNameAfter(theFileName, afterId, PageRequest.ofSize(pageSize));
+            for (UserSummary user : page) {
+                writeLine(theWriter, user.firstName(), user.lastName(), user.oib(),
+                        StatusEnum.retrieveStatusValue(user.status()).toString());
+            }
+            written += page.size();
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1).id();
+            }
+        } while (page.size() == pageSize);
+        return written;
+    }
+
+    private static void writeLine(Writer theWriter, String... theFields) throws IOException {
+        for (int i = 0; i < theFields.length; i++) {
+            if (i > 0) {
+                theWriter.write(',');
+            }
+            theWriter.write(theFields[i]);
+        }
+        theWriter.write('\n');
+    }
+}
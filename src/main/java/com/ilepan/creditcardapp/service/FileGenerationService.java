@@ -0,0 +1,46 @@
+package com.ilepan.creditcardapp.service;
+
+import com.ilepan.creditcardapp.dto.FileGenerationJob;
+import com.ilepan.creditcardapp.dto.UserResponse;
+import com.ilepan.creditcardapp.exception.GenerationJobNotFoundException;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.util.UUID;
+
+/**
+ * Service interface for generating User files, either on the calling thread or as asynchronous jobs.
+ */
+public interface FileGenerationService {
+
+    /**
+     * Generates the file for the given User on the calling thread and records its name in the database.
+     * The name is claimed before the file is written, and released again if writing fails.
+     *
+     * @param theUser The User whose details are written to the file.
+     * @return The name of the generated file.
+     * @throws FileAlreadyExistsException if the User already has a file, including one claimed concurrently.
+     * @throws IOException if an I/O error occurs during file creation or writing.
+     */
+    String generate(UserResponse theUser) throws IOException;
+
+    /**
+     * Queues an asynchronous job generating the file for the given User.
+     *
+     * @param theUser The User whose details are written to the file.
+     * @return The queued job.
+     * @throws FileAlreadyExistsException if the User already has an active file.
+     * @throws TaskRejectedException if the job queue is full.
+     */
+    FileGenerationJob submit(UserResponse theUser) throws FileAlreadyExistsException;
+
+    /**
+     * Retrieves the current state of an asynchronous job.
+     *
+     * @param theJobId The unique identifier of the job.
+     * @return The job.
+     * @throws GenerationJobNotFoundException if no job with the given id is retained.
+     */
+    FileGenerationJob findJob(UUID theJobId);
+}
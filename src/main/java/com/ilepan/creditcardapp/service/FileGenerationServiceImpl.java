@@ -0,0 +1,144 @@
+package com.ilepan.creditcardapp.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ilepan.creditcardapp.config.FileGenerationConfig;
+import com.ilepan.creditcardapp.config.FileGenerationProperties;
+import com.ilepan.creditcardapp.constants.Profiles;
+import com.ilepan.creditcardapp.dto.FileGenerationJob;
+import com.ilepan.creditcardapp.dto.UserResponse;
+import com.ilepan.creditcardapp.exception.GenerationJobNotFoundException;
+import com.ilepan.creditcardapp.exception.UserNotFoundException;
+import com.ilepan.creditcardapp.config.MetricsConfig;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.util.UUID;
+
+/**
+ * This class provides the implementation of the {@link FileGenerationService} interface.
+ * Asynchronous jobs run on the bounded {@link FileGenerationConfig#FILE_GENERATION_EXECUTOR} pool,
+ * and their status is kept in memory for the configured retention period.
+ */
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true)
+@Profile(Profiles.NOT_REACTIVE)
+@Service
+public class FileGenerationServiceImpl implements FileGenerationService {
+
+    /**
+     * Logger for the FileGenerationServiceImpl class.
+     */
+    private static final Logger log = LoggerFactory.getLogger(FileGenerationServiceImpl.class);
+
+    /**
+     * The upper bound of retained job statuses.
+     */
+    static final int MAX_RETAINED_JOBS = 100_000;
+
+    /**
+     * Service used for reading Users, writing files and recording file names.
+     */
+    private final UserService userService;
+
+    /**
+     * Executor running asynchronous jobs.
+     */
+    private final TaskExecutor executor;
+
+    /**
+     * Statuses of submitted jobs, keyed by job id.
+     */
+    private final Cache<UUID, FileGenerationJob> jobs;
+
+    /**
+     * Constructor for creating a new instance of FileGenerationServiceImpl.
+     *
+     * @param theUserService The UserService dependency injected by Spring.
+     * @param theExecutor The executor running asynchronous jobs.
+     * @param theProperties The file generation settings.
+     */
+    public FileGenerationServiceImpl(UserService theUserService,
+                                     @Qualifier(FileGenerationConfig.FILE_GENERATION_EXECUTOR) TaskExecutor theExecutor,
+                                     FileGenerationProperties theProperties) {
+        userService = theUserService;
+        executor = theExecutor;
+        jobs = Caffeine.newBuilder()
+                .maximumSize(MAX_RETAINED_JOBS)
+                .expireAfterWrite(theProperties.jobRetention())
+                .build();
+    }
+
+    @Override
+    public String generate(UserResponse theUser) throws IOException {
+        // claimed before the file is written, so that concurrent generations for the same User write one file
+        String filename = userService.claimFile(theUser.oib());
+        try {
+            userService.generateFile(theUser, filename);
+        } catch (IOException | RuntimeException e) {
+            userService.releaseFile(theUser.oib(), filename);
+            throw e;
+        }
+        return filename;
+    }
+
+    @Override
+    public FileGenerationJob submit(UserResponse theUser) throws FileAlreadyExistsException {
+        ensureNoActiveFile(theUser);
+        FileGenerationJob job = FileGenerationJob.queued(theUser.oib());
+        jobs.put(job.jobId(), job);
+        try {
+            executor.execute(() -> run(job.jobId(), job.oib()));
+        } catch (TaskRejectedException e) {
+            jobs.invalidate(job.jobId());
+            log.atWarn().addKeyValue("oib", job.oib()).log("File generation queue is full, job rejected");
+            throw e;
+        }
+        log.atInfo().addKeyValue("jobId", job.jobId()).addKeyValue("oib", job.oib()).log("Queued file generation job");
+        return job;
+    }
+
+    @Override
+    public FileGenerationJob findJob(UUID theJobId) {
+        FileGenerationJob job = jobs.getIfPresent(theJobId);
+        if (job == null) {
+            throw new GenerationJobNotFoundException("File generation job " + theJobId + " not found!");
+        }
+        return job;
+    }
+
+    /**
+     * Runs a job on a worker thread. The User is read again, because it may have changed while the job was queued.
+     *
+     * @param theJobId The unique identifier of the job.
+     * @param theOib The OIB of the User the file is generated for.
+     */
+    private void run(UUID theJobId, String theOib) {
+        jobs.asMap().computeIfPresent(theJobId, (id, job) -> job.running());
+        try {
+            UserResponse user = userService.findByOib(theOib)
+                    .orElseThrow(() -> new UserNotFoundException("The user with OIB " + theOib + " not found!"));
+            ensureNoActiveFile(user);
+            String filename = generate(user);
+            jobs.asMap().computeIfPresent(theJobId, (id, job) -> job.completed(filename));
+        } catch (IOException | RuntimeException e) {
+            log.atWarn().addKeyValue("jobId", theJobId).addKeyValue("oib", theOib).addKeyValue("error", e.getMessage())
+                    .log("File generation job failed");
+            jobs.asMap().computeIfPresent(theJobId, (id, job) -> job.failed(e.getMessage()));
+        }
+    }
+
+    private static void ensureNoActiveFile(UserResponse theUser) throws FileAlreadyExistsException {
+        if (theUser.fileName() != null && !theUser.fileName().isEmpty()) {
+            throw new FileAlreadyExistsException(
+                    "Active file already exists with file name: " + theUser.fileName());
+        }
+    }
+}
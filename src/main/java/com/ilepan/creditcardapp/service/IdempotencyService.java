@@ -0,0 +1,44 @@
+package com.ilepan.creditcardapp.service;
+
+import com.ilepan.creditcardapp.dto.UserResponse;
+import com.ilepan.creditcardapp.entity.User;
+import com.ilepan.creditcardapp.exception.IdempotencyKeyInProgressException;
+import com.ilepan.creditcardapp.exception.IdempotencyKeyMismatchException;
+
+import java.util.Optional;
+
+/**
+ * Service interface for making the creation of Users idempotent with an <code>Idempotency-Key</code> chosen by the
+ * client: a retry of a request that has succeeded gets the original response without creating the User again.
+ */
+public interface IdempotencyService {
+
+    /**
+     * Starts a request with an idempotency key. Unless the key has been used before, it is reserved for this request,
+     * which then has to be finished with {@link #complete} or {@link #abort}.
+     *
+     * @param theKey  The idempotency key.
+     * @param theUser The User to be created.
+     * @return The response of the first request with the key, or an empty Optional if this is the first one.
+     * @throws IllegalArgumentException          if the key is empty, too long or not visible ASCII.
+     * @throws IdempotencyKeyInProgressException if the first request with the key is still being processed.
+     * @throws IdempotencyKeyMismatchException   if the key was first used for a different User.
+     */
+    Optional<UserResponse> begin(String theKey, User theUser);
+
+    /**
+     * Stores the response of the request the key was reserved for, to be replayed to its retries.
+     *
+     * @param theKey      The idempotency key.
+     * @param theUser     The User that was created.
+     * @param theResponse The response of the request.
+     */
+    void complete(String theKey, User theUser, UserResponse theResponse);
+
+    /**
+     * Releases the key of a failed request, so that a retry is processed again.
+     *
+     * @param theKey The idempotency key.
+     */
+    void abort(String theKey);
+}
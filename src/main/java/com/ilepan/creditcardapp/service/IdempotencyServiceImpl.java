@@ -0,0 +1,153 @@
+package com.ilepan.creditcardapp.service;
+
+import com.ilepan.creditcardapp.config.MetricsConfig;
+import com.ilepan.creditcardapp.constants.Profiles;
+import com.ilepan.creditcardapp.dto.IdempotencyRecord;
+import com.ilepan.creditcardapp.dto.UserResponse;
+import com.ilepan.creditcardapp.entity.User;
+import com.ilepan.creditcardapp.exception.IdempotencyKeyInProgressException;
+import com.ilepan.creditcardapp.exception.IdempotencyKeyMismatchException;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * This class provides the implementation of the {@link IdempotencyService} interface.
+ * A key is bound to the request body it was first used with through a SHA-256 fingerprint of the User's fields,
+ * so that a key reused for a different User is rejected instead of replaying an unrelated response.
+ */
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true)
+@Profile(Profiles.NOT_REACTIVE)
+@Service
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    /**
+     * Logger for the IdempotencyServiceImpl class.
+     */
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyServiceImpl.class);
+
+    /**
+     * The longest accepted idempotency key.
+     */
+    static final int MAX_KEY_LENGTH = 255;
+
+    /**
+     * The store of keys and responses.
+     */
+    private final IdempotencyStore idempotencyStore;
+
+    /**
+     * Requests that were the first with their key.
+     */
+    private final Counter firstCounter;
+
+    /**
+     * Retries answered with the stored response.
+     */
+    private final Counter replayedCounter;
+
+    /**
+     * Retries rejected because the first request was still being processed.
+     */
+    private final Counter inProgressCounter;
+
+    /**
+     * Requests rejected because the key was first used for a different User.
+     */
+    private final Counter mismatchCounter;
+
+    /**
+     * Constructor for creating a new instance of IdempotencyServiceImpl.
+     *
+     * @param theIdempotencyStore The store of keys and responses.
+     * @param theMeterRegistry    The registry the requests are counted in.
+     */
+    public IdempotencyServiceImpl(IdempotencyStore theIdempotencyStore, MeterRegistry theMeterRegistry) {
+        idempotencyStore = theIdempotencyStore;
+        firstCounter = requestCounter("first", theMeterRegistry);
+        replayedCounter = requestCounter("replayed", theMeterRegistry);
+        inProgressCounter = requestCounter("in_progress", theMeterRegistry);
+        mismatchCounter = requestCounter("mismatch", theMeterRegistry);
+    }
+
+    @Override
+    public Optional<UserResponse> begin(String theKey, User theUser) {
+        if (theKey.isEmpty() || theKey.length() > MAX_KEY_LENGTH
+                || !theKey.chars().allMatch(c -> c > ' ' && c < 0x7f)) {
+            throw new IllegalArgumentException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH
+                    + " visible ASCII characters.");
+        }
+        String fingerprint = fingerprint(theUser);
+        IdempotencyRecord stored = idempotencyStore.putIfAbsent(theKey, fingerprint);
+        if (stored == null) {
+            firstCounter.increment();
+            return Optional.empty();
+        }
+        if (!stored.fingerprint().equals(fingerprint)) {
+            mismatchCounter.increment();
+            throw new IdempotencyKeyMismatchException("Idempotency-Key " + theKey
+                    + " has already been used for a different request.");
+        }
+        if (stored.response() == null) {
+            inProgressCounter.increment();
+            throw new IdempotencyKeyInProgressException("A request with Idempotency-Key " + theKey
+                    + " is still being processed, retry later.");
+        }
+        replayedCounter.increment();
+        log.atDebug().addKeyValue("oib", theUser.getOib()).log("Replaying response of a retried request");
+        return Optional.of(stored.response());
+    }
+
+    @Override
+    public void complete(String theKey, User theUser, UserResponse theResponse) {
+        try {
+            idempotencyStore.complete(theKey, new IdempotencyRecord(fingerprint(theUser), theResponse));
+        } catch (RuntimeException e) {
+            // the User has been created, a retry will be told it exists instead of getting the stored response
+            log.atWarn().addKeyValue("oib", theUser.getOib()).setCause(e).log("Response could not be stored");
+            abort(theKey);
+        }
+    }
+
+    @Override
+    public void abort(String theKey) {
+        try {
+            idempotencyStore.remove(theKey);
+        } catch (RuntimeException e) {
+            log.atWarn().setCause(e).log("Idempotency-Key could not be released");
+        }
+    }
+
+    /**
+     * Hashes the fields of the User the client sends, separated by NUL characters.
+     */
+    private static String fingerprint(User theUser) {
+        String fields = String.join("\u0000", Objects.toString(theUser.getFirstName()),
+                Objects.toString(theUser.getLastName()), Objects.toString(theUser.getOib()),
+                Objects.toString(theUser.getStatus()));
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(fields.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available.", e);
+        }
+    }
+
+    private static Counter requestCounter(String theResult, MeterRegistry theMeterRegistry) {
+        return Counter.builder(MetricsConfig.IDEMPOTENT_REQUESTS_COUNTER)
+                .description("Requests with an Idempotency-Key by how they were answered")
+                .tag("result", theResult)
+                .register(theMeterRegistry);
+    }
+}
@@ -0,0 +1,35 @@
+package com.ilepan.creditcardapp.service;
+
+import com.ilepan.creditcardapp.dto.IdempotencyRecord;
+
+/**
+ * Storage of <code>Idempotency-Key</code>s and the responses of the requests that used them.
+ * Keys are kept for a limited time, after which they may be used again.
+ */
+public interface IdempotencyStore {
+
+    /**
+     * Reserves the key for a request, unless it is already stored. Reserving is atomic, so of concurrent requests
+     * with the same key exactly one gets the reservation.
+     *
+     * @param theKey         The idempotency key.
+     * @param theFingerprint Hash of the request body.
+     * @return Null if the key has been reserved for this request, otherwise the stored record of the key.
+     */
+    IdempotencyRecord putIfAbsent(String theKey, String theFingerprint);
+
+    /**
+     * Stores the response of the request the key was reserved for.
+     *
+     * @param theKey    The idempotency key.
+     * @param theRecord The record holding the response.
+     */
+    void complete(String theKey, IdempotencyRecord theRecord);
+
+    /**
+     * Removes the key, so that the request can be retried with it.
+     *
+     * @param theKey The idempotency key.
+     */
+    void remove(String theKey);
+}
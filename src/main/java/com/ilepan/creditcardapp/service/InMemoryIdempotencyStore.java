@@ -0,0 +1,48 @@
+package com.ilepan.creditcardapp.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ilepan.creditcardapp.dto.IdempotencyRecord;
+
+import java.time.Duration;
+
+/**
+ * {@link IdempotencyStore} kept in memory by a bounded Caffeine cache. Keys are only known to the instance that
+ * served the first request, and the least useful ones are dropped once the store is full.
+ */
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    /**
+     * The records keyed by idempotency key.
+     */
+    private final Cache<String, IdempotencyRecord> records;
+
+    /**
+     * Constructs an empty store.
+     *
+     * @param theMaxEntries The largest number of keys kept.
+     * @param theTtl        How long a key is kept after it was first used.
+     */
+    public InMemoryIdempotencyStore(long theMaxEntries, Duration theTtl) {
+        records = Caffeine.newBuilder()
+                .maximumSize(theMaxEntries)
+                .expireAfterWrite(theTtl)
+                .build();
+    }
+
+    @Override
+    public IdempotencyRecord putIfAbsent(String theKey, String theFingerprint) {
+        return records.asMap().putIfAbsent(theKey, new IdempotencyRecord(theFingerprint, null));
+    }
+
+    @Override
+    public void complete(String theKey, IdempotencyRecord theRecord) {
+        // replaces the reservation, keeping its expiry would need a custom Expiry for a negligible difference
+        records.put(theKey, theRecord);
+    }
+
+    @Override
+    public void remove(String theKey) {
+        records.invalidate(theKey);
+    }
+}
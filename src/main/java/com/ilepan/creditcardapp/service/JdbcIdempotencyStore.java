@@ -0,0 +1,147 @@
+package com.ilepan.creditcardapp.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ilepan.creditcardapp.dto.IdempotencyRecord;
+import com.ilepan.creditcardapp.dto.UserResponse;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link IdempotencyStore} kept in the <code>idempotency_keys</code> table, so that a retry is recognized by every
+ * instance and after a restart. Responses are stored as JSON. Expired keys are replaced when they are used again,
+ * and all expired keys are deleted at most once per {@link #PURGE_INTERVAL} while keys are being reserved.
+ * <p>
+ * Every operation commits in a transaction of its own, also when called within the request's transaction and on a
+ * pool that hands out connections with auto-commit off, which would otherwise roll the statements back.
+ */
+public class JdbcIdempotencyStore implements IdempotencyStore {
+
+    /**
+     * How often expired keys are deleted.
+     */
+    static final Duration PURGE_INTERVAL = Duration.ofMinutes(1);
+
+    /**
+     * Template the statements are run with.
+     */
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Template each operation is run in its own transaction with.
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Mapper the responses are written and read with.
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * How long a key is kept after it was first used.
+     */
+    private final Duration ttl;
+
+    /**
+     * When expired keys are deleted next, in epoch milliseconds.
+     */
+    private final AtomicLong nextPurge = new AtomicLong();
+
+    /**
+     * Constructs the store.
+     *
+     * @param theJdbcTemplate       Template the statements are run with.
+     * @param theTransactionManager Manager of the transactions the operations are run in.
+     * @param theObjectMapper       Mapper the responses are written and read with.
+     * @param theTtl                How long a key is kept after it was first used.
+     */
+    public JdbcIdempotencyStore(JdbcTemplate theJdbcTemplate, PlatformTransactionManager theTransactionManager,
+                                ObjectMapper theObjectMapper, Duration theTtl) {
+        jdbcTemplate = theJdbcTemplate;
+        transactionTemplate = new TransactionTemplate(theTransactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        objectMapper = theObjectMapper;
+        ttl = theTtl;
+    }
+
+    @Override
+    public IdempotencyRecord putIfAbsent(String theKey, String theFingerprint) {
+        Timestamp now = Timestamp.from(Instant.now());
+        long purge = nextPurge.get();
+        if (now.getTime() >= purge && nextPurge.compareAndSet(purge, now.getTime() + PURGE_INTERVAL.toMillis())) {
+            deleteExpired();
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.update("delete from idempotency_keys where idempotency_key = ? and created_at < ?",
+                        theKey, expiredBefore(now));
+                jdbcTemplate.update("insert into idempotency_keys (idempotency_key, fingerprint, created_at) "
+                        + "values (?, ?, ?)", theKey, theFingerprint, now);
+            });
+            return null;
+        } catch (DuplicateKeyException e) {
+            List<IdempotencyRecord> records = transactionTemplate.execute(status -> jdbcTemplate.query(
+                    "select fingerprint, response from idempotency_keys where idempotency_key = ?",
+                    (rs, rowNum) -> new IdempotencyRecord(rs.getString("fingerprint"), read(rs.getString("response"))),
+                    theKey));
+            // removed in between, a retry of the caller will reserve it
+            return records.isEmpty() ? new IdempotencyRecord(theFingerprint, null) : records.get(0);
+        }
+    }
+
+    @Override
+    public void complete(String theKey, IdempotencyRecord theRecord) {
+        String response = write(theRecord.response());
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(
+                "update idempotency_keys set response = ? where idempotency_key = ?", response, theKey));
+    }
+
+    @Override
+    public void remove(String theKey) {
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(
+                "delete from idempotency_keys where idempotency_key = ?", theKey));
+    }
+
+    /**
+     * Deletes every expired key.
+     *
+     * @return The number of deleted keys.
+     */
+    public int deleteExpired() {
+        Timestamp expiredBefore = expiredBefore(Timestamp.from(Instant.now()));
+        return transactionTemplate.execute(status -> jdbcTemplate.update(
+                "delete from idempotency_keys where created_at < ?", expiredBefore));
+    }
+
+    private Timestamp expiredBefore(Timestamp theNow) {
+        return Timestamp.from(theNow.toInstant().minus(ttl));
+    }
+
+    private String write(UserResponse theResponse) {
+        try {
+            return objectMapper.writeValueAsString(theResponse);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Response could not be stored.", e);
+        }
+    }
+
+    private UserResponse read(String theJson) {
+        if (theJson == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(theJson, UserResponse.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored response could not be read.", e);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.ilepan.creditcardapp.service;
+
+import com.ilepan.creditcardapp.config.OibFilterProperties;
+import com.ilepan.creditcardapp.dto.Oib;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+/**
+ * Bloom filter over the OIBs stored in the database, used to answer "definitely absent" without a database lookup.
+ * OIBs are added before they are written, so the filter never misses a stored OIB that was written through this
+ * instance. OIBs cannot be removed from a Bloom filter: a deleted OIB stays "maybe present" and costs one lookup,
+ * exactly as without the filter, until the filter is rebuilt on the next start.
+ * <p>
+ * Until {@link #load(Stream)} has finished, and when the filter is disabled, every OIB is "maybe present".
+ * The bits are kept in an {@link AtomicLongArray}, so adding and checking need no locks.
+ */
+public class OibBloomFilter {
+
+    /**
+     * Whether the filter is used at all.
+     */
+    private final boolean enabled;
+
+    /**
+     * The bits of the filter, 64 per element.
+     */
+    private final AtomicLongArray bits;
+
+    /**
+     * The number of bits of the filter.
+     */
+    private final long bitCount;
+
+    /**
+     * The number of bits set for every OIB.
+     */
+    private final int hashCount;
+
+    /**
+     * The number of OIBs added, including repeated ones.
+     */
+    private final AtomicLong insertions = new AtomicLong();
+
+    /**
+     * Whether every stored OIB has been added.
+     */
+    private volatile boolean loaded;
+
+    /**
+     * Constructs an empty filter sized for the expected number of OIBs and the target false-positive probability.
+     *
+     * @param theProperties The filter settings.
+     */
+    public OibBloomFilter(OibFilterProperties theProperties) {
+        if (theProperties.expectedInsertions() < 1) {
+            throw new IllegalArgumentException("Expected insertions must be positive, got: "
+                    + theProperties.expectedInsertions());
+        }
+        double fpp = theProperties.falsePositiveProbability();
+        if (fpp <= 0 || fpp >= 1) {
+            throw new IllegalArgumentException("False-positive probability must be between 0 and 1, got: " + fpp);
+        }
+        enabled = theProperties.enabled();
+        long n = theProperties.expectedInsertions();
+        // optimal size m = -n ln p / (ln 2)^2 and number of hash functions k = m/n ln 2
+        long m = (long) Math.ceil(-n * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        int words = enabled ? (int) Math.min(Integer.MAX_VALUE - 8, (m + 63) / 64) : 1;
+        bits = new AtomicLongArray(words);
+        bitCount = (long) words * 64;
+        hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+    }
+
+    /**
+     * Adds every OIB of the stream and then starts answering "definitely absent".
+     * OIBs added concurrently with {@link #put(String)} are kept.
+     *
+     * @param theStoredOibs Every OIB stored in the database.
+     * @return The number of OIBs read from the stream.
+     */
+    public long load(Stream<String> theStoredOibs) {
+        long before = insertions.get();
+        theStoredOibs.forEach(this::put);
+        loaded = true;
+        return insertions.get() - before;
+    }
+
+    /**
+     * Adds the OIB. Call it before the OIB is written, so that a concurrent lookup cannot miss it.
+     *
+     * @param theOib The OIB to add.
+     */
+    public void put(String theOib) {
+        if (!enabled) {
+            return;
+        }
+        long hash1 = hash(theOib);
+        long hash2 = mix(hash1);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = bits.get(word);
+            while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+                current = bits.get(word);
+            }
+        }
+        insertions.incrementAndGet();
+    }
+
+    /**
+     * @param theOib The OIB to check.
+     * @return False if the OIB is definitely not stored, true if it may be stored.
+     */
+    public boolean mightContain(String theOib) {
+        if (!enabled || !loaded) {
+            return true;
+        }
+        long hash1 = hash(theOib);
+        long hash2 = mix(hash1);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return Whether the filter is used at all.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return Whether the filter answers "definitely absent".
+     */
+    public boolean isActive() {
+        return enabled && loaded;
+    }
+
+    /**
+     * @return The number of OIBs added, including repeated ones.
+     */
+    public long getInsertions() {
+        return insertions.get();
+    }
+
+    /**
+     * Estimates the probability that an absent OIB is reported as "maybe present" from the share of set bits.
+     * The estimate grows as more OIBs are added than the filter was sized for.
+     *
+     * @return The estimated false-positive probability.
+     */
+    public double estimatedFalsePositiveProbability() {
+        if (!enabled) {
+            return 1.0;
+        }
+        long set = 0;
+        for (int i = 0; i < bits.length(); i++) {
+            set += Long.bitCount(bits.get(i));
+        }
+        return Math.pow((double) set / bitCount, hashCount);
+    }
+
+    /**
+     * Hash of the {@link Oib#toKey(CharSequence) packed} OIB, or a 64-bit FNV-1a hash of the characters
+     * of a malformed one.
+     */
+    private static long hash(String theValue) {
+        long key = Oib.toKey(theValue);
+        if (key >= 0) {
+            return mix(key);
+        }
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < theValue.length(); i++) {
+            hash ^= theValue.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * Finalizer of SplitMix64, spreads every input bit over the whole result.
+     */
+    private static long mix(long theValue) {
+        long z = theValue + 0x9e3779b97f4a7c15L;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,71 @@
+package com.ilepan.creditcardapp.service;
+
+import com.ilepan.creditcardapp.config.ReadReplicaDataSource;
+import com.ilepan.creditcardapp.constants.Profiles;
+import com.ilepan.creditcardapp.dao.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.stream.Stream;
+
+/**
+ * Fills the {@link OibBloomFilter} with every stored OIB once the application is ready.
+ * Requests served while the table is scanned fall through to the database.
+ */
+@Profile(Profiles.NOT_REACTIVE)
+@Component
+public class OibBloomFilterLoader {
+
+    /**
+     * Logger for the OibBloomFilterLoader class.
+     */
+    private static final Logger log = LoggerFactory.getLogger(OibBloomFilterLoader.class);
+
+    /**
+     * The repository the stored OIBs are read from.
+     */
+    private UserRepository userRepository;
+
+    /**
+     * The filter to fill.
+     */
+    private OibBloomFilter oibBloomFilter;
+
+    /**
+     * Constructs the loader.
+     *
+     * @param theUserRepository The repository the stored OIBs are read from.
+     * @param theOibBloomFilter The filter to fill.
+     */
+    public OibBloomFilterLoader(UserRepository theUserRepository, OibBloomFilter theOibBloomFilter) {
+        userRepository = theUserRepository;
+        oibBloomFilter = theOibBloomFilter;
+    }
+
+    /**
+     * Streams every stored OIB into the filter.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        if (!oibBloomFilter.isEnabled()) {
+            return;
+        }
+        long start = System.nanoTime();
+        // read from the primary, an OIB missing on a lagging replica would be reported as absent until the restart
+        long count = ReadReplicaDataSource.readFromPrimary(() -> {
+            try (Stream<String> oibs = userRepository.streamAllOibs()) {
+                return oibBloomFilter.load(oibs);
+            }
+        });
+        log.atInfo().addKeyValue("oibs", count)
+                .addKeyValue("ms", (System.nanoTime() - start) / 1_000_000)
+                .addKeyValue("fpp", oibBloomFilter.estimatedFalsePositiveProbability())
+                .log("OIB filter loaded");
+    }
+}
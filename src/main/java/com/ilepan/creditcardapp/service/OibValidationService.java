@@ -0,0 +1,23 @@
+package com.ilepan.creditcardapp.service;
+
+import com.ilepan.creditcardapp.dto.OibValidationReport;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Service interface for validating many OIBs at once.
+ */
+public interface OibValidationService {
+
+    /**
+     * Validates a list of OIBs, one per line. Surrounding spaces, tabs and carriage returns are ignored.
+     * A blank line counts as an invalid OIB. A line break after the last OIB is optional.
+     *
+     * @param theInput The list, ASCII or UTF-8 encoded. It is read but not closed.
+     * @return The number of OIBs and the positions of the invalid ones.
+     * @throws IOException if the list could not be read.
+     * @throws IllegalArgumentException if the list holds more OIBs than may be validated at once.
+     */
+    OibValidationReport validate(InputStream theInput) throws IOException;
+}
@@ -0,0 +1,276 @@
+package com.ilepan.creditcardapp.service;
+
+import com.ilepan.creditcardapp.config.MetricsConfig;
+import com.ilepan.creditcardapp.config.OibValidationConfig;
+import com.ilepan.creditcardapp.config.OibValidationProperties;
+import com.ilepan.creditcardapp.dto.OibValidationReport;
+import com.ilepan.creditcardapp.validator.OibValidator;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.IntStream;
+
+/**
+ * This class provides the implementation of the {@link OibValidationService} interface.
+ * The list is read in chunks straight from the request bytes: every line is copied into a fixed 11-byte slot,
+ * and lines that cannot be an OIB because of their length are flagged while reading. A full chunk is checked
+ * on the validation pool in runs of 64 OIBs, each producing one word of a bitmap of invalid OIBs, while the
+ * next chunk is read. Checking uses {@link OibValidator#isValid(byte[], int, int)}, so no String is created
+ * and no exception is thrown per OIB.
+ */
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true)
+@Service
+public class OibValidationServiceImpl implements OibValidationService {
+
+    /** The number of bytes kept per OIB. */
+    private static final int SLOT = OibValidator.OIB_LENGTH;
+
+    /** Chunks with fewer OIBs are checked on the calling thread, handing them to the pool costs more. */
+    static final int PARALLEL_THRESHOLD = 4096;
+
+    /** The number of request bytes read at once. */
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Validator used for checking every OIB.
+     */
+    private final OibValidator oibValidator;
+
+    /**
+     * Pool checking full chunks.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * The number of OIBs per chunk, a multiple of 64.
+     */
+    private final int chunkSize;
+
+    /**
+     * The largest number of OIBs accepted in one list.
+     */
+    private final int maxEntries;
+
+    /**
+     * Constructor for creating a new instance of OibValidationServiceImpl.
+     *
+     * @param theOibValidator The OibValidator dependency injected by Spring.
+     * @param thePool The pool checking full chunks.
+     * @param theProperties The batch validation settings.
+     */
+    public OibValidationServiceImpl(OibValidator theOibValidator,
+                                    @Qualifier(OibValidationConfig.OIB_VALIDATION_POOL) ForkJoinPool thePool,
+                                    OibValidationProperties theProperties) {
+        oibValidator = theOibValidator;
+        pool = thePool;
+        chunkSize = (Math.max(1, theProperties.chunkSize()) + Long.SIZE - 1) / Long.SIZE * Long.SIZE;
+        maxEntries = theProperties.maxEntries();
+    }
+
+    @Override
+    public OibValidationReport validate(InputStream theInput) throws IOException {
+        long[] invalid = new long[chunkSize / Long.SIZE];
+        Chunk filling = new Chunk(chunkSize);
+        Chunk checking = null;
+        byte[] buffer = new byte[READ_BUFFER_SIZE];
+        int total = 0;
+        int read;
+        while ((read = theInput.read(buffer)) != -1) {
+            int i = 0;
+            while (i < read) {
+                int next = filling.lineStarted ? -1 : filling.putLine(buffer, i, read);
+                if (next >= 0) {
+                    i = next;
+                } else if (buffer[i] != '\n') {
+                    filling.append(buffer[i++]);
+                    continue;
+                } else {
+                    i++;
+                }
+                total = endEntry(filling, total);
+                if (filling.count == chunkSize) {
+                    if (checking != null) {
+                        invalid = merge(checking, invalid);
+                    }
+                    filling.check();
+                    Chunk spare = checking != null ? checking : new Chunk(chunkSize);
+                    checking = filling;
+                    filling = spare.reset(total);
+                }
+            }
+        }
+        if (filling.lineStarted) {
+            total = endEntry(filling, total);
+        }
+        if (checking != null) {
+            invalid = merge(checking, invalid);
+        }
+        filling.check();
+        invalid = merge(filling, invalid);
+
+        int[] invalidIndexes = BitSet.valueOf(invalid).stream().toArray();
+        return new OibValidationReport(total, invalidIndexes.length, invalidIndexes);
+    }
+
+    private int endEntry(Chunk theChunk, int theTotal) {
+        if (theTotal == maxEntries) {
+            throw new IllegalArgumentException("At most " + maxEntries + " OIBs can be validated at once.");
+        }
+        theChunk.endLine();
+        return theTotal + 1;
+    }
+
+    /**
+     * Waits for a chunk to be checked and copies its words into the bitmap of the whole list.
+     */
+    private long[] merge(Chunk theChunk, long[] theInvalid) {
+        theChunk.awaitCheck();
+        int firstWord = theChunk.firstIndex / Long.SIZE;
+        int words = theChunk.words();
+        long[] invalid = theInvalid.length < firstWord + words
+                ? Arrays.copyOf(theInvalid, Math.max(firstWord + words, theInvalid.length * 2))
+                : theInvalid;
+        System.arraycopy(theChunk.invalid, 0, invalid, firstWord, words);
+        return invalid;
+    }
+
+    /**
+     * A run of consecutive OIBs of the list, and the line currently being read into it.
+     */
+    private final class Chunk {
+
+        /** The OIBs, {@link #SLOT} bytes each. */
+        private final byte[] slots;
+
+        /** One bit per OIB whose line was too short, too long or had inner whitespace. */
+        private final long[] malformed;
+
+        /** One bit per invalid OIB, filled by {@link #check()}. */
+        private final long[] invalid;
+
+        /** The position of the first OIB of the chunk in the list. */
+        private int firstIndex;
+
+        /** The number of complete lines in the chunk. */
+        private int count;
+
+        /** The number of non-whitespace bytes of the current line. */
+        private int lineLength;
+
+        /** Whether the current line has had any byte. */
+        private boolean lineStarted;
+
+        /** Whether whitespace followed the content of the current line. */
+        private boolean trailingSpace;
+
+        /** Whether the current line cannot be an OIB. */
+        private boolean lineMalformed;
+
+        /** The pending check, null if the chunk was checked on the calling thread. */
+        private ForkJoinTask<?> pendingCheck;
+
+        Chunk(int theSize) {
+            slots = new byte[theSize * SLOT];
+            malformed = new long[theSize / Long.SIZE];
+            invalid = new long[theSize / Long.SIZE];
+        }
+
+        Chunk reset(int theFirstIndex) {
+            firstIndex = theFirstIndex;
+            count = 0;
+            Arrays.fill(malformed, 0);
+            pendingCheck = null;
+            return this;
+        }
+
+        /**
+         * Copies a line of exactly 11 digits at once, the usual case.
+         *
+         * @return The index after the line break, or -1 if the line is not 11 digits or not complete in the buffer,
+         *         and has to be read byte by byte.
+         */
+        int putLine(byte[] theBuffer, int theFrom, int theLimit) {
+            int end = theFrom + SLOT;
+            int next;
+            if (end < theLimit && theBuffer[end] == '\n') {
+                next = end + 1;
+            } else if (end + 1 < theLimit && theBuffer[end] == '\r' && theBuffer[end + 1] == '\n') {
+                next = end + 2;
+            } else {
+                return -1;
+            }
+            for (int i = theFrom; i < end; i++) {
+                if (theBuffer[i] < '0' || theBuffer[i] > '9') {
+                    return -1;
+                }
+            }
+            System.arraycopy(theBuffer, theFrom, slots, count * SLOT, SLOT);
+            lineLength = SLOT;
+            return next;
+        }
+
+        void append(byte theByte) {
+            lineStarted = true;
+            if (theByte == ' ' || theByte == '\t' || theByte == '\r') {
+                trailingSpace = lineLength > 0;
+            } else if (trailingSpace || lineLength == SLOT) {
+                lineMalformed = true;
+            } else {
+                slots[count * SLOT + lineLength++] = theByte;
+            }
+        }
+
+        void endLine() {
+            if (lineMalformed || lineLength != SLOT) {
+                malformed[count / Long.SIZE] |= 1L << count;
+            }
+            count++;
+            lineLength = 0;
+            lineStarted = false;
+            trailingSpace = false;
+            lineMalformed = false;
+        }
+
+        int words() {
+            return (count + Long.SIZE - 1) / Long.SIZE;
+        }
+
+        /**
+         * Checks the OIBs of the chunk, on the pool if there are enough of them.
+         */
+        void check() {
+            if (count < PARALLEL_THRESHOLD) {
+                for (int word = 0; word < words(); word++) {
+                    invalid[word] = checkWord(word);
+                }
+            } else {
+                pendingCheck = pool.submit(() ->
+                        IntStream.range(0, words()).parallel().forEach(word -> invalid[word] = checkWord(word)));
+            }
+        }
+
+        void awaitCheck() {
+            if (pendingCheck != null) {
+                pendingCheck.join();
+            }
+        }
+
+        private long checkWord(int theWord) {
+            long bits = malformed[theWord];
+            int end = Math.min(count, (theWord + 1) * Long.SIZE);
+            for (int i = theWord * Long.SIZE; i < end; i++) {
+                if ((bits & 1L << i) == 0 && !oibValidator.isValid(slots, i * SLOT, SLOT)) {
+                    bits |= 1L << i;
+                }
+            }
+            return bits;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.ilepan.creditcardapp.service;
+
+import com.ilepan.creditcardapp.dto.UserPage;
+import com.ilepan.creditcardapp.dto.UserSearchCriteria;
+import com.ilepan.creditcardapp.entity.User;
+import com.ilepan.creditcardapp.exception.UserAlreadyExistsException;
+import com.ilepan.creditcardapp.exception.UserNotFoundException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+
+/**
+ * Non-blocking counterpart of {@link UserService}, used by the reactive stack.
+ * Errors are signalled with the same exceptions as {@link UserService}.
+ */
+public interface ReactiveUserService {
+
+    /**
+     * Retrieves a specific User entity based on the provided OIB.
+     *
+     * @param theOib The unique identifier of the User entity.
+     * @return The found User entity, or empty if not found.
+     */
+    Mono<User> findByOib(String theOib);
+
+    /**
+     * Inserts a new User entity with a single statement.
+     *
+     * @param theUser The User object to be inserted.
+     * @return The inserted User entity.
+     * @throws UserAlreadyExistsException if a User with the same OIB already exists.
+     */
+    Mono<User> create(User theUser);
+
+    /**
+     * Deletes a specific User entity based on the provided OIB.
+     *
+     * @param theOib The unique identifier of the User entity to be deleted.
+     * @return The number of deleted User entities, 0 if no User with the given OIB exists.
+     */
+    Mono<Long> deleteByOib(String theOib);
+
+    /**
+     * Changes the status of a User with a single conditional statement.
+     *
+     * @param theOib             The OIB of the User.
+     * @param theStatus          The new status, 0 or 1.
+     * @param theExpectedVersions The versions of the User the change may be based on, or null to apply it to any version.
+     * @return The updated User, with its new version.
+     * @throws UserNotFoundException if no User with the given OIB exists.
+     * @throws OptimisticLockingFailureException if the User is at none of the expected versions.
+     */
+    Mono<User> updateStatus(String theOib, String theStatus, Set<Long> theExpectedVersions);
+
+    /**
+     * Reads one page of Users matching the criteria, ordered by id, like {@link UserService#search}.
+     *
+     * @param theCriteria The filters, null values are ignored.
+     * @param theCursor   The cursor returned with the previous page, or null for the first page.
+     * @param theLimit    The maximum number of Users on the page, between 1 and {@link UserService#MAX_SEARCH_LIMIT}.
+     * @return The page of Users.
+     * @throws IllegalArgumentException if the cursor or the limit is invalid.
+     */
+    Mono<UserPage> search(UserSearchCriteria theCriteria, String theCursor, int theLimit);
+}
@@ -0,0 +1,132 @@
+package com.ilepan.creditcardapp.service;
+
+import com.ilepan.creditcardapp.constants.Profiles;
+import com.ilepan.creditcardapp.dao.ReactiveUserRepository;
+import com.ilepan.creditcardapp.dto.UserPage;
+import com.ilepan.creditcardapp.dto.UserSearchCriteria;
+import com.ilepan.creditcardapp.dto.UserSummary;
+import com.ilepan.creditcardapp.entity.User;
+import com.ilepan.creditcardapp.exception.UserAlreadyExistsException;
+import com.ilepan.creditcardapp.exception.UserNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * This class provides the implementation of the {@link ReactiveUserService} interface over R2DBC.
+ * Every method issues its statements without blocking, so requests are served by the event-loop threads.
+ * Its methods are not annotated with {@code @Timed}, which would only time the assembly of the returned
+ * publishers; the endpoints are timed as <code>http.server.requests</code>.
+ */
+@Profile(Profiles.REACTIVE)
+@Service
+public class ReactiveUserServiceImpl implements ReactiveUserService {
+
+    /**
+     * Logger for the ReactiveUserServiceImpl class.
+     */
+    private static final Logger log = LoggerFactory.getLogger(ReactiveUserServiceImpl.class);
+
+    /**
+     * The repository for interacting with user data.
+     */
+    private final ReactiveUserRepository userRepository;
+
+    /**
+     * Constructor for creating a new instance of ReactiveUserServiceImpl.
+     *
+     * @param theUserRepository The ReactiveUserRepository dependency injected by Spring.
+     */
+    public ReactiveUserServiceImpl(ReactiveUserRepository theUserRepository) {
+        userRepository = theUserRepository;
+    }
+
+    @Override
+    public Mono<User> findByOib(String theOib) {
+        return userRepository.findByOib(theOib);
+    }
+
+    @Override
+    public Mono<User> create(User theUser) {
+        log.atInfo().addKeyValue("oib", theUser.getOib()).log("Creating User");
+        // duplicates are detected by the unique key on the OIB column, as in UserServiceImpl
+        return userRepository.insert(theUser)
+                .onErrorMap(ReactiveUserServiceImpl::isOibUniqueViolation, e ->
+                        new UserAlreadyExistsException("User with OIB: " + theUser.getOib() + " already exists."));
+    }
+
+    @Override
+    public Mono<Long> deleteByOib(String theOib) {
+        return userRepository.deleteByOib(theOib)
+                .doOnNext(deleted -> {
+                    if (deleted > 0) {
+                        log.atInfo().addKeyValue("oib", theOib).log("User has been deleted");
+                    }
+                });
+    }
+
+    @Override
+    public Mono<User> updateStatus(String theOib, String theStatus, Set<Long> theExpectedVersions) {
+        return userRepository.updateStatus(theOib, theStatus, theExpectedVersions)
+                .flatMap(updated -> updated > 0
+                        ? userRepository.findByOib(theOib)
+                        // nothing updated: either the User is missing or it is at another version
+                        : userRepository.findByOib(theOib)
+                                .flatMap(user -> Mono.<User>error(
+                                        new ObjectOptimisticLockingFailureException(User.class, user.getId()))))
+                .switchIfEmpty(Mono.error(() -> new UserNotFoundException("User with OIB: " + theOib + " not found.")))
+                .doOnNext(user -> log.atInfo().addKeyValue("oib", theOib).addKeyValue("status", theStatus)
+                        .addKeyValue("version", user.getVersion()).log("User status changed"));
+    }
+
+    @Override
+    public Mono<UserPage> search(UserSearchCriteria theCriteria, String theCursor, int theLimit) {
+        if (theLimit < 1 || theLimit > UserService.MAX_SEARCH_LIMIT) {
+            return Mono.error(new IllegalArgumentException(
+                    "Limit must be between 1 and " + UserService.MAX_SEARCH_LIMIT + ", got: " + theLimit));
+        }
+        int afterId;
+        try {
+            afterId = theCursor == null ? 0 : UserCursor.decode(theCursor);
+        } catch (IllegalArgumentException e) {
+            return Mono.error(e);
+        }
+        // one extra row tells whether there is a next page
+        return userRepository.search(theCriteria, afterId, theLimit + 1)
+                .collectList()
+                .map(users -> {
+                    if (users.size() <= theLimit) {
+                        return new UserPage(users, null);
+                    }
+                    List<UserSummary> page = List.copyOf(users.subList(0, theLimit));
+                    return new UserPage(page, UserCursor.encode(page.get(theLimit - 1).id()));
+                });
+    }
+
+    /**
+     * Checks whether the given exception was caused by the unique key on the OIB column. Other integrity
+     * violations, such as a missing or too long value, are not duplicates.
+     *
+     * @param theException The exception signalled by the insert.
+     * @return true if the OIB unique constraint was violated.
+     */
+    private static boolean isOibUniqueViolation(Throwable theException) {
+        if (!(theException instanceof DuplicateKeyException)) {
+            return false;
+        }
+        // R2DBC drivers report the violated constraint only in the message
+        for (Throwable cause = theException; cause != null; cause = cause.getCause()) {
+            if (cause.getMessage() != null && cause.getMessage().toLowerCase().contains(User.OIB_UNIQUE_CONSTRAINT)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,97 @@
+package com.ilepan.creditcardapp.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ilepan.creditcardapp.dto.Oib;
+
+import java.time.Duration;
+
+/**
+ * The OIBs written through this instance within the last read-your-writes window. Lookups of these OIBs read from
+ * the primary, so that a client reading its own write is not answered from a replica that has not caught up yet.
+ * Independently of the window, OIBs written within the last {@link #SETTLE_PERIOD} are not cached, as a lookup
+ * running during the write may have read the row before the write committed.
+ * Writes of other instances are not known here.
+ */
+public class RecentWrites {
+
+    /**
+     * How long after a write lookups of the OIB are not cached. Longer than a lookup takes, including the wait for
+     * a connection.
+     */
+    static final Duration SETTLE_PERIOD = Duration.ofSeconds(30);
+
+    /**
+     * The largest number of OIBs remembered, the oldest ones are dropped first once it is reached.
+     */
+    private static final int MAX_ENTRIES = 100_000;
+
+    /**
+     * The recently written OIBs, packed with {@link Oib#toKey(CharSequence)}; null when tracking is off.
+     */
+    private final Cache<Long, Boolean> written;
+
+    /**
+     * The OIBs written within the settle period, packed with {@link Oib#toKey(CharSequence)}.
+     */
+    private final Cache<Long, Boolean> unsettled;
+
+    /**
+     * Constructs the tracker.
+     *
+     * @param theWindow How long an OIB is remembered after its last write, zero turns tracking off.
+     */
+    public RecentWrites(Duration theWindow) {
+        this(theWindow, SETTLE_PERIOD);
+    }
+
+    /**
+     * Constructs the tracker.
+     *
+     * @param theWindow       How long an OIB is remembered after its last write, zero turns tracking off.
+     * @param theSettlePeriod How long after a write lookups of the OIB are not cached.
+     */
+    RecentWrites(Duration theWindow, Duration theSettlePeriod) {
+        written = theWindow.isZero() || theWindow.isNegative() ? null : Caffeine.newBuilder()
+                .expireAfterWrite(theWindow)
+                .maximumSize(MAX_ENTRIES)
+                .build();
+        unsettled = Caffeine.newBuilder()
+                .expireAfterWrite(theSettlePeriod)
+                .maximumSize(MAX_ENTRIES)
+                .build();
+    }
+
+    /**
+     * Remembers that the OIB is being written. Call it before the write commits, and again once it has committed.
+     *
+     * @param theOib The written OIB.
+     */
+    public void record(String theOib) {
+        long key = Oib.toKey(theOib);
+        if (key < 0) {
+            return;
+        }
+        unsettled.put(key, Boolean.TRUE);
+        if (written != null) {
+            written.put(key, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * @param theOib The OIB to check.
+     * @return Whether the OIB was written within the window.
+     */
+    public boolean contains(String theOib) {
+        return written != null && written.getIfPresent(Oib.toKey(theOib)) != null;
+    }
+
+    /**
+     * @param theOib The OIB to check.
+     * @return Whether the OIB was written within the settle period, so that a lookup of it may have read the row
+     *         as it was before the write and must not be cached.
+     */
+    public boolean isUnsettled(String theOib) {
+        return unsettled.getIfPresent(Oib.toKey(theOib)) != null;
+    }
+}
@@ -0,0 +1,116 @@
+package com.ilepan.creditcardapp.service;
+
+import com.ilepan.creditcardapp.config.MetricsConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls with the same key: the first caller runs the call, callers arriving while it runs wait
+ * for it and get the same result, or the same exception. Nothing is kept once the call has finished, so a caller
+ * arriving after that runs the call again. The result is shared as is, as a cache hit would be.
+ * <p>
+ * Calls are counted in the {@link MetricsConfig#SINGLE_FLIGHT_CALLS_COUNTER} counter, tagged with the name and with
+ * <code>result</code> <code>executed</code> or <code>shared</code>; shared / (executed + shared) is the share of
+ * calls saved. The number of calls running is the {@link MetricsConfig#SINGLE_FLIGHT_IN_FLIGHT_GAUGE} gauge.
+ *
+ * @param <K> The type of the keys.
+ * @param <V> The type of the results.
+ */
+public class SingleFlight<K, V> {
+
+    /**
+     * The running calls by key.
+     */
+    private final ConcurrentMap<K, CompletableFuture<V>> calls = new ConcurrentHashMap<>();
+
+    /**
+     * Calls that were run.
+     */
+    private final Counter executedCounter;
+
+    /**
+     * Calls that got the result of a call already running.
+     */
+    private final Counter sharedCounter;
+
+    /**
+     * Constructs the coalescer and registers its meters.
+     *
+     * @param theName          The name the meters are tagged with.
+     * @param theMeterRegistry The registry the meters are registered in.
+     */
+    public SingleFlight(String theName, MeterRegistry theMeterRegistry) {
+        executedCounter = callCounter(theName, "executed", theMeterRegistry);
+        sharedCounter = callCounter(theName, "shared", theMeterRegistry);
+        Gauge.builder(MetricsConfig.SINGLE_FLIGHT_IN_FLIGHT_GAUGE, calls, ConcurrentMap::size)
+                .description("Coalesced calls running")
+                .tag("name", theName)
+                .register(theMeterRegistry);
+    }
+
+    /**
+     * Runs the call, unless a call with the same key is running, in which case its result is waited for.
+     *
+     * @param theKey  The key of the call.
+     * @param theCall The call.
+     * @return The result of the call.
+     */
+    public V execute(K theKey, Supplier<V> theCall) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> running = calls.putIfAbsent(theKey, flight);
+        if (running != null) {
+            sharedCounter.increment();
+            return await(running);
+        }
+        executedCounter.increment();
+        try {
+            V result = theCall.get();
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            calls.remove(theKey, flight);
+        }
+    }
+
+    /**
+     * Detaches the running call with the given key, if any, so that callers arriving from now on run the call
+     * again. Callers already waiting still get its result. Used when the data the call reads has changed.
+     *
+     * @param theKey The key of the call.
+     */
+    public void forget(K theKey) {
+        calls.remove(theKey);
+    }
+
+    private static <V> V await(CompletableFuture<V> theFlight) {
+        try {
+            return theFlight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static Counter callCounter(String theName, String theResult, MeterRegistry theMeterRegistry) {
+        return Counter.builder(MetricsConfig.SINGLE_FLIGHT_CALLS_COUNTER)
+                .description("Coalesced calls by whether they were run or got the result of a running one")
+                .tag("name", theName)
+                .tag("result", theResult)
+                .register(theMeterRegistry);
+    }
+}
@@ -0,0 +1,46 @@
+package com.ilepan.creditcardapp.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque cursor of the User listing, holding the id of the last User of a page.
+ */
+final class UserCursor {
+
+    /**
+     * Prefix of the decoded cursor, followed by the id of the last User of the page.
+     */
+    private static final String PREFIX = "id:";
+
+    private UserCursor() {
+    }
+
+    /**
+     * Encodes the id of the last User of a page as an opaque cursor.
+     */
+    static String encode(int theLastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + theLastId).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Decodes a cursor created by {@link #encode(int)}.
+     *
+     * @throws IllegalArgumentException if the cursor was not created by {@link #encode(int)}.
+     */
+    static int decode(String theCursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(theCursor), StandardCharsets.US_ASCII);
+            if (decoded.startsWith(PREFIX)) {
+                int lastId = Integer.parseInt(decoded.substring(PREFIX.length()));
+                if (lastId >= 0) {
+                    return lastId;
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            // falls through to the error below
+        }
+        throw new IllegalArgumentException("Invalid cursor: " + theCursor);
+    }
+}
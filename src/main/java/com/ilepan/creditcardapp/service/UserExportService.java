@@ -0,0 +1,25 @@
+package com.ilepan.creditcardapp.service;
+
+import com.ilepan.creditcardapp.constants.ImportFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Service interface for exporting the whole user directory.
+ */
+public interface UserExportService {
+
+    /**
+     * Writes every User, ordered by id, to the given stream as UTF-8.
+     * Rows are read from the database and written one at a time, so the heap used does not depend on the number
+     * of Users and the first bytes are written before the last row is read.
+     * CSV output starts with the header line <code>id,firstName,lastName,oib,status,fileName</code>.
+     *
+     * @param theFormat The output format.
+     * @param theOutput The stream to write to, flushed but not closed.
+     * @return The number of exported Users.
+     * @throws IOException if an I/O error occurs while writing.
+     */
+    long exportAll(ImportFormat theFormat, OutputStream theOutput) throws IOException;
+}
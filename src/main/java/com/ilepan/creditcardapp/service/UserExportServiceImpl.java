@@ -0,0 +1,135 @@
+package com.ilepan.creditcardapp.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.ilepan.creditcardapp.constants.ImportFormat;
+import com.ilepan.creditcardapp.constants.Profiles;
+import com.ilepan.creditcardapp.dao.UserRepository;
+import com.ilepan.creditcardapp.dto.UserSummary;
+import com.ilepan.creditcardapp.config.MetricsConfig;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * This class provides the implementation of the {@link UserExportService} interface.
+ * Users are read as projections from a forward-only database cursor, so they never enter the persistence context
+ * and each row can be garbage collected as soon as it is written.
+ */
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true)
+@Profile(Profiles.NOT_REACTIVE)
+@Service
+public class UserExportServiceImpl implements UserExportService {
+
+    /**
+     * Logger for the UserExportServiceImpl class.
+     */
+    private static final Logger log = LoggerFactory.getLogger(UserExportServiceImpl.class);
+
+    /** Header line of the CSV export. */
+    static final String CSV_HEADER = "id,firstName,lastName,oib,status,fileName";
+
+    /**
+     * The repository for interacting with user data.
+     */
+    private final UserRepository userRepository;
+
+    /**
+     * Object mapper used for writing NDJSON rows.
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Constructor for creating a new instance of UserExportServiceImpl.
+     *
+     * @param theUserRepository The userRepository dependency injected by Spring.
+     * @param theObjectMapper The ObjectMapper dependency injected by Spring.
+     */
+    public UserExportServiceImpl(UserRepository theUserRepository, ObjectMapper theObjectMapper) {
+        userRepository = theUserRepository;
+        objectMapper = theObjectMapper;
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public long exportAll(ImportFormat theFormat, OutputStream theOutput) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(theOutput, StandardCharsets.UTF_8));
+        long exported;
+        try (Stream<UserSummary> users = userRepository.streamAll()) {
+            exported = theFormat == ImportFormat.CSV
+                    ? writeCsv(users.iterator(), writer)
+                    : writeNdjson(users.iterator(), writer);
+        }
+        writer.flush();
+        log.atInfo().addKeyValue("format", theFormat).addKeyValue("exported", exported).log("User export finished");
+        return exported;
+    }
+
+    private long writeNdjson(Iterator<UserSummary> theUsers, Writer theWriter) throws IOException {
+        // the writer is owned by the caller, so closing the sequence writer must not close it
+        try (SequenceWriter rows = objectMapper.writer()
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .withRootValueSeparator("\n")
+                .writeValues(theWriter)) {
+            long count = 0;
+            while (theUsers.hasNext()) {
+                rows.write(theUsers.next());
+                count++;
+            }
+            if (count > 0) {
+                theWriter.write('\n');
+            }
+            return count;
+        }
+    }
+
+    private long writeCsv(Iterator<UserSummary> theUsers, Writer theWriter) throws IOException {
+        theWriter.write(CSV_HEADER);
+        theWriter.write('\n');
+        long count = 0;
+        while (theUsers.hasNext()) {
+            UserSummary user = theUsers.next();
+            theWriter.write(Integer.toString(user.id()));
+            writeCsvField(theWriter, user.firstName());
+            writeCsvField(theWriter, user.lastName());
+            writeCsvField(theWriter, user.oib());
+            writeCsvField(theWriter, user.status());
+            writeCsvField(theWriter, user.fileName());
+            theWriter.write('\n');
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Writes a comma followed by the value, quoted as in RFC 4180 if it contains a separator, quote or line break.
+     * Null values are written as empty fields.
+     */
+    private static void writeCsvField(Writer theWriter, String theValue) throws IOException {
+        theWriter.write(',');
+        if (theValue == null) {
+            return;
+        }
+        if (theValue.indexOf(',') < 0 && theValue.indexOf('"') < 0
+                && theValue.indexOf('\n') < 0 && theValue.indexOf('\r') < 0) {
+            theWriter.write(theValue);
+            return;
+        }
+        theWriter.write('"');
+        theWriter.write(theValue.replace("\"", "\"\""));
+        theWriter.write('"');
+    }
+}
@@ -0,0 +1,83 @@
+package com.ilepan.creditcardapp.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ilepan.creditcardapp.constants.ImportFormat;
+import com.ilepan.creditcardapp.dto.UserImportRecord;
+import com.ilepan.creditcardapp.entity.User;
+
+import java.io.BufferedReader;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Parses bulk import payloads into a lazy stream of {@link UserImportRecord}s.
+ * Rows are read one line at a time so that a payload is never fully held in memory.
+ * Blank lines and the optional CSV header line are skipped but still counted, so that the
+ * reported row numbers always match the line numbers of the uploaded payload.
+ */
+public class UserImportParser {
+
+    /**
+     * The number of columns expected in a CSV row.
+     */
+    static final int CSV_COLUMNS = 4;
+
+    /**
+     * Mapper used for reading NDJSON rows.
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Constructs a new parser.
+     *
+     * @param theObjectMapper The mapper used for reading NDJSON rows.
+     */
+    public UserImportParser(ObjectMapper theObjectMapper) {
+        objectMapper = theObjectMapper;
+    }
+
+    /**
+     * Returns a lazy stream of the rows read from the given reader.
+     * The caller is responsible for closing the reader once the stream has been consumed.
+     *
+     * @param theReader The reader over the uploaded payload.
+     * @param theFormat The format of the payload.
+     * @return The parsed rows in payload order.
+     */
+    public Stream<UserImportRecord> parse(BufferedReader theReader, ImportFormat theFormat) {
+        AtomicLong rowNumber = new AtomicLong();
+        return theReader.lines()
+                .map(line -> parseLine(rowNumber.incrementAndGet(), line.trim(), theFormat))
+                .filter(Objects::nonNull);
+    }
+
+    private UserImportRecord parseLine(long theRowNumber, String theLine, ImportFormat theFormat) {
+        if (theLine.isEmpty()) {
+            return null;
+        }
+        return theFormat == ImportFormat.CSV ? parseCsv(theRowNumber, theLine) : parseJson(theRowNumber, theLine);
+    }
+
+    private UserImportRecord parseJson(long theRowNumber, String theLine) {
+        try {
+            return UserImportRecord.parsed(theRowNumber, objectMapper.readValue(theLine, User.class));
+        } catch (JsonProcessingException e) {
+            return UserImportRecord.malformed(theRowNumber, "Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private UserImportRecord parseCsv(long theRowNumber, String theLine) {
+        if (theRowNumber == 1 && theLine.regionMatches(true, 0, "firstName", 0, "firstName".length())) {
+            return null;
+        }
+        String[] columns = theLine.split(",", -1);
+        if (columns.length != CSV_COLUMNS) {
+            return UserImportRecord.malformed(theRowNumber,
+                    "Expected " + CSV_COLUMNS + " columns (firstName,lastName,oib,status) but found " + columns.length);
+        }
+        return UserImportRecord.parsed(theRowNumber,
+                new User(columns[0].trim(), columns[1].trim(), columns[2].trim(), columns[3].trim()));
+    }
+}
@@ -1,11 +1,21 @@
 package com.ilepan.creditcardapp.service;
 
+import com.ilepan.creditcardapp.dto.UserImportRecord;
+import com.ilepan.creditcardapp.dto.UserImportReport;
+import com.ilepan.creditcardapp.dto.UserPage;
+import com.ilepan.creditcardapp.dto.UserSearchCriteria;
+import com.ilepan.creditcardapp.dto.UserResponse;
 import com.ilepan.creditcardapp.entity.User;
+import com.ilepan.creditcardapp.exception.UserAlreadyExistsException;
 import com.ilepan.creditcardapp.exception.UserNotFoundException;
+import org.springframework.dao.OptimisticLockingFailureException;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * User interface for managing User entities.
@@ -14,13 +24,25 @@ import java.util.Optional;
 public interface UserService {
 
     /**
-     * Retrieves a specific User entity based on the provided OIB.
+     * The maximum number of Users on one page of {@link #search}.
+     */
+    int MAX_SEARCH_LIMIT = 1000;
+
+    /**
+     * The maximum number of rejected rows listed in a {@link UserImportReport}, the counts are always exact.
+     */
+    int MAX_REPORTED_REJECTIONS = 1000;
+
+    /**
+     * Retrieves a specific User based on the provided OIB.
+     * Concurrent lookups of the same OIB outside a transaction share one database query and its result, and the
+     * result may be cached, so the User is returned as an immutable {@link UserResponse} rather than the entity.
      *
-     * @param theOib The unique identifier of the User entity.
-     * @return The found User entity, or null if not found.
+     * @param theOib The unique identifier of the User.
+     * @return The found User, or an empty Optional if not found.
      */
 
-    Optional<User> findByOib(String theOib);
+    Optional<UserResponse> findByOib(String theOib);
     /**
      * Saves a new or existing User entity.
      *
@@ -29,23 +51,93 @@ public interface UserService {
      */
     User save(User theUser);
 
+    /**
+     * Inserts a new User entity with a single statement.
+     * Duplicates are detected by the unique key on the OIB column instead of a preceding lookup,
+     * which also makes the check safe under concurrent inserts.
+     *
+     * @param theUser The User object to be inserted.
+     * @return The inserted User entity.
+     * @throws UserAlreadyExistsException if a User with the same OIB already exists.
+     */
+    User create(User theUser);
+
 
     /**
      * Deletes a specific User entity based on the provided OIB.
+     * The User is deleted with a single statement, without being loaded first.
      *
      * @param theOib The unique identifier of the User entity to be deleted.
+     * @return The number of deleted User entities, 0 if no User with the given OIB exists.
+     */
+    int deleteByOib(String theOib);
+
+    /**
+     * Changes the status of a User. The change is made with an optimistic lock: it fails instead of overwriting
+     * a concurrent change of the same User.
+     *
+     * @param theOib             The OIB of the User.
+     * @param theStatus          The new status, 0 or 1.
+     * @param theExpectedVersions The versions of the User the change may be based on, or null to apply it to any version.
+     * @return The updated User, with its new version.
+     * @throws UserNotFoundException if no User with the given OIB exists.
+     * @throws OptimisticLockingFailureException if the User is at none of the expected versions,
+     *                                           or was changed concurrently.
+     */
+    User updateStatus(String theOib, String theStatus, Set<Long> theExpectedVersions);
+
+    /**
+     * Records a new file name on the User with the given OIB, with a single conditional statement that only
+     * succeeds if the User has no file. Of concurrent generations for the same User, exactly one claims it.
+     *
+     * @param theOib The OIB of the User.
+     * @return The claimed file name.
+     * @throws FileAlreadyExistsException if the User already has a file.
+     * @throws UserNotFoundException if no User with the given OIB exists.
+     */
+    String claimFile(String theOib) throws FileAlreadyExistsException;
+
+    /**
+     * Removes a file name recorded by {@link #claimFile(String)}, after the file could not be written.
+     * Does nothing if the User has a different file by then.
+     *
+     * @param theOib      The OIB of the User.
+     * @param theFileName The claimed file name.
      */
-    void deleteByOib(String theOib);
+    void releaseFile(String theOib, String theFileName);
 
     /**
-     * Generates a text file containing the details of a user identified by their OIB.
-     * The file is named using the user's OIB and a timestamp to ensure uniqueness.
+     * Generates a text file containing the details of a user.
+     * The file is written as UTF-8 into the configured output directory under the name claimed
+     * with {@link #claimFile(String)}.
      *
      * @param theUser the user whose details are to be written to the file
-     * @return the name of the generated file
+     * @param theFileName the name of the file
      * @throws IOException if an I/O error occurs during file creation or writing
-     * @throws UserNotFoundException if no user is found with the given OIB
      */
-    String generateFile(User theUser) throws IOException;
+    void generateFile(UserResponse theUser, String theFileName) throws IOException;
+
+    /**
+     * Imports the given rows in chunks.
+     * Every row is validated, OIBs that are already stored (or repeated within the payload) are rejected
+     * as duplicates, and the remaining rows of each chunk are written with a single JDBC batch.
+     * A row that fails never prevents the other rows from being imported.
+     *
+     * @param theRecords The parsed rows to import, consumed lazily.
+     * @return The report containing the counts and the rejected rows.
+     */
+    UserImportReport importUsers(Stream<UserImportRecord> theRecords);
+
+    /**
+     * Lists the Users matching the given filters one page at a time, ordered by id.
+     * Pages are read with keyset pagination, so a deep page costs as much as the first one.
+     *
+     * @param theCriteria The filters to apply.
+     * @param theCursor   The cursor returned with the previous page, null for the first page.
+     * @param theLimit    The maximum number of Users on the page, between 1 and {@link #MAX_SEARCH_LIMIT}.
+     * @return The page, with the cursor of the next page if there are more Users.
+     * @throws IllegalArgumentException if the cursor or the limit is invalid.
+     */
+    UserPage search(UserSearchCriteria theCriteria, String theCursor, int theLimit);
 
 }
@@ -1,24 +1,72 @@
 package com.ilepan.creditcardapp.service;
 
+import com.ilepan.creditcardapp.config.CacheConfig;
+import com.ilepan.creditcardapp.config.FileGenerationProperties;
+import com.ilepan.creditcardapp.config.MetricsConfig;
+import com.ilepan.creditcardapp.config.ReadReplicaDataSource;
+import com.ilepan.creditcardapp.constants.Profiles;
 import com.ilepan.creditcardapp.constants.StatusEnum;
 import com.ilepan.creditcardapp.dao.UserRepository;
+import com.ilepan.creditcardapp.dto.Oib;
+import com.ilepan.creditcardapp.dto.UserImportRecord;
+import com.ilepan.creditcardapp.dto.UserImportReport;
+import com.ilepan.creditcardapp.dto.UserImportResult;
+import com.ilepan.creditcardapp.dto.UserImportResult.Outcome;
+import com.ilepan.creditcardapp.dto.UserPage;
+import com.ilepan.creditcardapp.dto.UserResponse;
+import com.ilepan.creditcardapp.dto.UserSearchCriteria;
+import com.ilepan.creditcardapp.dto.UserSummary;
 import com.ilepan.creditcardapp.entity.User;
+import com.ilepan.creditcardapp.exception.UserAlreadyExistsException;
+import com.ilepan.creditcardapp.exception.UserNotFoundException;
+import com.ilepan.creditcardapp.validator.OibValidator;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.hibernate.exception.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * This class provides the implementation of the {@link UserService} interface.
  * It manages User entities by interacting with the data layer through the {@link UserService}.
  *
  */
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true)
+@Profile(Profiles.NOT_REACTIVE)
 @Service
 public class UserServiceImpl implements UserService {
 
@@ -34,50 +82,441 @@ public class UserServiceImpl implements UserService {
      */
     private UserRepository userRepository;
 
+    /**
+     * Validator used for checking OIB values of imported rows.
+     */
+    private OibValidator oibValidator;
+
+    /**
+     * Bean validator used for checking the remaining fields of imported rows.
+     */
+    private Validator validator;
+
+    /**
+     * The number of imported rows checked for duplicates and inserted per JDBC batch.
+     */
+    private int importChunkSize;
+
+    /**
+     * The directory generated files are written to.
+     */
+    private Path outputDirectory;
+
+    /**
+     * Latency of writing a User file.
+     */
+    private Timer fileWriteTimer;
+
+    /**
+     * Size of the written User files in bytes.
+     */
+    private DistributionSummary fileSizeSummary;
+
+    /**
+     * Filter of stored OIBs, answers "definitely absent" without a database lookup.
+     */
+    private OibBloomFilter oibBloomFilter;
+
+    /**
+     * Lookups the filter answered as definitely absent.
+     */
+    private Counter filterAbsentCounter;
+
+    /**
+     * Lookups the filter answered as maybe present and the database found.
+     */
+    private Counter filterPresentCounter;
+
+    /**
+     * Lookups the filter answered as maybe present and the database did not find.
+     */
+    private Counter filterFalsePositiveCounter;
+
+    /**
+     * OIBs written within the read-your-writes window, which are looked up on the primary.
+     */
+    private RecentWrites recentWrites;
+
+    /**
+     * Coalesces concurrent lookups of the same OIB into one query. Keyed by the OIB as given, since the service
+     * is not handed validated OIBs only and {@link Oib#toKey(CharSequence)} maps every malformed one to -1.
+     */
+    private SingleFlight<String, Optional<UserResponse>> lookups;
+
     /**
      * Constructor for creating a new instance of UserServiceImpl.
      *
      * @param theUserRepository The userRepository dependency injected by Spring
+     * @param theOibValidator The OibValidator dependency injected by Spring.
+     * @param theValidator The bean Validator dependency injected by Spring.
+     * @param theImportChunkSize The number of rows processed per import chunk.
+     * @param theFileGenerationProperties The file generation settings.
+     * @param theOibBloomFilter The filter of stored OIBs.
+     * @param theRecentWrites The OIBs written within the read-your-writes window.
+     * @param theMeterRegistry The registry file write and lookup metrics are recorded in.
      */
-    public UserServiceImpl(UserRepository theUserRepository) {
+    public UserServiceImpl(UserRepository theUserRepository, OibValidator theOibValidator, Validator theValidator,
+                           @Value("${creditcardapp.import.chunk-size:1000}") int theImportChunkSize,
+                           FileGenerationProperties theFileGenerationProperties, OibBloomFilter theOibBloomFilter,
+                           RecentWrites theRecentWrites, MeterRegistry theMeterRegistry) {
+        if (theImportChunkSize < 1) {
+            throw new IllegalArgumentException("Import chunk size must be positive, got: " + theImportChunkSize);
+        }
         userRepository = theUserRepository;
+        oibValidator = theOibValidator;
+        validator = theValidator;
+        importChunkSize = theImportChunkSize;
+        outputDirectory = theFileGenerationProperties.outputDir();
+        oibBloomFilter = theOibBloomFilter;
+        recentWrites = theRecentWrites;
+        lookups = new SingleFlight<>("findByOib", theMeterRegistry);
+        filterAbsentCounter = lookupCounter("absent", theMeterRegistry);
+        filterPresentCounter = lookupCounter("present", theMeterRegistry);
+        filterFalsePositiveCounter = lookupCounter("false_positive", theMeterRegistry);
+        fileWriteTimer = Timer.builder(MetricsConfig.FILE_WRITE_TIMER)
+                .description("Time to write a generated file")
+                .tag("type", "user")
+                .publishPercentileHistogram()
+                .register(theMeterRegistry);
+        fileSizeSummary = DistributionSummary.builder(MetricsConfig.FILE_SIZE_SUMMARY)
+                .description("Size of generated files")
+                .baseUnit("bytes")
+                .tag("type", "user")
+                .publishPercentileHistogram()
+                .register(theMeterRegistry);
     }
 
+    // not transactional: callers waiting for a running lookup must not hold a connection meanwhile.
+    // Not cached while a write of the OIB settles, the lookup may have read the row before the write committed
+    // and would put the stale result after the write evicted the entry.
+    @Cacheable(cacheNames = CacheConfig.USERS_BY_OIB, keyGenerator = CacheConfig.OIB_KEY_GENERATOR,
+            unless = "@recentWrites.isUnsettled(#theOib)")
     @Override
-    public Optional<User> findByOib(String theOib) {
-        log.info("Finding User by OiB: {}", theOib);
-        return userRepository.findByOib(theOib);
+    public Optional<UserResponse> findByOib(String theOib) {
+        log.atDebug().addKeyValue("oib", theOib).log("Finding User by OIB");
+        if (!oibBloomFilter.mightContain(theOib)) {
+            filterAbsentCounter.increment();
+            return Optional.empty();
+        }
+        Optional<UserResponse> user;
+        if (recentWrites.contains(theOib)) {
+            // a replica may not have caught up with a recent write of the OIB yet
+            user = ReadReplicaDataSource.readFromPrimary(() -> query(theOib));
+        } else if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            // the caller's transaction may hold changes other lookups do not see
+            user = query(theOib);
+        } else {
+            user = lookups.execute(theOib, () -> query(theOib));
+        }
+        if (oibBloomFilter.isActive()) {
+            (user.isPresent() ? filterPresentCounter : filterFalsePositiveCounter).increment();
+        }
+        return user;
+    }
+
+    /**
+     * Records a write of the OIB. A lookup of it that is still running may have read the row before the write, so
+     * once the write is committed it is detached, and callers arriving later do not get its result. The write is
+     * recorded again on commit, so that lookups are not cached until the settle period has passed since the commit.
+     */
+    private void recordWrite(String theOib) {
+        recentWrites.record(theOib);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    recentWrites.record(theOib);
+                    lookups.forget(theOib);
+                }
+            });
+        } else {
+            lookups.forget(theOib);
+        }
+    }
+
+    // the result is shared with waiting callers and cached, so it must not be the mutable entity
+    private Optional<UserResponse> query(String theOib) {
+        return userRepository.findByOib(theOib).map(UserResponse::from);
     }
 
+    @CacheEvict(cacheNames = CacheConfig.USERS_BY_OIB, keyGenerator = CacheConfig.OIB_KEY_GENERATOR)
     @Transactional
     @Override
     public User save(User theUser) {
-        log.info("Saving User: {}", theUser);
+        log.atDebug().addKeyValue("oib", theUser.getOib()).log("Saving User");
+        // added before the write, so that no lookup misses the stored OIB
+        oibBloomFilter.put(theUser.getOib());
+        recordWrite(theUser.getOib());
         return userRepository.save(theUser);
     }
 
+    @CacheEvict(cacheNames = CacheConfig.USERS_BY_OIB, keyGenerator = CacheConfig.OIB_KEY_GENERATOR)
+    @Transactional
+    @Override
+    public User create(User theUser) {
+        log.atInfo().addKeyValue("oib", theUser.getOib()).log("Creating User");
+        // an id of 0 forces an insert instead of an update
+        theUser.setId(0);
+        theUser.setVersion(0);
+        oibBloomFilter.put(theUser.getOib());
+        recordWrite(theUser.getOib());
+        try {
+            return userRepository.saveAndFlush(theUser);
+        } catch (DataIntegrityViolationException e) {
+            if (isOibUniqueViolation(e)) {
+                throw new UserAlreadyExistsException("User with OIB: " + theUser.getOib() + " already exists.");
+            }
+            throw e;
+        }
+    }
+
+    @CacheEvict(cacheNames = CacheConfig.USERS_BY_OIB, keyGenerator = CacheConfig.OIB_KEY_GENERATOR)
     @Transactional
     @Override
-    public void deleteByOib(String theOib) {
-        userRepository.deleteByOib(theOib);
-        log.info("User with OIB: {} has been deleted.", theOib);
+    public int deleteByOib(String theOib) {
+        // a Bloom filter cannot forget the OIB, later lookups of it are counted as false positives
+        recordWrite(theOib);
+        int deleted = userRepository.deleteByOib(theOib);
+        if (deleted > 0) {
+            log.atInfo().addKeyValue("oib", theOib).log("User has been deleted");
+        }
+        return deleted;
     }
 
-    public String generateFile(User user) throws IOException {
-        log.info("Generating file for User with OIB: {}", user.getOib());
+    @CacheEvict(cacheNames = CacheConfig.USERS_BY_OIB, keyGenerator = CacheConfig.OIB_KEY_GENERATOR)
+    @Transactional
+    @Override
+    public User updateStatus(String theOib, String theStatus, Set<Long> theExpectedVersions) {
+        User user = userRepository.findByOib(theOib)
+                .orElseThrow(() -> new UserNotFoundException("User with OIB: " + theOib + " not found."));
+        if (theExpectedVersions != null && !theExpectedVersions.contains(user.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(User.class, user.getId());
+        }
+        recordWrite(theOib);
+        user.setStatus(theStatus);
+        // flushed here, so that a concurrent change fails this call and the returned version is the new one
+        User updated = userRepository.saveAndFlush(user);
+        log.atInfo().addKeyValue("oib", theOib).addKeyValue("status", theStatus)
+                .addKeyValue("version", updated.getVersion()).log("User status changed");
+        return updated;
+    }
+
+    @CacheEvict(cacheNames = CacheConfig.USERS_BY_OIB, keyGenerator = CacheConfig.OIB_KEY_GENERATOR)
+    @Transactional
+    @Override
+    public String claimFile(String theOib) throws FileAlreadyExistsException {
         String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
-        String filename =  user.getOib() + "_" + timestamp + ".txt";
-
-        try (FileWriter writer = new FileWriter(filename)) {
-            log.info("Attempting to write to file: {}", filename);
-            writer.write(String.format("%s,%s,%s,%s",
-                    user.getFirstName(),
-                    user.getLastName(),
-                    user.getOib(),
-                    StatusEnum.retrieveStatusValue(user.
-                            getStatus()).toString()));
-        }
-        log.info("File '{}' generated for User with OIB: {}", filename,  user.getOib());
+        String filename = theOib + "_" + timestamp + ".txt";
+        recordWrite(theOib);
+        if (userRepository.claimFile(theOib, filename) == 0) {
+            User user = userRepository.findByOib(theOib)
+                    .orElseThrow(() -> new UserNotFoundException("The user with OIB " + theOib + " not found!"));
+            throw new FileAlreadyExistsException("Active file already exists with file name: " + user.getFileName());
+        }
         return filename;
     }
+
+    @CacheEvict(cacheNames = CacheConfig.USERS_BY_OIB, keyGenerator = CacheConfig.OIB_KEY_GENERATOR)
+    @Transactional
+    @Override
+    public void releaseFile(String theOib, String theFileName) {
+        recordWrite(theOib);
+        if (userRepository.releaseFile(theOib, theFileName) > 0) {
+            log.atInfo().addKeyValue("oib", theOib).addKeyValue("file", theFileName).log("File claim released");
+        }
+    }
+
+    public void generateFile(UserResponse user, String theFileName) throws IOException {
+        byte[] content = String.format("%s,%s,%s,%s",
+                user.firstName(),
+                user.lastName(),
+                user.oib(),
+                StatusEnum.retrieveStatusValue(user.status()).toString()).getBytes(StandardCharsets.UTF_8);
+
+        Files.createDirectories(outputDirectory);
+        Path file = outputDirectory.resolve(theFileName);
+        long start = System.nanoTime();
+        Files.write(file, content,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        fileWriteTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        fileSizeSummary.record(content.length);
+        log.atInfo().addKeyValue("oib", user.oib()).addKeyValue("file", theFileName).log("User file generated");
+    }
+
+    // imported OIBs may have been cached as negative lookups
+    @CacheEvict(cacheNames = CacheConfig.USERS_BY_OIB, allEntries = true)
+    @Override
+    public UserImportReport importUsers(Stream<UserImportRecord> theRecords) {
+        List<UserImportResult> rejections = new ArrayList<>();
+        int rows = 0;
+        int imported = 0;
+        List<UserImportRecord> chunk = new ArrayList<>(importChunkSize);
+        Iterator<UserImportRecord> iterator = theRecords.iterator();
+        while (iterator.hasNext()) {
+            chunk.add(iterator.next());
+            if (chunk.size() == importChunkSize || !iterator.hasNext()) {
+                rows += chunk.size();
+                imported += importChunk(chunk, rejections);
+                chunk.clear();
+            }
+        }
+        log.atInfo().addKeyValue("imported", imported).addKeyValue("rejected", rows - imported)
+                .log("Bulk import finished");
+        return new UserImportReport(imported, rows - imported, rejections);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public UserPage search(UserSearchCriteria theCriteria, String theCursor, int theLimit) {
+        if (theLimit < 1 || theLimit > MAX_SEARCH_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_SEARCH_LIMIT + ", got: " + theLimit);
+        }
+        int afterId = theCursor == null ? 0 : UserCursor.decode(theCursor);
+        // one extra row tells whether there is a next page
+        List<UserSummary> users = userRepository.search(theCriteria, afterId, theLimit + 1);
+        if (users.size() <= theLimit) {
+            return new UserPage(users, null);
+        }
+        List<UserSummary> page = List.copyOf(users.subList(0, theLimit));
+        return new UserPage(page, UserCursor.encode(page.get(theLimit - 1).id()));
+    }
+
+    /**
+     * Validates one chunk of rows, rejects duplicates with a single set-based query
+     * and inserts the remaining rows with a single JDBC batch.
+     * OIBs repeated in an earlier chunk are already stored by the time this chunk is checked,
+     * so only the OIBs of the current chunk have to be remembered.
+     *
+     * @param theChunk      The rows of the chunk.
+     * @param theRejections The rejected rows, appended to in payload order up to {@link #MAX_REPORTED_REJECTIONS}.
+     * @return The number of inserted rows.
+     */
+    private int importChunk(List<UserImportRecord> theChunk, List<UserImportResult> theRejections) {
+        UserImportResult[] rejections = new UserImportResult[theChunk.size()];
+        Set<Long> chunkOibs = new HashSet<>();
+        List<Integer> candidates = new ArrayList<>(theChunk.size());
+        for (int i = 0; i < theChunk.size(); i++) {
+            UserImportRecord record = theChunk.get(i);
+            String error = validateRecord(record);
+            if (error != null) {
+                String oib = record.user() == null ? null : record.user().getOib();
+                rejections[i] = new UserImportResult(record.rowNumber(), oib, Outcome.INVALID, error);
+            } else if (!chunkOibs.add(Oib.toKey(record.user().getOib()))) {
+                rejections[i] = duplicate(record);
+            } else {
+                candidates.add(i);
+            }
+        }
+
+        Set<String> existingOibs = candidates.isEmpty() ? Set.of() : userRepository.findExistingOibs(
+                candidates.stream().map(i -> theChunk.get(i).user().getOib()).collect(Collectors.toList()));
+        List<Integer> toInsert = new ArrayList<>(candidates.size());
+        for (int i : candidates) {
+            UserImportRecord record = theChunk.get(i);
+            if (existingOibs.contains(record.user().getOib())) {
+                rejections[i] = duplicate(record);
+            } else {
+                record.user().setFileName(null);
+                toInsert.add(i);
+            }
+        }
+        int inserted = insertChunk(theChunk, toInsert, rejections);
+        log.atDebug().addKeyValue("rows", theChunk.size()).addKeyValue("inserted", inserted)
+                .log("Imported chunk");
+        for (UserImportResult rejection : rejections) {
+            if (rejection != null && theRejections.size() < MAX_REPORTED_REJECTIONS) {
+                theRejections.add(rejection);
+            }
+        }
+        return inserted;
+    }
+
+    /**
+     * Inserts the checked rows of a chunk with a single JDBC batch.
+     * A concurrent create or import may store one of the OIBs after the duplicate check; the batch
+     * is then rolled back as a whole and the rows are inserted one by one, so that only the
+     * conflicting rows are rejected as duplicates.
+     *
+     * @param theChunk      The rows of the chunk.
+     * @param theRows       The indexes of the rows to insert.
+     * @param theRejections The rejections of the chunk by index, updated in place.
+     * @return The number of inserted rows.
+     */
+    private int insertChunk(List<UserImportRecord> theChunk, List<Integer> theRows,
+                            UserImportResult[] theRejections) {
+        if (theRows.isEmpty()) {
+            return 0;
+        }
+        List<User> users = theRows.stream().map(i -> theChunk.get(i).user()).toList();
+        users.forEach(user -> {
+            oibBloomFilter.put(user.getOib());
+            recordWrite(user.getOib());
+        });
+        try {
+            userRepository.insertBatch(users);
+            return users.size();
+        } catch (DuplicateKeyException e) {
+            log.atDebug().addKeyValue("rows", users.size()).log("Chunk hit a concurrent duplicate, inserting row by row");
+        }
+        int inserted = 0;
+        for (int i : theRows) {
+            try {
+                userRepository.insertBatch(List.of(theChunk.get(i).user()));
+                inserted++;
+            } catch (DuplicateKeyException e) {
+                theRejections[i] = duplicate(theChunk.get(i));
+            }
+        }
+        return inserted;
+    }
+
+    /**
+     * Validates the OIB and the bean constraints of a parsed row.
+     *
+     * @param theRecord The row to validate.
+     * @return The validation error, or null if the row is valid.
+     */
+    private String validateRecord(UserImportRecord theRecord) {
+        if (theRecord.parseError() != null) {
+            return theRecord.parseError();
+        }
+        if (!oibValidator.isValid(theRecord.user().getOib())) {
+            return "Provided OIB is not valid!";
+        }
+        Set<ConstraintViolation<User>> violations = validator.validate(theRecord.user());
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Checks whether the given exception was caused by the unique key on the OIB column.
+     *
+     * @param theException The exception thrown by the insert.
+     * @return true if the OIB unique constraint was violated.
+     */
+    private static boolean isOibUniqueViolation(DataIntegrityViolationException theException) {
+        for (Throwable cause = theException; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+                return violation.getConstraintName().toLowerCase().contains(User.OIB_UNIQUE_CONSTRAINT);
+            }
+        }
+        return false;
+    }
+
+    private static Counter lookupCounter(String theResult, MeterRegistry theMeterRegistry) {
+        return Counter.builder(MetricsConfig.OIB_FILTER_LOOKUPS_COUNTER)
+                .description("OIB lookups by the answer of the OIB filter")
+                .tag("result", theResult)
+                .register(theMeterRegistry);
+    }
+
+    private static UserImportResult duplicate(UserImportRecord theRecord) {
+        return new UserImportResult(theRecord.rowNumber(), theRecord.user().getOib(), Outcome.DUPLICATE,
+                "User with OIB: " + theRecord.user().getOib() + " already exists.");
+    }
 }
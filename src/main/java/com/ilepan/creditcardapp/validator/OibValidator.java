@@ -1,13 +1,14 @@
 package com.ilepan.creditcardapp.validator;
 
 import com.ilepan.creditcardapp.exception.InvalidOibException;
-import org.hibernate.annotations.Comment;
 import org.springframework.stereotype.Component;
 
 /**
  * The OibValidator class provides methods to calculate the control digit of
  * an OIB (Osobni Identifikacijski Broj) and to validate if the given OIB is correct.
  * The OIB is an 11-digit personal identification number.
+ * Validation is done in a single pass over the input, accepts only ASCII digits and
+ * allocates nothing when the OIB is valid. The checksum is computed with a precomputed transition table.
  */
 @Component
 public class OibValidator {
@@ -15,6 +16,32 @@ public class OibValidator {
    final static int CONTROL_DIGIT_10 = 10;
    final static int CONTROL_DIGIT_11 = 11;
 
+   /** The length of an OIB. */
+   public static final int OIB_LENGTH = 11;
+
+   /** Result of {@link #check(CharSequence)} for a valid OIB. */
+   private static final int VALID = 0;
+
+   /** Result of {@link #check(CharSequence)} for an input that is not exactly 11 ASCII digits. */
+   private static final int MALFORMED = 1;
+
+   /** Result of {@link #check(CharSequence)} for 11 digits with a wrong control digit. */
+   private static final int WRONG_CONTROL_DIGIT = 2;
+
+   /**
+    * The remainder after remainder r and digit d, at index <code>r * 10 + d</code>. Remainders are 1 to 10, so
+    * checking a digit is one table lookup instead of two divisions.
+    */
+   private static final byte[] NEXT_REMAINDER = new byte[11 * 10];
+
+   static {
+       for (int remainder = 1; remainder <= 10; remainder++) {
+           for (int digit = 0; digit <= 9; digit++) {
+               NEXT_REMAINDER[remainder * 10 + digit] = (byte) computeNextRemainder(remainder, digit);
+           }
+       }
+   }
+
     /**
      * Calculates the control digit for a given 10-digit string.
      *
@@ -29,22 +56,13 @@ public class OibValidator {
 
         int x = 10;
         for (int i = 0; i < 10; i++) {
-            int digit = Character.getNumericValue(theNumber.charAt(i));
-            x = (x + digit) % 10;
-            if (x == 0) {
-                x = 10;
+            int digit = theNumber.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new IllegalArgumentException("Provided number must be exactly 10 digits long.");
             }
-            x = (x * 2) % 11;
+            x = nextRemainder(x, digit);
         }
-
-        int controlDigit = CONTROL_DIGIT_11 - x;
-        if (controlDigit == CONTROL_DIGIT_10) {
-            controlDigit = 0;
-        } else if (controlDigit == CONTROL_DIGIT_11) {
-            controlDigit = 1;
-        }
-
-        return controlDigit;
+        return controlDigit(x);
     }
 
     /**
@@ -57,15 +75,104 @@ public class OibValidator {
      * @throws InvalidOibException if the OIB is not valid.
      */
     public void validateOIB(String theOib) {
-        if (theOib == null || !theOib.matches("\\d{11}")) {
+        int result = check(theOib);
+        if (result == MALFORMED) {
             throw new InvalidOibException(
                     "OIB must be a numeric value and exactly 11 digits long.");
         }
-
-        String oibWithoutControlDigit = theOib.substring(0, 10);
-        int controlDigit = Character.getNumericValue(theOib.charAt(10));
-        if(!(calculateControlDigit(oibWithoutControlDigit) == controlDigit)){
+        if (result == WRONG_CONTROL_DIGIT) {
             throw new InvalidOibException("Provided OIB is not valid!");
         }
     }
+
+    /**
+     * Checks whether the given characters form a valid OIB without throwing.
+     * Intended for batch callers that would otherwise pay for exception construction on invalid input.
+     *
+     * @param theOib the characters to check, may be null.
+     * @return true if the input is exactly 11 ASCII digits with a correct control digit.
+     */
+    public boolean isValid(CharSequence theOib) {
+        return check(theOib) == VALID;
+    }
+
+    /**
+     * Checks whether the given slice of ASCII bytes forms a valid OIB without throwing.
+     * Intended for callers that read OIBs straight from a request or file buffer.
+     *
+     * @param theBytes  the buffer holding the OIB.
+     * @param theOffset the index of the first byte of the OIB.
+     * @param theLength the number of bytes in the slice.
+     * @return true if the slice is exactly 11 ASCII digits with a correct control digit.
+     */
+    public boolean isValid(byte[] theBytes, int theOffset, int theLength) {
+        if (theBytes == null || theLength != OIB_LENGTH || theOffset < 0 || theOffset > theBytes.length - OIB_LENGTH) {
+            return false;
+        }
+        int x = 10;
+        for (int i = 0; i < OIB_LENGTH - 1; i++) {
+            int digit = theBytes[theOffset + i] - '0';
+            if (digit < 0 || digit > 9) {
+                return false;
+            }
+            x = nextRemainder(x, digit);
+        }
+        return theBytes[theOffset + OIB_LENGTH - 1] - '0' == controlDigit(x);
+    }
+
+    /**
+     * Checks the given characters in a single pass.
+     *
+     * @param theOib the characters to check, may be null.
+     * @return {@link #VALID}, {@link #MALFORMED} or {@link #WRONG_CONTROL_DIGIT}.
+     */
+    private static int check(CharSequence theOib) {
+        if (theOib == null || theOib.length() != OIB_LENGTH) {
+            return MALFORMED;
+        }
+        int x = 10;
+        for (int i = 0; i < OIB_LENGTH - 1; i++) {
+            int digit = theOib.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return MALFORMED;
+            }
+            x = nextRemainder(x, digit);
+        }
+        int lastDigit = theOib.charAt(OIB_LENGTH - 1) - '0';
+        if (lastDigit < 0 || lastDigit > 9) {
+            return MALFORMED;
+        }
+        return lastDigit == controlDigit(x) ? VALID : WRONG_CONTROL_DIGIT;
+    }
+
+    /**
+     * Advances the ISO 7064 (MOD 11, 10) remainder by one digit, looked up in {@link #NEXT_REMAINDER}.
+     */
+    private static int nextRemainder(int theRemainder, int theDigit) {
+        return NEXT_REMAINDER[theRemainder * 10 + theDigit];
+    }
+
+    /**
+     * Computes the ISO 7064 (MOD 11, 10) step that fills {@link #NEXT_REMAINDER}.
+     */
+    private static int computeNextRemainder(int theRemainder, int theDigit) {
+        int x = (theRemainder + theDigit) % 10;
+        if (x == 0) {
+            x = 10;
+        }
+        return (x * 2) % 11;
+    }
+
+    /**
+     * Derives the control digit from the remainder left after the first 10 digits.
+     */
+    private static int controlDigit(int theRemainder) {
+        int controlDigit = CONTROL_DIGIT_11 - theRemainder;
+        if (controlDigit == CONTROL_DIGIT_10) {
+            controlDigit = 0;
+        } else if (controlDigit == CONTROL_DIGIT_11) {
+            controlDigit = 1;
+        }
+        return controlDigit;
+    }
 }
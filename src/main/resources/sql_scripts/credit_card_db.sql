@@ -7,8 +7,24 @@ CREATE TABLE `users` (
   `id` int NOT NULL AUTO_INCREMENT,
   `first_name` varchar(45) DEFAULT NULL,
   `last_name` varchar(45) DEFAULT NULL,
-  `oib` varchar(45) DEFAULT NULL,
+  `oib` char(11) CHARACTER SET ascii COLLATE ascii_bin NOT NULL,
   `status` char(1) DEFAULT NULL,
   `file_name` varchar(45),
-  PRIMARY KEY (`id`)
+  `version` bigint NOT NULL DEFAULT 0,
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_users_oib` (`oib`),
+  KEY `idx_users_file_name_id` (`file_name`, `id`),
+  KEY `idx_users_status_id` (`status`, `id`),
+  KEY `idx_users_last_name_id` (`last_name`, `id`)
 ) ENGINE=InnoDB AUTO_INCREMENT=1 DEFAULT CHARSET=latin1;
+
+DROP TABLE IF EXISTS `idempotency_keys`;
+
+CREATE TABLE `idempotency_keys` (
+  `idempotency_key` varchar(255) CHARACTER SET ascii COLLATE ascii_bin NOT NULL,
+  `fingerprint` varchar(44) CHARACTER SET ascii COLLATE ascii_bin NOT NULL,
+  `response` text,
+  `created_at` timestamp(3) NOT NULL,
+  PRIMARY KEY (`idempotency_key`),
+  KEY `idx_idempotency_keys_created_at` (`created_at`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
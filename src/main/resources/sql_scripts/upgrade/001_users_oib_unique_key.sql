@@ -0,0 +1,9 @@
+-- Upgrades an existing user_directory schema: OIB becomes an indexed, unique 11 character ASCII column.
+USE `user_directory`;
+
+-- The unique key can only be added once duplicate OIBs are resolved, this lists them
+SELECT `oib`, COUNT(*) FROM `users` GROUP BY `oib` HAVING COUNT(*) > 1;
+
+ALTER TABLE `users`
+  MODIFY `oib` char(11) CHARACTER SET ascii COLLATE ascii_bin NOT NULL,
+  ADD UNIQUE KEY `uk_users_oib` (`oib`);
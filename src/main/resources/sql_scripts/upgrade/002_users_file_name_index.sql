@@ -0,0 +1,5 @@
+-- Upgrades an existing user_directory schema: index used for reading back the Users of a batch export file.
+USE `user_directory`;
+
+ALTER TABLE `users`
+  ADD KEY `idx_users_file_name_id` (`file_name`, `id`);
@@ -0,0 +1,10 @@
+-- Upgrades an existing user_directory schema: indexes used by the User listing (GET /api/users).
+-- The status filter and fileGenerated=false (file_name IS NULL, on the existing idx_users_file_name_id) are
+-- equality lookups: they seek to their value and read ids in order, so a page is found without scanning the previous
+-- ones. The last name prefix and fileGenerated=true (file_name IS NOT NULL) are ranges of these indexes, ordered by
+-- last_name and file_name rather than id: they only narrow the rows read, every page still sorts all matching rows.
+USE `user_directory`;
+
+ALTER TABLE `users`
+  ADD KEY `idx_users_status_id` (`status`, `id`),
+  ADD KEY `idx_users_last_name_id` (`last_name`, `id`);
@@ -0,0 +1,6 @@
+-- Upgrades an existing user_directory schema: version column used for optimistic locking of User updates.
+-- Every update increments it, and an update of a User that has changed since it was read fails with 409 Conflict.
+USE `user_directory`;
+
+ALTER TABLE `users`
+  ADD COLUMN `version` bigint NOT NULL DEFAULT 0;
@@ -0,0 +1,13 @@
+-- Upgrades an existing user_directory schema: Idempotency-Keys of POST /api/user and the responses replayed to
+-- retries, used with creditcardapp.idempotency.store=jdbc. Rows older than creditcardapp.idempotency.ttl are deleted
+-- by the application.
+USE `user_directory`;
+
+CREATE TABLE `idempotency_keys` (
+  `idempotency_key` varchar(255) CHARACTER SET ascii COLLATE ascii_bin NOT NULL,
+  `fingerprint` varchar(44) CHARACTER SET ascii COLLATE ascii_bin NOT NULL,
+  `response` text,
+  `created_at` timestamp(3) NOT NULL,
+  PRIMARY KEY (`idempotency_key`),
+  KEY `idx_idempotency_keys_created_at` (`created_at`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
@@ -0,0 +1,64 @@
+package com.ilepan.creditcardapp.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ConcurrencyLimitedDataSourceTest {
+
+    @Mock
+    private DataSource targetDataSource;
+
+    @Mock
+    private Connection connection;
+
+    private ConcurrencyLimitedDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        MockitoAnnotations.openMocks(this);
+        when(targetDataSource.getConnection()).thenReturn(connection);
+        dataSource = new ConcurrencyLimitedDataSource(targetDataSource, 1, Duration.ofMillis(50));
+    }
+
+    @Test
+    void testRejectsBorrowerOverLimit() throws SQLException {
+        Connection first = dataSource.getConnection();
+
+        assertThrows(SQLTransientConnectionException.class, () -> dataSource.getConnection());
+
+        first.close();
+        verify(connection).close();
+        assertNotNull(dataSource.getConnection());
+    }
+
+    @Test
+    void testClosingTwiceReleasesOnePermit() throws SQLException {
+        Connection first = dataSource.getConnection();
+        first.close();
+        first.close();
+
+        dataSource.getConnection();
+        assertThrows(SQLTransientConnectionException.class, () -> dataSource.getConnection());
+    }
+
+    @Test
+    void testReleasesPermitWhenPoolFails() throws SQLException {
+        when(targetDataSource.getConnection())
+                .thenThrow(new SQLTransientConnectionException("pool timeout"))
+                .thenReturn(connection);
+
+        assertThrows(SQLTransientConnectionException.class, () -> dataSource.getConnection());
+        assertNotNull(dataSource.getConnection());
+    }
+}
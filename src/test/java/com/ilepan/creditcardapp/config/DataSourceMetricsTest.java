@@ -0,0 +1,41 @@
+package com.ilepan.creditcardapp.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestPropertySource("/application-test.properties")
+@SpringBootTest(properties = {
+        "creditcardapp.db-concurrency.enabled=true",
+        "creditcardapp.db-concurrency.max-concurrency=5"
+})
+class DataSourceMetricsTest {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void poolAndGuardMetricsArePublished() throws Exception {
+        assertInstanceOf(ConcurrencyLimitedDataSource.class, dataSource);
+        try (Connection connection = dataSource.getConnection()) {
+            assertEquals(1.0, meterRegistry.get("creditcardapp.db.concurrency.active").gauge().value());
+            assertEquals(0.0, meterRegistry.get("creditcardapp.db.concurrency.waiting").gauge().value());
+            assertTrue(meterRegistry.get("hikaricp.connections.active").gauge().value() >= 1.0);
+        }
+        assertNotNull(meterRegistry.get("hikaricp.connections.idle").gauge());
+        assertNotNull(meterRegistry.get("hikaricp.connections.pending").gauge());
+        Timer acquire = meterRegistry.get("hikaricp.connections.acquire").timer();
+        assertTrue(acquire.count() > 0);
+    }
+}
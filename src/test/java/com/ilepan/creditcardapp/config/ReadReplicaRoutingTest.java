@@ -0,0 +1,74 @@
+package com.ilepan.creditcardapp.config;
+
+import com.ilepan.creditcardapp.entity.User;
+import com.ilepan.creditcardapp.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Routes against two H2 databases: <code>testdb</code> as the primary and <code>replica</code> as its only replica.
+ * Replication is simulated by copying rows to the replica in the test.
+ */
+@TestPropertySource("/application-test.properties")
+@SpringBootTest(properties = {
+        "creditcardapp.read-replicas.enabled=true",
+        "creditcardapp.read-replicas.urls[0]=jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1",
+        "creditcardapp.read-replicas.read-your-writes-window=1m"
+})
+class ReadReplicaRoutingTest {
+
+    private static final String INSERT = "insert into users (first_name, last_name, oib, status, version) "
+            + "values ('Darko', 'Kozul', ?, '0', 0)";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private UserService userService;
+
+    private final JdbcTemplate primary = new JdbcTemplate(
+            new DriverManagerDataSource("jdbc:h2:mem:testdb", "sa", "password"));
+
+    private final JdbcTemplate replica = new JdbcTemplate(
+            new DriverManagerDataSource("jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1", "sa", "password"));
+
+    @BeforeEach
+    void setUp() {
+        primary.update("delete from users");
+        // the schema is created by Hibernate on the primary only
+        replica.execute("drop all objects");
+        primary.queryForList("script nodata table users", String.class).stream()
+                .filter(statement -> !statement.startsWith("CREATE USER"))
+                .forEach(replica::execute);
+    }
+
+    @Test
+    void lookupsReadFromReplica() {
+        assertInstanceOf(ReadReplicaDataSource.class, dataSource);
+        primary.update(INSERT, "17748241351");
+
+        assertTrue(userService.findByOib("17748241351").isEmpty());
+
+        replica.update(INSERT, "17748241351");
+        assertTrue(userService.findByOib("17748241351").isPresent());
+    }
+
+    @Test
+    void writesGoToPrimaryAndAreReadBackFromIt() {
+        userService.create(new User("Darko", "Kozul", "69435151530", "0"));
+
+        assertEquals(1, primary.queryForObject("select count(*) from users", Integer.class));
+        assertEquals(0, replica.queryForObject("select count(*) from users", Integer.class));
+        // within the read-your-writes window
+        assertTrue(userService.findByOib("69435151530").isPresent());
+    }
+}
@@ -0,0 +1,20 @@
+package com.ilepan.creditcardapp.dto;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OibTest {
+
+    @Test
+    void toKey() {
+        assertEquals(17748241351L, Oib.toKey("17748241351"));
+        assertEquals(5552352140L, Oib.toKey("05552352140"));
+        assertEquals(Oib.MAX_VALUE, Oib.toKey("99999999999"));
+        assertEquals(-1, Oib.toKey("+1774824135"));
+        assertEquals(-1, Oib.toKey("1774824135a"));
+        assertEquals(-1, Oib.toKey("177482413512"));
+        assertEquals(-1, Oib.toKey(null));
+        assertTrue(Oib.MAX_VALUE < 1L << 37);
+    }
+}
@@ -0,0 +1,76 @@
+package com.ilepan.creditcardapp.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.ilepan.creditcardapp.entity.User;
+import com.ilepan.creditcardapp.service.UserService;
+import com.ilepan.creditcardapp.service.UserServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Samples through the real handler mapping, with the key written as in <code>application.properties</code>.
+ */
+@TestPropertySource(value = "/application-test.properties", properties = {
+        "creditcardapp.logging.sampling.every[GET\\ /api/user/{userOib}]=2147483647"
+})
+@AutoConfigureMockMvc
+@SpringBootTest
+class EndpointLogSamplingTest {
+
+    private static final String OIB = "17748241351";
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger(UserServiceImpl.class);
+
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    private Level level;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        level = logger.getLevel();
+        logger.setLevel(Level.DEBUG);
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @AfterEach
+    void tearDown() {
+        logger.detachAppender(appender);
+        logger.setLevel(level);
+    }
+
+    @Test
+    void testSamplesGetButNotDeleteOfSamePattern() throws Exception {
+        userService.create(new User("Darko", "Kozul", OIB, "0"));
+        appender.list.clear();
+
+        // 1 in Integer.MAX_VALUE, practically never sampled
+        mockMvc.perform(get("/api/user/{userOib}", OIB)).andExpect(status().isOk());
+        assertTrue(appender.list.isEmpty(), () -> "logged " + appender.list);
+
+        mockMvc.perform(delete("/api/user/{userOib}", OIB)).andExpect(status().isOk());
+        assertTrue(appender.list.stream().anyMatch(event -> event.getMDCPropertyMap()
+                .get(SampledLogTurboFilter.ENDPOINT_MDC_KEY).equals("DELETE /api/user/{userOib}")));
+    }
+}
@@ -0,0 +1,71 @@
+package com.ilepan.creditcardapp.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogSamplingInterceptorTest {
+
+    private final SampledLogTurboFilter turboFilter = new SampledLogTurboFilter();
+
+    private final ch.qos.logback.classic.Logger logger = new LoggerContext().getLogger(LogSamplingInterceptorTest.class);
+
+    @AfterEach
+    void tearDown() {
+        MDC.clear();
+    }
+
+    @Test
+    void testUnsampledRequestKeepsOnlyWarnings() {
+        LogSamplingInterceptor interceptor = new LogSamplingInterceptor(
+                new LogSamplingProperties(1, Map.of("GET /api/user/{userOib}", Integer.MAX_VALUE)));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/user/17748241351");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/user/{userOib}");
+
+        // 1 in Integer.MAX_VALUE, practically never sampled
+        interceptor.preHandle(request, new MockHttpServletResponse(), new Object());
+
+        assertEquals("GET /api/user/{userOib}", MDC.get(SampledLogTurboFilter.ENDPOINT_MDC_KEY));
+        assertEquals(FilterReply.DENY, turboFilter.decide(null, logger, Level.INFO, "msg", null, null));
+        assertEquals(FilterReply.NEUTRAL, turboFilter.decide(null, logger, Level.WARN, "msg", null, null));
+
+        interceptor.afterCompletion(request, new MockHttpServletResponse(), new Object(), null);
+
+        assertNull(MDC.get(SampledLogTurboFilter.SAMPLED_MDC_KEY));
+        assertEquals(FilterReply.NEUTRAL, turboFilter.decide(null, logger, Level.INFO, "msg", null, null));
+    }
+
+    @Test
+    void testDefaultRateLogsEveryRequest() {
+        LogSamplingInterceptor interceptor = new LogSamplingInterceptor(new LogSamplingProperties(1, Map.of()));
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/user");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/user");
+
+        interceptor.preHandle(request, new MockHttpServletResponse(), new Object());
+
+        assertEquals("true", MDC.get(SampledLogTurboFilter.SAMPLED_MDC_KEY));
+        assertEquals(FilterReply.NEUTRAL, turboFilter.decide(null, logger, Level.INFO, "msg", null, null));
+    }
+
+    @Test
+    void testPathPatternRateCoversAllMethods() {
+        LogSamplingInterceptor interceptor = new LogSamplingInterceptor(
+                new LogSamplingProperties(1, Map.of("/api/user/{userOib}", Integer.MAX_VALUE)));
+        MockHttpServletRequest request = new MockHttpServletRequest("DELETE", "/api/user/17748241351");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/user/{userOib}");
+
+        interceptor.preHandle(request, new MockHttpServletResponse(), new Object());
+
+        assertEquals("false", MDC.get(SampledLogTurboFilter.SAMPLED_MDC_KEY));
+    }
+}
@@ -0,0 +1,52 @@
+package com.ilepan.creditcardapp.ratelimit;
+
+import com.ilepan.creditcardapp.entity.User;
+import com.ilepan.creditcardapp.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs against the embedded Tomcat, whose RemoteIpValve is what turns X-Forwarded-For into the client address.
+ */
+@TestPropertySource(value = "/application-test.properties", properties = {
+        "creditcardapp.rate-limit.enabled=true",
+        "creditcardapp.rate-limit.requests-per-second=0.1",
+        "creditcardapp.rate-limit.burst=1"
+})
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ForwardedClientAddressTest {
+
+    private static final String OIB = "17748241351";
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void testClientsBehindProxyHaveOwnBuckets() {
+        userService.create(new User("Darko", "Kozul", OIB, "0"));
+
+        // the test client connects from the loopback address, a trusted proxy by default
+        assertEquals(HttpStatus.OK, getUser("203.0.113.1"));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, getUser("203.0.113.1"));
+        assertEquals(HttpStatus.OK, getUser("203.0.113.2"));
+    }
+
+    private HttpStatus getUser(String theClientAddress) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Forwarded-For", theClientAddress);
+        return HttpStatus.valueOf(restTemplate.exchange("/api/user/{oib}", HttpMethod.GET, new HttpEntity<>(headers),
+                String.class, OIB).getStatusCode().value());
+    }
+}
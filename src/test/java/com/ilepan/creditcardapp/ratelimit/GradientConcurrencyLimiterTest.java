@@ -0,0 +1,105 @@
+package com.ilepan.creditcardapp.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GradientConcurrencyLimiterTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    private GradientConcurrencyLimiter limiter(int theInitialLimit) {
+        return new GradientConcurrencyLimiter(
+                new ConcurrencyLimitProperties(true, theInitialLimit, 2, 100, 1.5, 0.2), now::get);
+    }
+
+    @Test
+    void rejectsAboveLimit() {
+        GradientConcurrencyLimiter limiter = limiter(2);
+
+        GradientConcurrencyLimiter.Permit first = limiter.tryAcquire();
+        assertNotNull(first);
+        assertNotNull(limiter.tryAcquire());
+        assertNull(limiter.tryAcquire());
+        assertEquals(2, limiter.getInFlight());
+
+        first.release(false);
+        first.release(false);
+
+        assertEquals(1, limiter.getInFlight());
+        assertNotNull(limiter.tryAcquire());
+    }
+
+    @Test
+    void growsWhileLatencyIsSteady() {
+        GradientConcurrencyLimiter limiter = limiter(10);
+
+        for (int i = 0; i < 50; i++) {
+            runBatch(limiter, limiter.getLimit(), 10);
+        }
+
+        assertTrue(limiter.getLimit() > 10, "limit " + limiter.getLimit());
+    }
+
+    @Test
+    void shrinksWhenLatencyRises() {
+        GradientConcurrencyLimiter limiter = limiter(50);
+        for (int i = 0; i < 20; i++) {
+            runBatch(limiter, 50, 10);
+        }
+        int before = limiter.getLimit();
+
+        for (int i = 0; i < 20; i++) {
+            runBatch(limiter, limiter.getLimit(), 100);
+        }
+
+        assertTrue(limiter.getLimit() < before / 2, "limit " + limiter.getLimit() + " from " + before);
+    }
+
+    @Test
+    void backsOffOnDrop() {
+        GradientConcurrencyLimiter limiter = limiter(50);
+
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire().release(true);
+        }
+
+        assertEquals((int) (50 * Math.pow(0.9, 10)), limiter.getLimit());
+
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire().release(true);
+        }
+
+        assertEquals(2, limiter.getLimit());
+    }
+
+    @Test
+    void rejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new GradientConcurrencyLimiter(new ConcurrencyLimitProperties(true, 10, 0, 100, 1.5, 0.2)));
+        assertThrows(IllegalArgumentException.class,
+                () -> new GradientConcurrencyLimiter(new ConcurrencyLimitProperties(true, 10, 20, 10, 1.5, 0.2)));
+        assertThrows(IllegalArgumentException.class,
+                () -> new GradientConcurrencyLimiter(new ConcurrencyLimitProperties(true, 10, 2, 100, 1.5, 0)));
+    }
+
+    /**
+     * Admits the given number of requests at once and releases them after the given latency.
+     */
+    private void runBatch(GradientConcurrencyLimiter theLimiter, int theRequests, long theLatencyMillis) {
+        List<GradientConcurrencyLimiter.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < theRequests; i++) {
+            GradientConcurrencyLimiter.Permit permit = theLimiter.tryAcquire();
+            if (permit != null) {
+                permits.add(permit);
+            }
+        }
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(theLatencyMillis));
+        permits.forEach(permit -> permit.release(false));
+    }
+}
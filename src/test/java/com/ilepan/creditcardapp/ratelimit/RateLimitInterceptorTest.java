@@ -0,0 +1,86 @@
+package com.ilepan.creditcardapp.ratelimit;
+
+import com.ilepan.creditcardapp.entity.User;
+import com.ilepan.creditcardapp.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@TestPropertySource(value = "/application-test.properties", properties = {
+        "creditcardapp.rate-limit.enabled=true",
+        "creditcardapp.rate-limit.requests-per-second=0.1",
+        "creditcardapp.rate-limit.burst=2",
+        "creditcardapp.concurrency-limit.enabled=true"
+})
+@AutoConfigureMockMvc
+@SpringBootTest
+class RateLimitInterceptorTest {
+
+    private static final String OIB = "17748241351";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        userService.create(new User("Darko", "Kozul", OIB, "0"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        userService.deleteByOib(OIB);
+    }
+
+    @Test
+    void testRejectsClientAboveRate() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/api/user/{oib}", OIB).principal(() -> "client"))
+                    .andExpect(status().isOk());
+        }
+
+        mockMvc.perform(get("/api/user/{oib}", OIB).principal(() -> "client"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "10"));
+
+        mockMvc.perform(get("/api/user/{oib}", OIB).principal(() -> "other"))
+                .andExpect(status().isOk());
+        // not limited
+        mockMvc.perform(get("/actuator/health").principal(() -> "client"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void testAnonymousClientsAreKeyedByAddressOnly() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/api/user/{oib}", OIB).with(remoteAddr("203.0.113.1")))
+                    .andExpect(status().isOk());
+        }
+
+        // a header the client chose does not buy it a fresh bucket
+        mockMvc.perform(get("/api/user/{oib}", OIB).with(remoteAddr("203.0.113.1")).header("X-Api-Key", "fresh"))
+                .andExpect(status().isTooManyRequests());
+
+        mockMvc.perform(get("/api/user/{oib}", OIB).with(remoteAddr("203.0.113.2")))
+                .andExpect(status().isOk());
+    }
+
+    private static RequestPostProcessor remoteAddr(String theAddress) {
+        return request -> {
+            request.setRemoteAddr(theAddress);
+            return request;
+        };
+    }
+}
@@ -0,0 +1,64 @@
+package com.ilepan.creditcardapp.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketRateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+
+    private final TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter(
+            new RateLimitProperties(true, 10, 3, 1000), now::get);
+
+    @Test
+    void admitsBurstThenAsksToWait() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, rateLimiter.tryAcquire("client"));
+        }
+
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), rateLimiter.tryAcquire("client"));
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(40));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(60), rateLimiter.tryAcquire("client"));
+    }
+
+    @Test
+    void refillsAtRate() {
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire("client");
+        }
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        assertEquals(0, rateLimiter.tryAcquire("client"));
+        assertTrue(rateLimiter.tryAcquire("client") > 0);
+
+        // idle for longer than a full refill, the burst is not exceeded
+        now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, rateLimiter.tryAcquire("client"));
+        }
+        assertTrue(rateLimiter.tryAcquire("client") > 0);
+    }
+
+    @Test
+    void limitsClientsSeparately() {
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire("client");
+        }
+
+        assertTrue(rateLimiter.tryAcquire("client") > 0);
+        assertEquals(0, rateLimiter.tryAcquire("other"));
+    }
+
+    @Test
+    void rejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new TokenBucketRateLimiter(new RateLimitProperties(true, 0, 3, 1000)));
+        assertThrows(IllegalArgumentException.class,
+                () -> new TokenBucketRateLimiter(new RateLimitProperties(true, 10, 0, 1000)));
+    }
+}
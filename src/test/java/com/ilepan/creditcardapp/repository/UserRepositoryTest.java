@@ -1,14 +1,19 @@
 package com.ilepan.creditcardapp.repository;
 
 import static org.junit.jupiter.api.Assertions.*;
+import java.util.List;
 import java.util.Optional;
 
+import com.ilepan.creditcardapp.constants.StatusEnum;
 import com.ilepan.creditcardapp.dao.UserRepository;
+import com.ilepan.creditcardapp.dto.UserSearchCriteria;
+import com.ilepan.creditcardapp.dto.UserSummary;
 import com.ilepan.creditcardapp.entity.User;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DuplicateKeyException;
 
 @DataJpaTest
 public class UserRepositoryTest {
@@ -41,12 +46,69 @@ public class UserRepositoryTest {
 
         assertTrue(userRepository.findByOib(user.getOib()).isPresent());
 
-        userRepository.deleteByOib(user.getOib());
-        entityManager.flush();
+        assertEquals(1, userRepository.deleteByOib(user.getOib()));
+        assertEquals(0, userRepository.deleteByOib(user.getOib()));
 
         assertFalse(userRepository.findByOib(user.getOib()).isPresent());
     }
 
+    @Test
+    void testInsertBatchDuplicateOib() {
+        User user = setupUser();
+        entityManager.persist(user);
+        entityManager.flush();
+
+        User duplicate = new User("Ana", "Anic", user.getOib(), "1");
+        assertThrows(DuplicateKeyException.class, () -> userRepository.insertBatch(List.of(duplicate)));
+    }
+
+    @Test
+    void testClaimFile() {
+        User user = setupUser();
+        entityManager.persist(user);
+        entityManager.flush();
+
+        assertEquals(1, userRepository.claimFile(user.getOib(), "first.txt"));
+        assertEquals(0, userRepository.claimFile(user.getOib(), "second.txt"));
+        assertEquals(0, userRepository.claimFile("69435151530", "first.txt"));
+
+        User claimed = userRepository.findByOib(user.getOib()).orElseThrow();
+        assertEquals("first.txt", claimed.getFileName());
+        assertEquals(1, claimed.getVersion());
+
+        assertEquals(0, userRepository.releaseFile(user.getOib(), "second.txt"));
+        assertEquals(1, userRepository.releaseFile(user.getOib(), "first.txt"));
+        assertNull(userRepository.findByOib(user.getOib()).orElseThrow().getFileName());
+    }
+
+    @Test
+    void testSearch() {
+        User active = new User("Ivan", "Horvat", "17748241351", "1");
+        User activeWithFile = new User("Ana", "Horvatić", "69435151530", "1");
+        activeWithFile.setFileName("69435151530_20240101000000.txt");
+        User inactive = new User("Marko", "Horvat", "05552352140", "0");
+        User otherName = new User("Petra", "Kovač", "18267724209", "1");
+        for (User user : List.of(active, activeWithFile, inactive, otherName)) {
+            entityManager.persist(user);
+        }
+        entityManager.flush();
+
+        List<UserSummary> horvats = userRepository.search(
+                new UserSearchCriteria(StatusEnum.ACTIVE, "Horvat", null), 0, 10);
+        assertEquals(List.of(active.getOib(), activeWithFile.getOib()), horvats.stream().map(UserSummary::oib).toList());
+
+        List<UserSummary> withoutFile = userRepository.search(
+                new UserSearchCriteria(StatusEnum.ACTIVE, "Horvat", false), 0, 10);
+        assertEquals(List.of(active.getOib()), withoutFile.stream().map(UserSummary::oib).toList());
+
+        List<UserSummary> afterFirst = userRepository.search(
+                new UserSearchCriteria(null, null, null), horvats.get(0).id(), 2);
+        assertEquals(List.of(activeWithFile.getOib(), inactive.getOib()), afterFirst.stream().map(UserSummary::oib).toList());
+
+        // wildcards in the prefix are matched literally
+        assertTrue(userRepository.search(new UserSearchCriteria(null, "%", null), 0, 10).isEmpty());
+    }
+
     /**
      * Creates and configures a new user object with sample data.
      *
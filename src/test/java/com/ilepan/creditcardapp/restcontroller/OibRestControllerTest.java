@@ -0,0 +1,33 @@
+package com.ilepan.creditcardapp.restcontroller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@TestPropertySource("/application-test.properties")
+@AutoConfigureMockMvc
+@SpringBootTest
+class OibRestControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void testValidateOibs() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/oib/validate")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("17748241351\n17748241352\n69435151530\nnot an oib\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(4))
+                .andExpect(jsonPath("$.invalid").value(2))
+                .andExpect(jsonPath("$.invalidIndexes[0]").value(1))
+                .andExpect(jsonPath("$.invalidIndexes[1]").value(3));
+    }
+}
@@ -0,0 +1,45 @@
+package com.ilepan.creditcardapp.restcontroller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TestPropertySource("/application-test.properties")
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@SpringBootTest
+class PrometheusEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void testScrapeContainsEndpointServiceAndExceptionMetrics() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/user/{userOib}", "12345678901"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/user/{userOib}", "17748241351"))
+                .andExpect(status().isNotFound());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString(
+                        "creditcardapp_exceptions_total{exception=\"InvalidOibException\"")))
+                .andExpect(content().string(containsString(
+                        "creditcardapp_exceptions_total{exception=\"UserNotFoundException\"")))
+                .andExpect(content().string(containsString(
+                        "creditcardapp_service_seconds_bucket{class=\"com.ilepan.creditcardapp.service.UserServiceImpl\"")))
+                .andExpect(content().string(containsString(
+                        "spring_data_repository_invocations_seconds_bucket")))
+                .andExpect(content().string(containsString(
+                        "http_server_requests_seconds_bucket")));
+    }
+}
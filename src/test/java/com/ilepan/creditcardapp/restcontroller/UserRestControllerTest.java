@@ -1,8 +1,14 @@
 package com.ilepan.creditcardapp.restcontroller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.ilepan.creditcardapp.config.JacksonConfig;
 import com.ilepan.creditcardapp.dao.UserRepository;
+import com.ilepan.creditcardapp.dto.UserResponse;
 import com.ilepan.creditcardapp.entity.User;
+import com.ilepan.creditcardapp.exception.UserNotFoundException;
+import com.ilepan.creditcardapp.service.FileGenerationService;
 import com.ilepan.creditcardapp.service.UserService;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
@@ -11,6 +17,8 @@ import org.mockito.Mock;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
@@ -18,7 +26,10 @@ import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
+import java.util.UUID;
 
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.mockito.Mockito.*;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
@@ -41,6 +52,9 @@ public class UserRestControllerTest {
     @Mock
     private UserRepository userRepository;
 
+    @SpyBean
+    private FileGenerationService fileGenerationService;
+
     @Test
     public void testGetUserRequest() throws Exception {
         User user = setupUser();
@@ -52,6 +66,21 @@ public class UserRestControllerTest {
                 .andExpect(jsonPath("$.oib").value(user.getOib()));
     }
 
+    @Test
+    void testGetUserRequestSmile() throws Exception {
+        User user = setupUser();
+        entityManager.persist(user);
+        entityManager.flush();
+        byte[] body = mockMvc.perform(MockMvcRequestBuilders.get("/api/user/{userOib}", user.getOib())
+                        .accept(JacksonConfig.SMILE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(JacksonConfig.SMILE))
+                .andReturn().getResponse().getContentAsByteArray();
+        JsonNode smileUser = new ObjectMapper(new SmileFactory()).readTree(body);
+        assertEquals(user.getOib(), smileUser.get("oib").asText());
+        assertEquals(0, smileUser.get("version").asLong());
+    }
+
     @Test
     void testAddUserRequest() throws Exception {
         User user = setupUser();
@@ -76,6 +105,106 @@ public class UserRestControllerTest {
                 .andExpect(content().string("User with OIB: " + user.getOib() + " already exists."));
     }
 
+    @Test
+    void testAddUserIdempotent() throws Exception {
+        User user = setupUser();
+        String body = new ObjectMapper().writeValueAsString(user);
+        String key = UUID.randomUUID().toString();
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/user")
+                        .header(UserRestController.IDEMPOTENCY_KEY, key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist(UserRestController.IDEMPOTENT_REPLAYED));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/user")
+                        .header(UserRestController.IDEMPOTENCY_KEY, key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(UserRestController.IDEMPOTENT_REPLAYED, "true"))
+                .andExpect(jsonPath("$.oib").value(user.getOib()));
+
+        user.setOib("69435151530");
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/user")
+                        .header(UserRestController.IDEMPOTENCY_KEY, key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(user)))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    void testImportUsersCsv() throws Exception {
+        User user = setupUser();
+        entityManager.persist(user);
+        entityManager.flush();
+        String csv = "firstName,lastName,oib,status\n"
+                + "Ana,Anic,69435151530,1\n"
+                + "Darko,Kozul,17748241351,0\n"
+                + "Marko,Maric,12345678901,1\n";
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/users/batch")
+                        .contentType("text/csv")
+                        .content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.rejected").value(2))
+                .andExpect(jsonPath("$.rejectedRows.length()").value(2))
+                .andExpect(jsonPath("$.rejectedRows[0].rowNumber").value(3))
+                .andExpect(jsonPath("$.rejectedRows[0].outcome").value("DUPLICATE"))
+                .andExpect(jsonPath("$.rejectedRows[1].outcome").value("INVALID"));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/user/{userOib}", "69435151530"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.firstName").value("Ana"));
+    }
+
+    @Test
+    void testListUsersPaginatesWithCursor() throws Exception {
+        entityManager.persist(new User("Ivan", "Horvat", "17748241351", "1"));
+        entityManager.persist(new User("Ana", "Horvat", "69435151530", "1"));
+        entityManager.persist(new User("Marko", "Horvat", "05552352140", "1"));
+        entityManager.flush();
+
+        String firstPage = mockMvc.perform(MockMvcRequestBuilders.get("/api/users")
+                        .param("status", "1").param("lastNamePrefix", "Hor").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].oib").value("17748241351"))
+                .andExpect(jsonPath("$.nextCursor").isNotEmpty())
+                .andReturn().getResponse().getContentAsString();
+        String cursor = new ObjectMapper().readTree(firstPage).get("nextCursor").asText();
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/users")
+                        .param("status", "1").param("lastNamePrefix", "Hor").param("limit", "2")
+                        .param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].oib").value("05552352140"))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void testListUsersSmile() throws Exception {
+        entityManager.persist(new User("Ivan", "Horvat", "17748241351", "1"));
+        entityManager.persist(new User("Ana", "Horvat", "69435151530", "1"));
+        entityManager.flush();
+
+        byte[] body = mockMvc.perform(MockMvcRequestBuilders.get("/api/users").accept(JacksonConfig.SMILE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(JacksonConfig.SMILE))
+                .andReturn().getResponse().getContentAsByteArray();
+        JsonNode page = new ObjectMapper(new SmileFactory()).readTree(body);
+        assertEquals(2, page.get("items").size());
+        assertEquals("69435151530", page.get("items").get(1).get("oib").asText());
+    }
+
+    @Test
+    void testListUsersInvalidCursor() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/users").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Invalid cursor: not-a-cursor"));
+    }
 
     @Test
     void testDeleteUser() throws Exception {
@@ -86,7 +215,7 @@ public class UserRestControllerTest {
         mockMvc.perform(MockMvcRequestBuilders.delete("/api/user/{userOib}", user.getOib()))
                 .andExpect(status().isOk());
 
-        Optional<User> deletedUser = userService.findByOib(user.getOib());
+        Optional<UserResponse> deletedUser = userService.findByOib(user.getOib());
         assertFalse(deletedUser.isPresent(), "User should be deleted from the database");
     }
 
@@ -110,7 +239,140 @@ public class UserRestControllerTest {
         when(userRepository.findByOib(anyString())).thenReturn(Optional.of(user));
         mockMvc.perform(MockMvcRequestBuilders.get("/api/generate/{userOib}", user.getOib()))
                 .andExpect(status().isOk())
-                .andExpect(content().string("File: " + user.getFileName() + " saved in the working app directory!"));
+                .andExpect(content().string(matchesPattern(
+                        "File: " + user.getOib() + "_\\d{14}\\.txt saved in directory: target/generated-files!")));
+    }
+
+    @Test
+    void testUpdateStatus() throws Exception {
+        User user = setupUser();
+        entityManager.persist(user);
+        entityManager.flush();
+
+        mockMvc.perform(MockMvcRequestBuilders.patch("/api/user/{userOib}/status", user.getOib())
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"1\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.status").value("1"))
+                .andExpect(jsonPath("$.version").value(1));
+    }
+
+    @Test
+    void testUpdateStatusStaleVersion() throws Exception {
+        User user = setupUser();
+        entityManager.persist(user);
+        entityManager.flush();
+
+        mockMvc.perform(MockMvcRequestBuilders.patch("/api/user/{userOib}/status", user.getOib())
+                        .header(HttpHeaders.IF_MATCH, "\"5\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"1\"}"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void testUpdateStatusIfMatchList() throws Exception {
+        User user = setupUser();
+        entityManager.persist(user);
+        entityManager.flush();
+
+        mockMvc.perform(MockMvcRequestBuilders.patch("/api/user/{userOib}/status", user.getOib())
+                        .header(HttpHeaders.IF_MATCH, "\"3\", W/\"0\", \"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"1\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+
+        mockMvc.perform(MockMvcRequestBuilders.patch("/api/user/{userOib}/status", user.getOib())
+                        .header(HttpHeaders.IF_MATCH, "*")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"0\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""));
+    }
+
+    @Test
+    void testUpdateStatusWeakETag() throws Exception {
+        User user = setupUser();
+        entityManager.persist(user);
+        entityManager.flush();
+
+        // the version matches, but a weak ETag never does
+        mockMvc.perform(MockMvcRequestBuilders.patch("/api/user/{userOib}/status", user.getOib())
+                        .header(HttpHeaders.IF_MATCH, "W/\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"1\"}"))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(MockMvcRequestBuilders.patch("/api/user/{userOib}/status", user.getOib())
+                        .header(HttpHeaders.IF_MATCH, "\"0\" \"1\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"1\"}"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(MockMvcRequestBuilders.patch("/api/user/{userOib}/status", user.getOib())
+                        .header(HttpHeaders.IF_MATCH, "\"0\",")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"1\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testUpdateStatusForeignETag() throws Exception {
+        User user = setupUser();
+        entityManager.persist(user);
+        entityManager.flush();
+
+        // a well-formed ETag that is not a version matches no version of the User
+        mockMvc.perform(MockMvcRequestBuilders.patch("/api/user/{userOib}/status", user.getOib())
+                        .header(HttpHeaders.IF_MATCH, "\"abc\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"1\"}"))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(MockMvcRequestBuilders.patch("/api/user/{userOib}/status", user.getOib())
+                        .header(HttpHeaders.IF_MATCH, "\"abc\", \"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"1\"}"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void testUpdateStatusInvalid() throws Exception {
+        User user = setupUser();
+        entityManager.persist(user);
+        entityManager.flush();
+
+        mockMvc.perform(MockMvcRequestBuilders.patch("/api/user/{userOib}/status", user.getOib())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"2\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGenerateFileAsync() throws Exception {
+        User user = setupUser();
+        entityManager.persist(user);
+        entityManager.flush();
+
+        String location = mockMvc.perform(MockMvcRequestBuilders.get("/api/generate/{userOib}", user.getOib())
+                        .param("async", "true"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.oib").value(user.getOib()))
+                .andExpect(jsonPath("$.status").value("QUEUED"))
+                .andReturn().getResponse().getHeader("Location");
+
+        mockMvc.perform(MockMvcRequestBuilders.get(location))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.oib").value(user.getOib()));
+    }
+
+    @Test
+    void testGenerateJobNotFound() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/generate/jobs/{jobId}", "00000000-0000-0000-0000-000000000000"))
+                .andExpect(status().isNotFound());
     }
 
     @Test
@@ -122,6 +384,20 @@ public class UserRestControllerTest {
                 .andExpect(content().string("The user with OIB 18267724209 not found!"));
     }
 
+    @Test
+    void testGenerateFileUserDeletedConcurrently() throws Exception {
+        User user = setupUser();
+        entityManager.persist(user);
+        entityManager.flush();
+
+        // the User is found, but deleted before the file is claimed
+        doThrow(new UserNotFoundException("The user with OIB " + user.getOib() + " not found!"))
+                .when(fileGenerationService).generate(any());
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/generate/{userOib}", user.getOib()))
+                .andExpect(status().isNotFound())
+                .andExpect(content().string("The user with OIB " + user.getOib() + " not found!"));
+    }
+
     @Test
     void testGenerateFileFileAlreadyExists() throws Exception {
         User user = setupUser();
@@ -0,0 +1,184 @@
+package com.ilepan.creditcardapp.restcontroller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.ilepan.creditcardapp.config.JacksonConfig;
+import com.ilepan.creditcardapp.constants.Profiles;
+import com.ilepan.creditcardapp.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@TestPropertySource(value = "/application-test.properties", properties = {
+        "spring.r2dbc.url=r2dbc:h2:mem:///reactivedb;DB_CLOSE_DELAY=-1",
+        "spring.r2dbc.username=sa",
+        "spring.r2dbc.password=",
+        "spring.sql.init.mode=always",
+        "spring.sql.init.schema-locations=classpath:schema-reactive.sql"
+})
+@ActiveProfiles(Profiles.REACTIVE)
+@AutoConfigureWebTestClient
+@SpringBootTest
+class UserRoutesTest {
+
+    private static final String OIB = "17748241351";
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @BeforeEach
+    void setUp() {
+        databaseClient.sql("DELETE FROM users").fetch().rowsUpdated().block();
+    }
+
+    @Test
+    void addAndGetUser() {
+        webTestClient.post().uri("/api/user").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new User("Darko", "Kozul", OIB, "0"))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody().jsonPath("$.oib").isEqualTo(OIB).jsonPath("$.version").isEqualTo(0);
+
+        webTestClient.get().uri("/api/user/{userOib}", OIB)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.firstName").isEqualTo("Darko");
+
+        webTestClient.post().uri("/api/user").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new User("Darko", "Kozul", OIB, "0"))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(String.class).isEqualTo("User with OIB: " + OIB + " already exists.");
+    }
+
+    @Test
+    void getUserSmile() throws IOException {
+        webTestClient.post().uri("/api/user").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new User("Darko", "Kozul", OIB, "0"))
+                .exchange()
+                .expectStatus().isCreated();
+
+        byte[] body = webTestClient.get().uri("/api/user/{userOib}", OIB).accept(JacksonConfig.SMILE)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(JacksonConfig.SMILE)
+                .expectBody().returnResult().getResponseBody();
+        assertEquals(OIB, new ObjectMapper(new SmileFactory()).readTree(body).get("oib").asText());
+    }
+
+    @Test
+    void addInvalidUser() {
+        webTestClient.post().uri("/api/user").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new User("Darko", "Kozul", OIB, "5"))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.status").exists();
+    }
+
+    @Test
+    void getUserErrors() {
+        webTestClient.get().uri("/api/user/{userOib}", OIB)
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody(String.class).isEqualTo("The user with OIB " + OIB + " not found!");
+
+        webTestClient.get().uri("/api/user/{userOib}", "17748241352")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(String.class).isEqualTo("Provided OIB is not valid!");
+    }
+
+    @Test
+    void updateStatus() {
+        insert(OIB);
+
+        webTestClient.patch().uri("/api/user/{userOib}/status", OIB).contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .bodyValue("{\"status\":\"1\"}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"1\"")
+                .expectBody().jsonPath("$.status").isEqualTo("1");
+
+        webTestClient.patch().uri("/api/user/{userOib}/status", OIB).contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .bodyValue("{\"status\":\"0\"}")
+                .exchange()
+                .expectStatus().isEqualTo(409);
+
+        webTestClient.patch().uri("/api/user/{userOib}/status", OIB).contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.IF_MATCH, "\"0\", \"1\"")
+                .bodyValue("{\"status\":\"0\"}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"2\"");
+
+        webTestClient.patch().uri("/api/user/{userOib}/status", OIB).contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.IF_MATCH, "W/\"2\"")
+                .bodyValue("{\"status\":\"1\"}")
+                .exchange()
+                .expectStatus().isEqualTo(412);
+    }
+
+    @Test
+    void listUsers() {
+        insert(OIB);
+        insert("69435151530");
+
+        webTestClient.get().uri("/api/users?lastNamePrefix=Koz&limit=10")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.items.length()").isEqualTo(2).jsonPath("$.nextCursor").isEmpty();
+
+        // an empty prefix is ignored, as on the servlet stack
+        webTestClient.get().uri("/api/users?lastNamePrefix=&limit=10")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.items.length()").isEqualTo(2);
+
+        webTestClient.get().uri("/api/users?limit=1")
+                .exchange()
+                .expectBody().jsonPath("$.nextCursor").isNotEmpty();
+
+        webTestClient.get().uri("/api/users?cursor=bogus")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(String.class).isEqualTo("Invalid cursor: bogus");
+    }
+
+    @Test
+    void deleteUser() {
+        insert(OIB);
+
+        webTestClient.delete().uri("/api/user/{userOib}", OIB)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("User with OIB: " + OIB + " has been deleted.");
+
+        webTestClient.delete().uri("/api/user/{userOib}", OIB)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    private void insert(String theOib) {
+        databaseClient.sql("INSERT INTO users (first_name, last_name, oib, status, version)"
+                        + " VALUES ('Darko', 'Kozul', :oib, '0', 0)")
+                .bind("oib", theOib)
+                .fetch().rowsUpdated().block();
+    }
+}
@@ -0,0 +1,106 @@
+package com.ilepan.creditcardapp.service;
+
+import com.ilepan.creditcardapp.config.FileGenerationProperties;
+import com.ilepan.creditcardapp.constants.StatusEnum;
+import com.ilepan.creditcardapp.dao.UserRepository;
+import com.ilepan.creditcardapp.dto.BatchExportResult;
+import com.ilepan.creditcardapp.entity.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@TestPropertySource("/application-test.properties")
+@SpringBootTest(properties = "creditcardapp.export.page-size=2")
+@Transactional
+class BatchExportServiceImplTest {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private BatchExportService batchExportService;
+
+    @Autowired
+    private FileGenerationProperties fileGenerationProperties;
+
+    @Test
+    void exportPendingWritesOneFileAndMarksUsers() throws Exception {
+        persist(new User("Ana", "Anic", "69435151530", "1"), null);
+        persist(new User("Darko", "Kozul", "17748241351", "0"), null);
+        persist(new User("Ivan", "Horvat", "05552352140", "1"), null);
+        persist(new User("Maja", "Majic", "18267724209", "1"), "existingFile.txt");
+
+        BatchExportResult result = batchExportService.exportPending(null);
+
+        assertEquals(3, result.exportedCount());
+        List<String> lines = Files.readAllLines(
+                fileGenerationProperties.outputDir().resolve(result.fileName()), StandardCharsets.UTF_8);
+        assertEquals(5, lines.size());
+        assertTrue(lines.get(0).startsWith("HDR," + result.fileName() + ","));
+        assertEquals(List.of("Ana,Anic,69435151530,ACTIVE", "Darko,Kozul,17748241351,INACTIVE",
+                "Ivan,Horvat,05552352140,ACTIVE"), lines.subList(1, 4));
+        assertEquals("TRL,3", lines.get(4));
+        assertEquals(3L, entityManager
+                .createQuery("select count(u) from User u where u.fileName = :fileName", Long.class)
+                .setParameter("fileName", result.fileName())
+                .getSingleResult());
+
+        assertEquals(new BatchExportResult(null, 0), batchExportService.exportPending(null));
+    }
+
+    @Test
+    void exportPendingFiltersByStatus() throws Exception {
+        persist(new User("Ana", "Anic", "69435151530", "1"), null);
+        persist(new User("Darko", "Kozul", "17748241351", "0"), null);
+
+        BatchExportResult result = batchExportService.exportPending(StatusEnum.INACTIVE);
+
+        assertEquals(1, result.exportedCount());
+        List<String> lines = Files.readAllLines(
+                fileGenerationProperties.outputDir().resolve(result.fileName()), StandardCharsets.UTF_8);
+        assertEquals("Darko,Kozul,17748241351,INACTIVE", lines.get(1));
+        assertEquals("TRL,1", lines.get(2));
+    }
+
+    @Test
+    void exportPendingReleasesClaimWhenWriteFails(@TempDir Path theOutputDir) {
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.claimForBatch(anyString())).thenReturn(2);
+        when(userRepository.findByFileNameAfter(anyString(), anyInt(), any()))
+                .thenThrow(new QueryTimeoutException("Read timed out"));
+        BatchExportService service = new BatchExportServiceImpl(userRepository, mock(PlatformTransactionManager.class),
+                new FileGenerationProperties(theOutputDir, 1, 1, Duration.ofHours(1)), 2, new SimpleMeterRegistry());
+
+        assertThrows(QueryTimeoutException.class, () -> service.exportPending(null));
+
+        ArgumentCaptor<String> fileName = ArgumentCaptor.forClass(String.class);
+        verify(userRepository).claimForBatch(fileName.capture());
+        verify(userRepository).releaseBatch(fileName.getValue());
+        assertFalse(Files.exists(theOutputDir.resolve(fileName.getValue())));
+        assertFalse(Files.exists(theOutputDir.resolve(fileName.getValue() + ".part")));
+    }
+
+    private void persist(User theUser, String theFileName) {
+        theUser.setFileName(theFileName);
+        entityManager.persist(theUser);
+        entityManager.flush();
+    }
+}
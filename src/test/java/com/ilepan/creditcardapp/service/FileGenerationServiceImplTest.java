@@ -0,0 +1,126 @@
+package com.ilepan.creditcardapp.service;
+
+import com.ilepan.creditcardapp.config.FileGenerationProperties;
+import com.ilepan.creditcardapp.dto.FileGenerationJob;
+import com.ilepan.creditcardapp.dto.UserResponse;
+import com.ilepan.creditcardapp.exception.GenerationJobNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class FileGenerationServiceImplTest {
+
+    @Mock
+    private UserService userService;
+
+    @TempDir
+    private Path outputDir;
+
+    private ThreadPoolTaskExecutor executor;
+
+    private FileGenerationServiceImpl fileGenerationService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setQueueCapacity(10);
+        executor.initialize();
+        fileGenerationService = new FileGenerationServiceImpl(userService, executor,
+                new FileGenerationProperties(outputDir, 1, 10, Duration.ofHours(1)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void submitCompletesJob() throws Exception {
+        UserResponse user = setupUser(null);
+        when(userService.findByOib(user.oib())).thenReturn(Optional.of(user));
+        when(userService.claimFile(user.oib())).thenReturn("17748241351_20240101120000.txt");
+
+        FileGenerationJob job = fileGenerationService.submit(user);
+        assertEquals(FileGenerationJob.Status.QUEUED, job.status());
+
+        FileGenerationJob finished = awaitFinished(job.jobId());
+        assertEquals(FileGenerationJob.Status.COMPLETED, finished.status());
+        assertEquals("17748241351_20240101120000.txt", finished.fileName());
+        verify(userService, times(1)).generateFile(user, "17748241351_20240101120000.txt");
+        verify(userService, never()).releaseFile(anyString(), anyString());
+    }
+
+    @Test
+    void submitRecordsFailure() throws Exception {
+        UserResponse user = setupUser(null);
+        when(userService.findByOib(user.oib())).thenReturn(Optional.of(user));
+        when(userService.claimFile(user.oib())).thenReturn("17748241351_20240101120000.txt");
+        doThrow(new IOException("disk full")).when(userService).generateFile(user, "17748241351_20240101120000.txt");
+
+        FileGenerationJob finished = awaitFinished(fileGenerationService.submit(user).jobId());
+
+        assertEquals(FileGenerationJob.Status.FAILED, finished.status());
+        assertEquals("disk full", finished.error());
+        verify(userService, times(1)).releaseFile(user.oib(), "17748241351_20240101120000.txt");
+    }
+
+    @Test
+    void generateLosesConcurrentClaim() throws Exception {
+        UserResponse user = setupUser(null);
+        when(userService.claimFile(user.oib())).thenThrow(
+                new FileAlreadyExistsException("Active file already exists with file name: other.txt"));
+
+        assertThrows(FileAlreadyExistsException.class, () -> fileGenerationService.generate(user));
+
+        verify(userService, never()).generateFile(any(), anyString());
+        verify(userService, never()).releaseFile(anyString(), anyString());
+    }
+
+    @Test
+    void submitRejectsUserWithActiveFile() {
+        UserResponse user = setupUser("existingFile.txt");
+
+        assertThrows(FileAlreadyExistsException.class, () -> fileGenerationService.submit(user));
+    }
+
+    @Test
+    void findUnknownJob() {
+        assertThrows(GenerationJobNotFoundException.class, () -> fileGenerationService.findJob(UUID.randomUUID()));
+    }
+
+    private FileGenerationJob awaitFinished(UUID theJobId) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            FileGenerationJob job = fileGenerationService.findJob(theJobId);
+            if (job.finishedAt() != null) {
+                return job;
+            }
+            Thread.sleep(50);
+        }
+        return fail("Job " + theJobId + " did not finish");
+    }
+
+    /**
+     * Creates and configures a new user object with sample data.
+     *
+     * @return A User object initialized with sample data.
+     */
+    private UserResponse setupUser(String theFileName) {
+        return new UserResponse(1, "Darko", "Kozul", "17748241351", "0", theFileName, 0);
+    }
+}
@@ -0,0 +1,79 @@
+package com.ilepan.creditcardapp.service;
+
+import com.ilepan.creditcardapp.config.MetricsConfig;
+import com.ilepan.creditcardapp.dto.UserResponse;
+import com.ilepan.creditcardapp.entity.User;
+import com.ilepan.creditcardapp.exception.IdempotencyKeyInProgressException;
+import com.ilepan.creditcardapp.exception.IdempotencyKeyMismatchException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyServiceImplTest {
+
+    private static final String KEY = "8e03978e-40d5-43e8-bc93-6894a57f9324";
+
+    private final User user = new User("Darko", "Kozul", "17748241351", "0");
+
+    private final UserResponse response = new UserResponse(1, "Darko", "Kozul", "17748241351", "0", null, 0);
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private IdempotencyServiceImpl idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        idempotencyService = new IdempotencyServiceImpl(
+                new InMemoryIdempotencyStore(100, Duration.ofMinutes(1)), meterRegistry);
+    }
+
+    @Test
+    void replaysCompletedRequest() {
+        assertTrue(idempotencyService.begin(KEY, user).isEmpty());
+        idempotencyService.complete(KEY, user, response);
+
+        Optional<UserResponse> replayed = idempotencyService.begin(KEY, new User("Darko", "Kozul", "17748241351", "0"));
+
+        assertEquals(Optional.of(response), replayed);
+        assertEquals(1.0, meterRegistry.get(MetricsConfig.IDEMPOTENT_REQUESTS_COUNTER)
+                .tag("result", "replayed").counter().count());
+    }
+
+    @Test
+    void rejectsRetryInProgress() {
+        idempotencyService.begin(KEY, user);
+
+        assertThrows(IdempotencyKeyInProgressException.class, () -> idempotencyService.begin(KEY, user));
+    }
+
+    @Test
+    void rejectsKeyReusedForDifferentUser() {
+        idempotencyService.begin(KEY, user);
+        idempotencyService.complete(KEY, user, response);
+
+        User other = new User("Darko", "Kozul", "69435151530", "0");
+        assertThrows(IdempotencyKeyMismatchException.class, () -> idempotencyService.begin(KEY, other));
+    }
+
+    @Test
+    void abortReleasesKey() {
+        idempotencyService.begin(KEY, user);
+        idempotencyService.abort(KEY);
+
+        assertTrue(idempotencyService.begin(KEY, user).isEmpty());
+    }
+
+    @Test
+    void rejectsMalformedKey() {
+        assertThrows(IllegalArgumentException.class, () -> idempotencyService.begin("", user));
+        assertThrows(IllegalArgumentException.class, () -> idempotencyService.begin("a key", user));
+        assertThrows(IllegalArgumentException.class,
+                () -> idempotencyService.begin("k".repeat(IdempotencyServiceImpl.MAX_KEY_LENGTH + 1), user));
+    }
+}
@@ -0,0 +1,99 @@
+package com.ilepan.creditcardapp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ilepan.creditcardapp.dto.IdempotencyRecord;
+import com.ilepan.creditcardapp.dto.UserResponse;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JdbcIdempotencyStoreTest {
+
+    private static final String KEY = "8e03978e-40d5-43e8-bc93-6894a57f9324";
+
+    private static final String URL = "jdbc:h2:mem:idempotency;DB_CLOSE_DELAY=-1";
+
+    /**
+     * Auto-commit connections, to check what other connections see.
+     */
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(URL, "sa", "password"));
+
+    /**
+     * Pool handing out connections with auto-commit off, as in the prod profile.
+     */
+    private HikariDataSource pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = new HikariDataSource();
+        pool.setJdbcUrl(URL);
+        pool.setUsername("sa");
+        pool.setPassword("password");
+        pool.setAutoCommit(false);
+        pool.setMaximumPoolSize(1);
+        jdbcTemplate.execute("drop table if exists idempotency_keys");
+        jdbcTemplate.execute("create table idempotency_keys (idempotency_key varchar(255) primary key, "
+                + "fingerprint varchar(44) not null, response text, created_at timestamp(3) not null)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void storesAndReadsResponse() {
+        JdbcIdempotencyStore store = store(Duration.ofHours(1));
+        UserResponse response = new UserResponse(1, "Darko", "Kozul", "17748241351", "0", null, 0);
+
+        assertNull(store.putIfAbsent(KEY, "fingerprint"));
+        assertEquals(new IdempotencyRecord("fingerprint", null), store.putIfAbsent(KEY, "fingerprint"));
+
+        store.complete(KEY, new IdempotencyRecord("fingerprint", response));
+        assertEquals(new IdempotencyRecord("fingerprint", response), store.putIfAbsent(KEY, "fingerprint"));
+
+        store.remove(KEY);
+        assertNull(store.putIfAbsent(KEY, "fingerprint"));
+    }
+
+    @Test
+    void replacesExpiredKey() throws InterruptedException {
+        JdbcIdempotencyStore store = store(Duration.ofMillis(200));
+
+        assertNull(store.putIfAbsent(KEY, "fingerprint"));
+        store.putIfAbsent("other", "fingerprint");
+        Thread.sleep(300);
+
+        assertNull(store.putIfAbsent(KEY, "another fingerprint"));
+        assertEquals(1, store.deleteExpired());
+        assertEquals(1, jdbcTemplate.queryForObject("select count(*) from idempotency_keys", Integer.class));
+    }
+
+    @Test
+    void commitsWithoutAutoCommit() {
+        JdbcIdempotencyStore store = store(Duration.ofHours(1));
+        UserResponse response = new UserResponse(1, "Darko", "Kozul", "17748241351", "0", null, 0);
+
+        assertNull(store.putIfAbsent(KEY, "fingerprint"));
+        assertEquals(1, jdbcTemplate.queryForObject("select count(*) from idempotency_keys", Integer.class));
+
+        store.complete(KEY, new IdempotencyRecord("fingerprint", response));
+        assertNotNull(jdbcTemplate.queryForObject("select response from idempotency_keys", String.class));
+
+        store.remove(KEY);
+        assertEquals(0, jdbcTemplate.queryForObject("select count(*) from idempotency_keys", Integer.class));
+    }
+
+    private JdbcIdempotencyStore store(Duration theTtl) {
+        return new JdbcIdempotencyStore(new JdbcTemplate(pool), new DataSourceTransactionManager(pool),
+                new ObjectMapper(), theTtl);
+    }
+}
@@ -0,0 +1,57 @@
+package com.ilepan.creditcardapp.service;
+
+import com.ilepan.creditcardapp.config.OibFilterProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OibBloomFilterTest {
+
+    @Test
+    void maybePresentUntilLoaded() {
+        OibBloomFilter filter = new OibBloomFilter(new OibFilterProperties(true, 1000, 0.01));
+
+        assertTrue(filter.mightContain("17748241351"));
+        assertFalse(filter.isActive());
+
+        assertEquals(1, filter.load(Stream.of("69435151530")));
+
+        assertTrue(filter.isActive());
+        assertTrue(filter.mightContain("69435151530"));
+        assertFalse(filter.mightContain("17748241351"));
+
+        filter.put("17748241351");
+        assertTrue(filter.mightContain("17748241351"));
+    }
+
+    @Test
+    void disabled() {
+        OibBloomFilter filter = new OibBloomFilter(new OibFilterProperties(false, 1000, 0.01));
+        filter.load(Stream.empty());
+
+        assertFalse(filter.isActive());
+        assertTrue(filter.mightContain("17748241351"));
+    }
+
+    @Test
+    void falsePositiveRate() {
+        int n = 10_000;
+        OibBloomFilter filter = new OibBloomFilter(new OibFilterProperties(true, n, 0.01));
+        filter.load(IntStream.range(0, n).mapToObj(i -> String.format("1%010d", i)));
+
+        assertTrue(IntStream.range(0, n).allMatch(i -> filter.mightContain(String.format("1%010d", i))));
+        long falsePositives = IntStream.range(0, n).filter(i -> filter.mightContain(String.format("2%010d", i))).count();
+        assertTrue(falsePositives < n * 0.02, "false positives: " + falsePositives);
+        double estimated = filter.estimatedFalsePositiveProbability();
+        assertTrue(estimated > 0.005 && estimated < 0.02, "estimated: " + estimated);
+    }
+
+    @Test
+    void invalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new OibBloomFilter(new OibFilterProperties(true, 0, 0.01)));
+        assertThrows(IllegalArgumentException.class, () -> new OibBloomFilter(new OibFilterProperties(true, 10, 1.0)));
+    }
+}
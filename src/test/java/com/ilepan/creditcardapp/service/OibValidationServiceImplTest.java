@@ -0,0 +1,86 @@
+package com.ilepan.creditcardapp.service;
+
+import com.ilepan.creditcardapp.config.OibValidationProperties;
+import com.ilepan.creditcardapp.dto.OibValidationReport;
+import com.ilepan.creditcardapp.validator.OibValidator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OibValidationServiceImplTest {
+
+    private final OibValidator oibValidator = new OibValidator();
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void validateSmallList() throws IOException {
+        OibValidationReport report = validate(new OibValidationProperties(64, 100, 0),
+                "17748241351\n"
+                        + "17748241352\n"
+                        + "  69435151530 \r\n"
+                        + "\n"
+                        + "1774824135\n"
+                        + "177482413511\n"
+                        + "177482 41351\n"
+                        + "1774824135a\n"
+                        + "05552352140");
+
+        assertEquals(9, report.total());
+        assertEquals(6, report.invalid());
+        assertArrayEquals(new int[]{1, 3, 4, 5, 6, 7}, report.invalidIndexes());
+    }
+
+    @Test
+    void validateEmptyList() throws IOException {
+        OibValidationReport report = validate(new OibValidationProperties(64, 100, 0), "");
+
+        assertEquals(0, report.total());
+        assertArrayEquals(new int[0], report.invalidIndexes());
+    }
+
+    @Test
+    void validateAcrossParallelChunks() throws IOException {
+        // three full chunks checked on the pool and a last one checked inline
+        int total = 3 * OibValidationServiceImpl.PARALLEL_THRESHOLD + 100;
+        String list = IntStream.range(0, total)
+                .mapToObj(i -> i % 1000 == 7 ? "00000000000" : oib(i))
+                .collect(Collectors.joining("\n", "", "\n"));
+
+        OibValidationReport report = validate(
+                new OibValidationProperties(OibValidationServiceImpl.PARALLEL_THRESHOLD, 100_000, 0), list);
+
+        assertEquals(total, report.total());
+        int[] expected = IntStream.range(0, total).filter(i -> i % 1000 == 7).toArray();
+        assertArrayEquals(expected, report.invalidIndexes());
+    }
+
+    @Test
+    void validateTooManyOibs() {
+        assertThrows(IllegalArgumentException.class,
+                () -> validate(new OibValidationProperties(64, 2, 0), "17748241351\n69435151530\n05552352140\n"));
+    }
+
+    private OibValidationReport validate(OibValidationProperties theProperties, String theList) throws IOException {
+        OibValidationServiceImpl service = new OibValidationServiceImpl(oibValidator, pool, theProperties);
+        return service.validate(new ByteArrayInputStream(theList.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    private String oib(int theSequence) {
+        String prefix = String.format("3%09d", theSequence);
+        return prefix + oibValidator.calculateControlDigit(prefix);
+    }
+}
@@ -0,0 +1,41 @@
+package com.ilepan.creditcardapp.service;
+
+import com.ilepan.creditcardapp.dao.ReactiveUserRepository;
+import com.ilepan.creditcardapp.entity.User;
+import com.ilepan.creditcardapp.exception.UserAlreadyExistsException;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import reactor.core.publisher.Mono;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReactiveUserServiceImplTest {
+
+    private final ReactiveUserRepository userRepository = mock(ReactiveUserRepository.class);
+
+    private final ReactiveUserService userService = new ReactiveUserServiceImpl(userRepository);
+
+    @Test
+    void createDuplicateOib() {
+        User user = new User("Darko", "Kozul", "17748241351", "0");
+        when(userRepository.insert(user)).thenReturn(Mono.error(new DuplicateKeyException(
+                "Unique index or primary key violation: \"PUBLIC.UK_USERS_OIB_INDEX_4 ON PUBLIC.USERS(OIB)\"")));
+
+        UserAlreadyExistsException exception = assertThrows(UserAlreadyExistsException.class,
+                () -> userService.create(user).block());
+        assertEquals("User with OIB: 17748241351 already exists.", exception.getMessage());
+    }
+
+    @Test
+    void createOtherIntegrityViolation() {
+        User user = new User("Darko", "Kozul", "17748241351", "0");
+        DataIntegrityViolationException violation =
+                new DataIntegrityViolationException("Value too long for column \"FIRST_NAME CHARACTER VARYING(45)\"");
+        when(userRepository.insert(user)).thenReturn(Mono.error(violation));
+
+        assertSame(violation, assertThrows(DataIntegrityViolationException.class,
+                () -> userService.create(user).block()));
+    }
+}
@@ -0,0 +1,53 @@
+package com.ilepan.creditcardapp.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecentWritesTest {
+
+    @Test
+    void remembersWrittenOibs() {
+        RecentWrites recentWrites = new RecentWrites(Duration.ofMinutes(1));
+
+        recentWrites.record("17748241351");
+
+        assertTrue(recentWrites.contains("17748241351"));
+        assertFalse(recentWrites.contains("69435151530"));
+        assertFalse(recentWrites.contains("not an oib"));
+    }
+
+    @Test
+    void forgetsOibsAfterWindow() throws InterruptedException {
+        RecentWrites recentWrites = new RecentWrites(Duration.ofMillis(50));
+
+        recentWrites.record("17748241351");
+        Thread.sleep(100);
+
+        assertFalse(recentWrites.contains("17748241351"));
+    }
+
+    @Test
+    void disabled() {
+        RecentWrites recentWrites = new RecentWrites(Duration.ZERO);
+
+        recentWrites.record("17748241351");
+
+        assertFalse(recentWrites.contains("17748241351"));
+        // lookups of a written OIB are not cached even without the read-your-writes window
+        assertTrue(recentWrites.isUnsettled("17748241351"));
+        assertFalse(recentWrites.isUnsettled("69435151530"));
+    }
+
+    @Test
+    void settlesAfterSettlePeriod() throws InterruptedException {
+        RecentWrites recentWrites = new RecentWrites(Duration.ZERO, Duration.ofMillis(50));
+
+        recentWrites.record("17748241351");
+        Thread.sleep(100);
+
+        assertFalse(recentWrites.isUnsettled("17748241351"));
+    }
+}
@@ -0,0 +1,130 @@
+package com.ilepan.creditcardapp.service;
+
+import com.ilepan.creditcardapp.config.MetricsConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private static final int CALLERS = 8;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>("test", meterRegistry);
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentCallsShareOneExecution() throws Exception {
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> singleFlight.execute("17748241351", () -> {
+                executions.incrementAndGet();
+                await(release);
+                return "user";
+            })));
+        }
+        awaitCallers();
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertEquals("user", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, executions.get());
+        assertEquals(1.0, calls("executed"));
+        assertEquals(CALLERS - 1.0, calls("shared"));
+        assertEquals(0.0, meterRegistry.get(MetricsConfig.SINGLE_FLIGHT_IN_FLIGHT_GAUGE).gauge().value());
+    }
+
+    @Test
+    void waitersGetTheException() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> singleFlight.execute("17748241351", () -> {
+                await(release);
+                throw new IllegalStateException("database down");
+            })));
+        }
+        awaitCallers();
+        release.countDown();
+
+        for (Future<String> result : results) {
+            Exception e = assertThrows(Exception.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, e.getCause());
+        }
+    }
+
+    @Test
+    void finishedCallIsRunAgain() {
+        AtomicInteger executions = new AtomicInteger();
+
+        singleFlight.execute("17748241351", () -> "user" + executions.incrementAndGet());
+        singleFlight.execute("17748241351", () -> "user" + executions.incrementAndGet());
+        singleFlight.execute("69435151530", () -> "user" + executions.incrementAndGet());
+
+        assertEquals(3, executions.get());
+        assertEquals(0.0, calls("shared"));
+    }
+
+    @Test
+    void forgottenCallIsNotJoined() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> first = executor.submit(() -> singleFlight.execute("17748241351", () -> {
+            await(release);
+            return "before";
+        }));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (calls("executed") < 1 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+
+        singleFlight.forget("17748241351");
+
+        assertEquals("after", singleFlight.execute("17748241351", () -> "after"));
+        release.countDown();
+        assertEquals("before", first.get(5, TimeUnit.SECONDS));
+        assertEquals(0.0, calls("shared"));
+    }
+
+    /**
+     * Waits until one caller runs the call and all others wait for it.
+     */
+    private void awaitCallers() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (calls("executed") + calls("shared") < CALLERS && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private double calls(String theResult) {
+        return meterRegistry.get(MetricsConfig.SINGLE_FLIGHT_CALLS_COUNTER).tag("result", theResult).counter().count();
+    }
+
+    private static void await(CountDownLatch theLatch) {
+        try {
+            theLatch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.ilepan.creditcardapp.service;
+
+import com.ilepan.creditcardapp.constants.ImportFormat;
+import com.ilepan.creditcardapp.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestPropertySource("/application-test.properties")
+@SpringBootTest
+@Transactional
+class UserExportServiceImplTest {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private UserExportService userExportService;
+
+    private User first;
+
+    private User second;
+
+    @BeforeEach
+    void setUp() {
+        first = new User("Ana", "Anić,ml.", "69435151530", "1");
+        second = new User("Ivan", "Horvat", "17748241351", "0");
+        second.setFileName("17748241351_20240101000000.txt");
+        entityManager.persist(first);
+        entityManager.persist(second);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void exportAllWritesCsv() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        assertEquals(2, userExportService.exportAll(ImportFormat.CSV, output));
+
+        assertEquals(List.of(
+                "id,firstName,lastName,oib,status,fileName",
+                first.getId() + ",Ana,\"Anić,ml.\",69435151530,1,",
+                second.getId() + ",Ivan,Horvat,17748241351,0,17748241351_20240101000000.txt"),
+                output.toString(StandardCharsets.UTF_8).lines().toList());
+    }
+
+    @Test
+    void exportAllWritesNdjson() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        assertEquals(2, userExportService.exportAll(ImportFormat.NDJSON, output));
+
+        String ndjson = output.toString(StandardCharsets.UTF_8);
+        assertTrue(ndjson.endsWith("\n"));
+        List<String> lines = ndjson.lines().toList();
+        assertEquals(2, lines.size());
+        assertEquals("{\"id\":" + first.getId() + ",\"firstName\":\"Ana\",\"lastName\":\"Anić,ml.\","
+                + "\"oib\":\"69435151530\",\"status\":\"1\",\"fileName\":null}", lines.get(0));
+        assertTrue(lines.get(1).contains("\"fileName\":\"17748241351_20240101000000.txt\""));
+    }
+}
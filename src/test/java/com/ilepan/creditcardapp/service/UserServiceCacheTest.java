@@ -0,0 +1,135 @@
+package com.ilepan.creditcardapp.service;
+
+import com.ilepan.creditcardapp.config.CacheConfig;
+import com.ilepan.creditcardapp.dao.UserRepository;
+import com.ilepan.creditcardapp.dto.Oib;
+import com.ilepan.creditcardapp.dto.UserResponse;
+import com.ilepan.creditcardapp.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@TestPropertySource("/application-test.properties")
+@SpringBootTest(properties = "spring.cache.type=caffeine")
+class UserServiceCacheTest {
+
+    // every test writes its own OIB, lookups of a written OIB are not cached for a while
+    private static final String OIB = "17748241351";
+
+    private static final String SAVED_OIB = "69435151530";
+
+    private static final String DELETED_OIB = "05552352140";
+
+    private static final String CREATED_OIB = "18267724209";
+
+    @MockBean
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(CacheConfig.USERS_BY_OIB).clear();
+    }
+
+    @Test
+    void findByOibIsReadThrough() {
+        User user = new User("Darko", "Kozul", OIB, "0");
+        when(userRepository.findByOib(OIB)).thenReturn(Optional.of(user));
+
+        UserResponse cached = userService.findByOib(OIB).orElse(null);
+        assertEquals(UserResponse.from(user), cached);
+        // the cache holds the immutable response, never the entity
+        assertSame(cached, userService.findByOib(OIB).orElse(null));
+
+        verify(userRepository, times(1)).findByOib(OIB);
+        assertEquals(1, nativeCache().stats().hitCount());
+    }
+
+    @Test
+    void negativeLookupIsCachedAndEvictedOnSave() {
+        User user = new User("Darko", "Kozul", SAVED_OIB, "0");
+        when(userRepository.findByOib(SAVED_OIB)).thenReturn(Optional.empty());
+
+        assertTrue(userService.findByOib(SAVED_OIB).isEmpty());
+        assertTrue(userService.findByOib(SAVED_OIB).isEmpty());
+        verify(userRepository, times(1)).findByOib(SAVED_OIB);
+
+        when(userRepository.save(user)).thenReturn(user);
+        when(userRepository.findByOib(SAVED_OIB)).thenReturn(Optional.of(user));
+        userService.save(user);
+
+        assertEquals(UserResponse.from(user), userService.findByOib(SAVED_OIB).orElse(null));
+        verify(userRepository, times(2)).findByOib(SAVED_OIB);
+    }
+
+    @Test
+    void deleteByOibEvicts() {
+        User user = new User("Darko", "Kozul", DELETED_OIB, "0");
+        when(userRepository.findByOib(DELETED_OIB)).thenReturn(Optional.of(user));
+        userService.findByOib(DELETED_OIB);
+        // entries are keyed by the packed DELETED_OIB, asMap() reads them without recording stats
+        assertTrue(nativeCache().asMap().containsKey(Oib.toKey(DELETED_OIB)));
+
+        userService.deleteByOib(DELETED_OIB);
+
+        assertFalse(nativeCache().asMap().containsKey(Oib.toKey(DELETED_OIB)));
+    }
+
+    @Test
+    void lookupOverlappingCreateIsNotCached() throws Exception {
+        User user = new User("Darko", "Kozul", CREATED_OIB, "0");
+        CountDownLatch lookupRead = new CountDownLatch(1);
+        CountDownLatch created = new CountDownLatch(1);
+        when(userRepository.findByOib(CREATED_OIB)).thenAnswer(invocation -> {
+            lookupRead.countDown();
+            assertTrue(created.await(5, TimeUnit.SECONDS));
+            // read before the create committed
+            return Optional.empty();
+        });
+        when(userRepository.saveAndFlush(user)).thenReturn(user);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Optional<UserResponse>> lookup = executor.submit(() -> userService.findByOib(CREATED_OIB));
+            assertTrue(lookupRead.await(5, TimeUnit.SECONDS));
+            userService.create(user);
+            created.countDown();
+            assertTrue(lookup.get(5, TimeUnit.SECONDS).isEmpty());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // the stale empty result was not put after the create evicted the entry
+        assertFalse(nativeCache().asMap().containsKey(Oib.toKey(CREATED_OIB)));
+        when(userRepository.findByOib(CREATED_OIB)).thenReturn(Optional.of(user));
+        assertEquals(UserResponse.from(user), userService.findByOib(CREATED_OIB).orElse(null));
+    }
+
+    @SuppressWarnings("unchecked")
+    private com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache() {
+        Cache cache = ((TransactionAwareCacheDecorator) cacheManager.getCache(CacheConfig.USERS_BY_OIB)).getTargetCache();
+        return ((CaffeineCache) cache).getNativeCache();
+    }
+}
@@ -1,17 +1,52 @@
 package com.ilepan.creditcardapp.service;
 
+import com.ilepan.creditcardapp.config.FileGenerationProperties;
+import com.ilepan.creditcardapp.config.MetricsConfig;
+import com.ilepan.creditcardapp.config.OibFilterProperties;
 import com.ilepan.creditcardapp.constants.StatusEnum;
 import com.ilepan.creditcardapp.dao.UserRepository;
+import com.ilepan.creditcardapp.dto.UserImportRecord;
+import com.ilepan.creditcardapp.dto.UserImportReport;
+import com.ilepan.creditcardapp.dto.UserImportResult.Outcome;
+import com.ilepan.creditcardapp.dto.UserResponse;
 import com.ilepan.creditcardapp.entity.User;
+import com.ilepan.creditcardapp.exception.UserAlreadyExistsException;
+import com.ilepan.creditcardapp.validator.OibValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 class UserServiceImplTest {
@@ -21,10 +56,22 @@ class UserServiceImplTest {
 
     private UserServiceImpl userService;
 
+    private SimpleMeterRegistry meterRegistry;
+
+    private OibBloomFilter oibBloomFilter;
+
+    @TempDir
+    private Path outputDir;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        userService = new UserServiceImpl(userRepository);
+        meterRegistry = new SimpleMeterRegistry();
+        oibBloomFilter = new OibBloomFilter(new OibFilterProperties(true, 1000, 0.01));
+        userService = new UserServiceImpl(userRepository, new OibValidator(),
+                Validation.buildDefaultValidatorFactory().getValidator(), 2,
+                new FileGenerationProperties(outputDir, 1, 1, Duration.ofHours(1)), oibBloomFilter,
+                new RecentWrites(Duration.ofSeconds(2)), meterRegistry);
     }
 
     @Test
@@ -32,12 +79,80 @@ class UserServiceImplTest {
         User expectedUser = setupUser();
         when(userRepository.findByOib(expectedUser.getOib())).thenReturn(Optional.of(expectedUser));
 
-        Optional<User> actualUser = userService.findByOib(expectedUser.getOib());
+        Optional<UserResponse> actualUser = userService.findByOib(expectedUser.getOib());
 
-        assertEquals(expectedUser, actualUser.orElse(null));
+        assertEquals(UserResponse.from(expectedUser), actualUser.orElse(null));
         verify(userRepository, times(1)).findByOib(expectedUser.getOib());
     }
 
+    @Test
+    void findByOibFiltered() {
+        User storedUser = setupUser();
+        oibBloomFilter.load(Stream.of(storedUser.getOib()));
+        when(userRepository.findByOib(storedUser.getOib())).thenReturn(Optional.of(storedUser));
+
+        assertEquals(UserResponse.from(storedUser), userService.findByOib(storedUser.getOib()).orElse(null));
+        assertEquals(Optional.empty(), userService.findByOib("69435151530"));
+
+        verify(userRepository, times(1)).findByOib(storedUser.getOib());
+        verify(userRepository, never()).findByOib("69435151530");
+        assertEquals(1.0, meterRegistry.get(MetricsConfig.OIB_FILTER_LOOKUPS_COUNTER).tag("result", "absent")
+                .counter().count());
+        assertEquals(1.0, meterRegistry.get(MetricsConfig.OIB_FILTER_LOOKUPS_COUNTER).tag("result", "present")
+                .counter().count());
+    }
+
+    @Test
+    void createAddsToFilter() {
+        User userToCreate = setupUser();
+        oibBloomFilter.load(Stream.empty());
+        when(userRepository.saveAndFlush(userToCreate)).thenReturn(userToCreate);
+
+        userService.create(userToCreate);
+
+        assertTrue(oibBloomFilter.mightContain(userToCreate.getOib()));
+    }
+
+    @Test
+    void lookupAfterWriteDoesNotJoinEarlierLookup() throws Exception {
+        // no read-your-writes window, so lookups after the write are coalesced as well
+        UserServiceImpl service = new UserServiceImpl(userRepository, new OibValidator(),
+                Validation.buildDefaultValidatorFactory().getValidator(), 2,
+                new FileGenerationProperties(outputDir, 1, 1, Duration.ofHours(1)),
+                new OibBloomFilter(new OibFilterProperties(false, 1000, 0.01)), new RecentWrites(Duration.ZERO),
+                meterRegistry);
+        User user = setupUser();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger queries = new AtomicInteger();
+        when(userRepository.findByOib(user.getOib())).thenAnswer(invocation -> {
+            if (queries.incrementAndGet() == 1) {
+                started.countDown();
+                release.await(5, TimeUnit.SECONDS);
+                return Optional.empty();
+            }
+            return Optional.of(user);
+        });
+        when(userRepository.saveAndFlush(user)).thenReturn(user);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Optional<UserResponse>> before = executor.submit(() -> service.findByOib(user.getOib()));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            service.create(user);
+            Future<Optional<UserResponse>> after = executor.submit(() -> service.findByOib(user.getOib()));
+
+            // would wait for the lookup started before the write if it had joined it
+            assertTrue(after.get(5, TimeUnit.SECONDS).isPresent());
+            release.countDown();
+            assertTrue(before.get(5, TimeUnit.SECONDS).isEmpty());
+            assertEquals(2, queries.get());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
     @Test
     void save() {
         User userToSave = setupUser();
@@ -49,20 +164,141 @@ class UserServiceImplTest {
         verify(userRepository, times(1)).save(userToSave);
     }
 
+    @Test
+    void create() {
+        User userToCreate = setupUser();
+        userToCreate.setId(7);
+        when(userRepository.saveAndFlush(userToCreate)).thenReturn(userToCreate);
+
+        User createdUser = userService.create(userToCreate);
+
+        assertEquals(userToCreate, createdUser);
+        assertEquals(0, userToCreate.getId());
+        verify(userRepository, never()).findByOib(anyString());
+    }
+
+    @Test
+    void createDuplicateOib() {
+        User userToCreate = setupUser();
+        when(userRepository.saveAndFlush(userToCreate)).thenThrow(new DataIntegrityViolationException("duplicate",
+                new ConstraintViolationException("duplicate", new SQLException(), "PUBLIC.UK_USERS_OIB_INDEX_4")));
+
+        UserAlreadyExistsException exception = assertThrows(UserAlreadyExistsException.class,
+                () -> userService.create(userToCreate));
+        assertEquals("User with OIB: 17748241351 already exists.", exception.getMessage());
+    }
+
     @Test
     void deleteByOib() {
         String testOib = "17748241351";
-        userService.deleteByOib(testOib);
+        when(userRepository.deleteByOib(testOib)).thenReturn(1);
+        assertEquals(1, userService.deleteByOib(testOib));
         verify(userRepository, times(1)).deleteByOib(testOib);
+        verify(userRepository, never()).findByOib(testOib);
     }
 
     @Test
     void generateFile() throws IOException {
         User user = setupUser();
-        userService.generateFile(user);
+        String filename = "17748241351_20240101120000.txt";
+        userService.generateFile(UserResponse.from(user), filename);
 
         assertEquals(String.format("%s,%s,%s,%s", user.getFirstName(), user.getLastName(), user.getOib(),
                 StatusEnum.retrieveStatusValue(user.getStatus()).toString()), "Darko,Kozul,17748241351,INACTIVE");
+        assertEquals("Darko,Kozul,17748241351,INACTIVE",
+                Files.readString(outputDir.resolve(filename), StandardCharsets.UTF_8));
+        assertEquals(1, meterRegistry.get(MetricsConfig.FILE_WRITE_TIMER).tag("type", "user").timer().count());
+        assertEquals(32.0, meterRegistry.get(MetricsConfig.FILE_SIZE_SUMMARY).summary().totalAmount());
+    }
+
+    @Test
+    void claimFile() throws IOException {
+        User user = setupUser();
+        when(userRepository.claimFile(eq(user.getOib()), anyString())).thenReturn(1);
+
+        String filename = userService.claimFile(user.getOib());
+
+        assertTrue(filename.matches("17748241351_\\d{14}\\.txt"), filename);
+        verify(userRepository, never()).findByOib(anyString());
+    }
+
+    @Test
+    void claimFileAlreadyClaimed() {
+        User user = setupUser();
+        user.setFileName("17748241351_20240101120000.txt");
+        when(userRepository.claimFile(eq(user.getOib()), anyString())).thenReturn(0);
+        when(userRepository.findByOib(user.getOib())).thenReturn(Optional.of(user));
+
+        FileAlreadyExistsException exception = assertThrows(FileAlreadyExistsException.class,
+                () -> userService.claimFile(user.getOib()));
+        assertEquals("Active file already exists with file name: 17748241351_20240101120000.txt",
+                exception.getMessage());
+    }
+
+    @Test
+    void updateStatusVersionMismatch() {
+        User user = setupUser();
+        user.setVersion(3);
+        when(userRepository.findByOib(user.getOib())).thenReturn(Optional.of(user));
+
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> userService.updateStatus(user.getOib(), "1", Set.of(1L, 2L)));
+        verify(userRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void importUsers() {
+        User existing = new User("Ana", "Anic", "69435151530", "1");
+        Set<String> stored = new HashSet<>(Set.of(existing.getOib()));
+        when(userRepository.findExistingOibs(anyCollection())).thenAnswer(invocation -> {
+            Set<String> oibs = new HashSet<>(invocation.<Collection<String>>getArgument(0));
+            oibs.retainAll(stored);
+            return oibs;
+        });
+        when(userRepository.insertBatch(anyList())).thenAnswer(invocation -> {
+            List<User> users = invocation.getArgument(0);
+            users.forEach(user -> stored.add(user.getOib()));
+            return users.size();
+        });
+
+        UserImportReport report = userService.importUsers(Stream.of(
+                UserImportRecord.parsed(1, setupUser()),
+                UserImportRecord.parsed(2, existing),
+                UserImportRecord.parsed(3, new User("Marko", "Maric", "12345678901", "1")),
+                UserImportRecord.malformed(4, "Malformed JSON"),
+                UserImportRecord.parsed(5, setupUser())));
+
+        assertEquals(1, report.imported());
+        assertEquals(4, report.rejected());
+        assertEquals(List.of(Outcome.DUPLICATE, Outcome.INVALID, Outcome.INVALID, Outcome.DUPLICATE),
+                report.rejectedRows().stream().map(result -> result.outcome()).toList());
+        // the repeated OIB of row 5 is in a later chunk and found by the duplicate check of that chunk
+        verify(userRepository, times(2)).findExistingOibs(anyCollection());
+        verify(userRepository, times(1)).insertBatch(argThat(users ->
+                users.size() == 1 && users.get(0).getOib().equals("17748241351")));
+    }
+
+    @Test
+    void importUsersConcurrentDuplicate() {
+        User concurrent = new User("Ana", "Anic", "69435151530", "1");
+        when(userRepository.findExistingOibs(anyCollection())).thenReturn(Set.of());
+        when(userRepository.insertBatch(anyList())).thenAnswer(invocation -> {
+            List<User> users = invocation.getArgument(0);
+            if (users.contains(concurrent)) {
+                throw new DuplicateKeyException("Duplicate entry for key 'uk_user_oib'");
+            }
+            return users.size();
+        });
+
+        UserImportReport report = userService.importUsers(Stream.of(
+                UserImportRecord.parsed(1, setupUser()),
+                UserImportRecord.parsed(2, concurrent)));
+
+        assertEquals(1, report.imported());
+        assertEquals(1, report.rejected());
+        assertEquals(2, report.rejectedRows().get(0).rowNumber());
+        assertEquals(Outcome.DUPLICATE, report.rejectedRows().get(0).outcome());
+        verify(userRepository, times(3)).insertBatch(anyList());
     }
 
     /**
@@ -0,0 +1,52 @@
+package com.ilepan.creditcardapp.validator;
+
+import com.ilepan.creditcardapp.exception.InvalidOibException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OibValidatorTest {
+
+    private final OibValidator oibValidator = new OibValidator();
+
+    @Test
+    void calculateControlDigit() {
+        assertEquals(1, oibValidator.calculateControlDigit("1774824135"));
+        assertEquals(0, oibValidator.calculateControlDigit("0555235214"));
+        assertThrows(IllegalArgumentException.class, () -> oibValidator.calculateControlDigit("177482413"));
+        assertThrows(IllegalArgumentException.class, () -> oibValidator.calculateControlDigit("17748241a5"));
+    }
+
+    @Test
+    void validateOIB() {
+        assertDoesNotThrow(() -> oibValidator.validateOIB("17748241351"));
+        InvalidOibException malformed = assertThrows(InvalidOibException.class,
+                () -> oibValidator.validateOIB("1774824135"));
+        assertEquals("OIB must be a numeric value and exactly 11 digits long.", malformed.getMessage());
+        InvalidOibException wrongControlDigit = assertThrows(InvalidOibException.class,
+                () -> oibValidator.validateOIB("17748241352"));
+        assertEquals("Provided OIB is not valid!", wrongControlDigit.getMessage());
+    }
+
+    @Test
+    void isValidCharSequence() {
+        assertTrue(oibValidator.isValid("17748241351"));
+        assertTrue(oibValidator.isValid(new StringBuilder("05552352140")));
+        assertFalse(oibValidator.isValid(null));
+        assertFalse(oibValidator.isValid("12345678901"));
+        assertFalse(oibValidator.isValid("1774824135x"));
+        // Arabic-Indic digits are numeric for Character.getNumericValue but are not valid OIB characters
+        assertFalse(oibValidator.isValid("١٧٧٤٨٢٤١٣٥١"));
+    }
+
+    @Test
+    void isValidByteSlice() {
+        byte[] buffer = "xx17748241351,12345678901".getBytes(StandardCharsets.US_ASCII);
+        assertTrue(oibValidator.isValid(buffer, 2, 11));
+        assertFalse(oibValidator.isValid(buffer, 14, 11));
+        assertFalse(oibValidator.isValid(buffer, 2, 10));
+        assertFalse(oibValidator.isValid(buffer, 20, 11));
+    }
+}
@@ -0,0 +1,10 @@
+CREATE TABLE IF NOT EXISTS users (
+  id INT AUTO_INCREMENT PRIMARY KEY,
+  first_name VARCHAR(45),
+  last_name VARCHAR(45),
+  oib CHAR(11) NOT NULL,
+  status CHAR(1),
+  file_name VARCHAR(45),
+  version BIGINT NOT NULL DEFAULT 0,
+  CONSTRAINT uk_users_oib UNIQUE (oib)
+);